@@ -0,0 +1,108 @@
+package benchmark;
+
+import java.util.Random;
+
+import tools.DistanceEngine;
+import tools.Tools;
+
+/**
+ * Compares the throughput of Tools.distance() with the DistanceEngine on ways of random
+ * nodes and reports the error of the approximation against the haversine formula.
+ * Run e.g. java benchmark.DistanceBenchmark 2000000
+ * @author Norbert Goebel
+ *
+ */
+public class DistanceBenchmark {
+
+	//latitudes and largest node distances in degrees the error is reported for
+	private static final double[] LATITUDES = {0, 30, 51, 60, 70, 80};
+	private static final double[] SPANS = {0.001, 0.01, DistanceEngine.APPROXIMATION_LIMIT};
+
+	/**
+	 * @param args number of nodes (default 2000000)
+	 */
+	public static void main(String[] args) {
+		int nodeCount = (args.length > 0) ? Integer.parseInt(args[0]) : 2000000;
+
+		//a way of nodes a few meters apart, like the nodes of OSM ways
+		Random random = new Random(4711);
+		double[] lats = new double[nodeCount];
+		double[] lons = new double[nodeCount];
+		lats[0] = 51.2;
+		lons[0] = 6.7;
+		for (int i=1; i<nodeCount; i++){
+			lats[i] = lats[i - 1] + (random.nextDouble() - 0.5) * 0.002;
+			lons[i] = lons[i - 1] + (random.nextDouble() - 0.5) * 0.002;
+		}
+
+		//warm up all variants, then measure
+		for (int run=0; run<3; run++){
+			boolean print = (run == 2);
+			toolsRun(lats, lons, print);
+			engineRun("DistanceEngine exact", new DistanceEngine(false), lats, lons, print);
+			engineRun("DistanceEngine approximate", new DistanceEngine(true), lats, lons, print);
+		}
+
+		accuracyReport(random);
+	}
+
+	private static void toolsRun(double[] lats, double[] lons, boolean print){
+		long start = System.nanoTime();
+		long sum = 0;
+		for (int i=0; i<lats.length-1; i++)
+			sum += Tools.distance(lats[i], lons[i], lats[i + 1], lons[i + 1]);
+		long time = System.nanoTime() - start;
+		if (print)
+			printResult("Tools.distance", lats.length - 1, time, sum);
+	}
+
+	private static void engineRun(String name, DistanceEngine engine, double[] lats, double[] lons, boolean print){
+		long start = System.nanoTime();
+		double[] cosLats = new double[lats.length];
+		for (int i=0; i<lats.length; i++)
+			cosLats[i] = DistanceEngine.cosLatitude(lats[i]);
+		int[] distances = new int[lats.length - 1];
+		long sum = engine.distances(lats, lons, cosLats, lats.length, distances);
+		long time = System.nanoTime() - start;
+		if (print)
+			printResult(name, lats.length - 1, time, sum);
+	}
+
+	private static void printResult(String name, int count, long time, long sum){
+		System.out.println(name+": "+Math.round(count / (time / 1e9))+" distances/s (sum "+sum+" m)");
+	}
+
+	/**
+	 * prints the largest error of the approximation for node pairs up to some spans apart at some latitudes
+	 * @param random
+	 */
+	private static void accuracyReport(Random random){
+		DistanceEngine engine = new DistanceEngine(true);
+		System.out.println("\nError of the approximation against the haversine formula, 100000 node pairs each:");
+		for (double span : SPANS){
+			for (double latitude : LATITUDES){
+				double maxError = 0;
+				double maxRelativeError = 0;
+				int differentMeters = 0;
+				for (int i=0; i<100000; i++){
+					double lat1 = latitude + random.nextDouble();
+					double lon1 = random.nextDouble() * 360 - 180;
+					double lat2 = lat1 + (random.nextDouble() * 2 - 1) * span;
+					double lon2 = lon1 + (random.nextDouble() * 2 - 1) * span;
+					double cosLat1 = DistanceEngine.cosLatitude(lat1);
+					double cosLat2 = DistanceEngine.cosLatitude(lat2);
+
+					double exact = DistanceEngine.haversine(lat1, lon1, cosLat1, lat2, lon2, cosLat2);
+					double error = Math.abs(engine.meters(lat1, lon1, cosLat1, lat2, lon2, cosLat2) - exact);
+					maxError = Math.max(maxError, error);
+					if (exact > 0)
+						maxRelativeError = Math.max(maxRelativeError, error / exact);
+					if (engine.distance(lat1, lon1, cosLat1, lat2, lon2, cosLat2) != (int) exact)
+						differentMeters++;
+				}
+				System.out.println("span "+span+" deg, latitude "+latitude+" deg: max error "+(float) maxError+" m, max relative error "+
+						(float) maxRelativeError+", whole meters differ for "+(float) (differentMeters / 1000.0)+"%");
+			}
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import graph.Graph;
+import graph.GraphBuilder;
+import graph.HilbertOrdering;
+import tools.Tools;
+
+/**
+ * Compares full Dijkstra searches on a graph numbered in random order, like the nodes of a
+ * boundary in the order of its ways, with the same graph in Hilbert curve order.
+ * The graph is a grid of two-way streets with jittered nodes.
+ * Run with enough heap, e.g. java -Xmx2g benchmark.HilbertOrderingBenchmark 1000 10
+ * @author Norbert Goebel
+ *
+ */
+public class HilbertOrderingBenchmark {
+
+	/**
+	 * @param args nodes per side of the grid (default 1000), number of searches (default 10)
+	 */
+	public static void main(String[] args) {
+		int side = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+		int searches = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+
+		Graph graph = randomGrid(side, new Random(4711));
+		long start = System.nanoTime();
+		Graph ordered = HilbertOrdering.reorder(graph);
+		long orderTime = System.nanoTime() - start;
+		System.out.println(graph.nodeCount()+" nodes, "+graph.edgeCount()+" edges, reordered in "+
+				Math.round(orderTime / 1e6)+" ms");
+
+		//the same start nodes in both graphs
+		Random random = new Random(42);
+		int[] sources = new int[searches];
+		int[] orderedSources = new int[searches];
+		for (int i=0; i<searches; i++){
+			sources[i] = random.nextInt(graph.nodeCount());
+			orderedSources[i] = indexOf(ordered, graph.getNodeId(sources[i]));
+		}
+
+		//warm up both variants, then measure
+		for (int run=0; run<3; run++){
+			boolean print = (run == 2);
+			dijkstraRun("random order", graph, sources, print);
+			dijkstraRun("Hilbert order", ordered, orderedSources, print);
+		}
+	}
+
+	private static void dijkstraRun(String name, Graph graph, int[] sources, boolean print){
+		int[] distances = new int[graph.nodeCount()];
+		long[] heap = new long[graph.edgeCount() + 1];
+		long sum = 0;
+		long start = System.nanoTime();
+		for (int source : sources)
+			sum += dijkstra(graph, source, distances, heap);
+		long time = System.nanoTime() - start;
+		if (print)
+			System.out.println(name+": "+sources.length+" searches in "+Math.round(time / 1e6)+" ms, "+
+					Math.round((double) sources.length * graph.edgeCount() / (time / 1e9))+" edges/s (checksum "+sum+")");
+	}
+
+	/**
+	 * searches the distances from source to all nodes
+	 * @param graph
+	 * @param source
+	 * @param distances
+	 * @param heap binary heap of distance << 32 | node, nodes may be in it more than once
+	 * @return sum of all distances
+	 */
+	private static long dijkstra(Graph graph, int source, int[] distances, long[] heap){
+		Arrays.fill(distances, Integer.MAX_VALUE);
+		distances[source] = 0;
+		heap[0] = source;
+		int heapSize = 1;
+		long sum = 0;
+		while (heapSize > 0){
+			long top = heap[0];
+			heap[0] = heap[--heapSize];
+			siftDown(heap, heapSize);
+			int node = (int) top;
+			int distance = (int) (top >>> 32);
+			if (distance > distances[node])
+				continue;
+			sum += distance;
+
+			for (int position=graph.getFirstEdge(node); position<graph.getFirstEdge(node + 1); position++){
+				int target = graph.getEdgeTarget(position);
+				int targetDistance = distance + graph.getEdgeLength(position);
+				if (targetDistance < distances[target]){
+					distances[target] = targetDistance;
+					heap[heapSize] = ((long) targetDistance << 32) | target;
+					siftUp(heap, heapSize++);
+				}
+			}
+		}
+		return sum;
+	}
+
+	private static void siftUp(long[] heap, int i){
+		long value = heap[i];
+		while (i > 0 && heap[(i - 1) >> 1] > value){
+			heap[i] = heap[(i - 1) >> 1];
+			i = (i - 1) >> 1;
+		}
+		heap[i] = value;
+	}
+
+	private static void siftDown(long[] heap, int size){
+		if (size == 0)
+			return;
+		long value = heap[0];
+		int i = 0;
+		while (2 * i + 1 < size){
+			int child = 2 * i + 1;
+			if (child + 1 < size && heap[child + 1] < heap[child])
+				child++;
+			if (heap[child] >= value)
+				break;
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = value;
+	}
+
+	/**
+	 * @param side
+	 * @param random
+	 * @return grid of side x side nodes in random order, two-way edges to the right and upper neighbour
+	 */
+	private static Graph randomGrid(int side, Random random){
+		int nodeCount = side * side;
+		int[] indices = new int[nodeCount];
+		for (int i=0; i<nodeCount; i++)
+			indices[i] = i;
+		for (int i=nodeCount-1; i>0; i--){
+			int j = random.nextInt(i + 1);
+			int swap = indices[i];
+			indices[i] = indices[j];
+			indices[j] = swap;
+		}
+
+		double[] lons = new double[nodeCount];
+		double[] lats = new double[nodeCount];
+		GraphBuilder builder = new GraphBuilder(nodeCount, 4 * side * (side - 1));
+		for (int i=0; i<nodeCount; i++){
+			lons[i] = 6.7 + (i % side + random.nextDouble() * 0.5) * 0.0005;
+			lats[i] = 51.2 + (i / side + random.nextDouble() * 0.5) * 0.0003;
+			builder.addNode(indices[i], 1000000L + i, lons[i], lats[i]);
+		}
+
+		int edge = 0;
+		for (int i=0; i<nodeCount; i++){
+			if (i % side < side - 1)
+				edge = addStreet(builder, edge, indices, lons, lats, i, i + 1);
+			if (i / side < side - 1)
+				edge = addStreet(builder, edge, indices, lons, lats, i, i + side);
+		}
+		return builder.build();
+	}
+
+	private static int addStreet(GraphBuilder builder, int edge, int[] indices, double[] lons, double[] lats, int from, int to){
+		int length = Tools.distance(lats[from], lons[from], lats[to], lons[to]);
+		builder.addEdge(indices[from], edge, from, 50, 2, 1, 3, "", indices[to], length,
+				new int[0], new double[0], new double[0], new long[0]);
+		builder.addReverseEdge(edge + 1, edge);
+		return edge + 2;
+	}
+
+	/**
+	 * @param graph
+	 * @param id
+	 * @return index of the node with the OSM id
+	 */
+	private static int indexOf(Graph graph, long id){
+		for (int node=0; node<graph.nodeCount(); node++){
+			if (graph.getNodeId(node) == id)
+				return node;
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,133 @@
+package benchmark;
+
+import java.util.Hashtable;
+import java.util.Random;
+
+import osmData.NodeStore;
+import osmData.OSMNode;
+
+/**
+ * Compares heap footprint and throughput of the NodeStore with the
+ * Hashtable<Long, OSMNode> the boundaries used before.
+ * Run with a fixed heap, e.g. java -Xms2g -Xmx2g benchmark.NodeStoreBenchmark 2000000
+ * @author Norbert Goebel
+ *
+ */
+public class NodeStoreBenchmark {
+
+	/**
+	 * @param args number of nodes (default 2000000)
+	 */
+	public static void main(String[] args) {
+		int nodeCount = (args.length > 0) ? Integer.parseInt(args[0]) : 2000000;
+
+		//OSM files are sorted by id, ids have gaps, imports and renumbered extracts have dense ids
+		run(nodeCount, 20);
+		run(nodeCount, 1);
+	}
+
+	/**
+	 * @param nodeCount
+	 * @param maxGap ids are 1 .. maxGap apart, 1 for dense ids
+	 */
+	private static void run(int nodeCount, int maxGap){
+		System.out.println((maxGap == 1) ? "Dense ids:" : "Ids 1 to "+maxGap+" apart:");
+		long[] ids = new long[nodeCount];
+		double[] lons = new double[nodeCount];
+		double[] lats = new double[nodeCount];
+		Random random = new Random(4711);
+		long id = 25000000;
+		for (int i=0; i<nodeCount; i++){
+			id += 1 + random.nextInt(maxGap);
+			ids[i] = id;
+			lons[i] = 6.7 + random.nextDouble() / 10;
+			lats[i] = 51.2 + random.nextDouble() / 10;
+		}
+
+		//ways refer to nodes in spatial order, not in id order
+		long[] wayRefs = ids.clone();
+		for (int i=wayRefs.length-1; i>0; i--){
+			int j = random.nextInt(i + 1);
+			long swap = wayRefs[i];
+			wayRefs[i] = wayRefs[j];
+			wayRefs[j] = swap;
+		}
+		
+		//warm up both variants, then measure
+		for (int run=0; run<3; run++){
+			boolean print = (run == 2);
+			hashtableRun(ids, lons, lats, wayRefs, print);
+			nodeStoreRun(ids, lons, lats, wayRefs, print);
+		}
+	}
+
+	private static void hashtableRun(long[] ids, double[] lons, double[] lats, long[] wayRefs, boolean print){
+		double memBefore = usedMemory();
+		long start = System.nanoTime();
+
+		Hashtable<Long, OSMNode> nodeList = new Hashtable<Long, OSMNode>();
+		for (int i=0; i<ids.length; i++)
+			nodeList.put(ids[i], new OSMNode(ids[i], lons[i], lats[i]));
+		long putTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		double sum = 0;
+		for (long ref : wayRefs){
+			if (nodeList.containsKey(ref)){
+				nodeList.get(ref).increaseInnerNodeCount();
+				sum += nodeList.get(ref).getLatitude();
+			}
+		}
+		long getTime = System.nanoTime() - start;
+
+		double memAfter = usedMemory();
+		if (print)
+			printResult("Hashtable<Long, OSMNode>", ids.length, memAfter - memBefore, putTime, getTime, sum);
+		//keep the table alive until the memory is measured
+		if (nodeList.size() != ids.length)
+			System.out.println("Error, lost nodes!");
+	}
+
+	private static void nodeStoreRun(long[] ids, double[] lons, double[] lats, long[] wayRefs, boolean print){
+		double memBefore = usedMemory();
+		long start = System.nanoTime();
+
+		NodeStore nodeList = new NodeStore();
+		for (int i=0; i<ids.length; i++)
+			nodeList.put(ids[i], lons[i], lats[i]);
+		long putTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		double sum = 0;
+		for (long ref : wayRefs){
+			if (nodeList.containsKey(ref)){
+				nodeList.increaseInnerNodeCount(ref);
+				sum += nodeList.getLatitude(nodeList.indexOf(ref));
+			}
+		}
+		long getTime = System.nanoTime() - start;
+
+		double memAfter = usedMemory();
+		if (print)
+			printResult("NodeStore", ids.length, memAfter - memBefore, putTime, getTime, sum);
+		if (nodeList.size() != ids.length)
+			System.out.println("Error, lost nodes!");
+	}
+
+	private static void printResult(String name, int nodeCount, double mem, long putTime, long getTime, double sum){
+		System.out.println(name+": "+nodeCount+" nodes, heap "+Math.round(mem * 10) / 10.0+" MB ("+
+				Math.round(mem * 1024 * 1024 / nodeCount)+" bytes/node), "+
+				Math.round(nodeCount / (putTime / 1e9))+" puts/s, "+
+				Math.round(nodeCount / (getTime / 1e9))+" way lookups/s (checksum "+Math.round(sum)+")");
+	}
+
+	/**
+	 * @return used heap in MB after garbage collection
+	 */
+	private static double usedMemory(){
+		Runtime rt = Runtime.getRuntime();
+		for (int i=0; i<3; i++)
+			System.gc();
+		return (rt.totalMemory() - rt.freeMemory()) / (1024.0 * 1024.0);
+	}
+}
@@ -0,0 +1,169 @@
+package benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import osmReader.OSMDataHandler;
+import osmReader.OSMXMLScanner;
+
+/**
+ * Compares the throughput of the StAX loop of the OSMStAXParser with the OSMXMLScanner.
+ * The file is read into memory before, so only parsing is measured.
+ * Run with enough heap for the file, e.g. java -Xmx2g benchmark.XMLScannerBenchmark map.osm
+ * @author Norbert Goebel
+ *
+ */
+public class XMLScannerBenchmark {
+
+	/**
+	 * @param args OSM XML file
+	 */
+	public static void main(String[] args) throws IOException, XMLStreamException {
+		if (args.length == 0){
+			System.out.println("Usage: XMLScannerBenchmark OsmFile");
+			return;
+		}
+		File file = new File(args[0]);
+		byte[] data = new byte[(int) file.length()];
+		InputStream input = new FileInputStream(file);
+		try {
+			int read = 0;
+			while (read < data.length){
+				int count = input.read(data, read, data.length - read);
+				if (count < 0)
+					break;
+				read += count;
+			}
+		} finally {
+			input.close();
+		}
+
+		//warm up both variants, then measure
+		for (int run=0; run<3; run++){
+			boolean print = (run == 2);
+			staxRun(data, print);
+			scannerRun(data, print);
+		}
+	}
+
+	private static void staxRun(byte[] data, boolean print) throws XMLStreamException {
+		long start = System.nanoTime();
+		XMLStreamReader parser = XMLInputFactory.newInstance().createXMLStreamReader(new ByteArrayInputStream(data));
+		CountingHandler counts = new CountingHandler();
+		String key = "";
+		boolean inWay = false;
+
+		//same attribute handling as the OSMStAXParser handlers
+		parsing:
+		while (parser.hasNext()){
+			if (parser.getEventType() == XMLStreamConstants.START_ELEMENT){
+				String name = parser.getLocalName();
+				if (name == "node"){
+					long id = 0;
+					double lat = 0;
+					double lon = 0;
+					for (int i=0; i<parser.getAttributeCount(); i++){
+						if (parser.getAttributeLocalName(i) == "id")
+							id = Long.valueOf(parser.getAttributeValue(i));
+						else if (parser.getAttributeLocalName(i) == "lat")
+							lat = Double.valueOf(parser.getAttributeValue(i)).doubleValue();
+						else if (parser.getAttributeLocalName(i) == "lon")
+							lon = Double.valueOf(parser.getAttributeValue(i)).doubleValue();
+					}
+					counts.node(id, lon, lat);
+				}
+				else if (name == "way"){
+					inWay = true;
+					for (int i=0; i<parser.getAttributeCount(); i++){
+						if (parser.getAttributeLocalName(i).equals("id"))
+							counts.way(Long.valueOf(parser.getAttributeValue(i)));
+					}
+				}
+				else if (name == "nd"){
+					for (int i=0; i<parser.getAttributeCount(); i++){
+						if (parser.getAttributeLocalName(i) == "ref")
+							counts.wayNode(Long.valueOf(parser.getAttributeValue(i)));
+					}
+				}
+				else if (name == "tag"){
+					for (int i=0; i<parser.getAttributeCount(); i++){
+						if (parser.getAttributeLocalName(i).equals("k"))
+							key = parser.getAttributeValue(i);
+						else if (parser.getAttributeLocalName(i).equals("v") && inWay)
+							counts.tag(key, parser.getAttributeValue(i));
+					}
+				}
+				else if (name == "relation")
+					break parsing;
+			}
+			else if (parser.getEventType() == XMLStreamConstants.END_ELEMENT && parser.getLocalName() == "way"){
+				inWay = false;
+				counts.wayEnd();
+			}
+			parser.next();
+		}
+		parser.close();
+
+		if (print)
+			printResult("StAX", data.length, System.nanoTime() - start, counts);
+	}
+
+	private static void scannerRun(byte[] data, boolean print) throws IOException {
+		long start = System.nanoTime();
+		CountingHandler counts = new CountingHandler();
+		new OSMXMLScanner(new ByteArrayInputStream(data), counts).read();
+		if (print)
+			printResult("OSMXMLScanner", data.length, System.nanoTime() - start, counts);
+	}
+
+	private static void printResult(String name, long bytes, long time, CountingHandler counts){
+		System.out.println(name+":");
+		System.out.println("  "+counts.nodes+" nodes, "+counts.ways+" ways, "+counts.wayNodes+" way nodes, "+counts.tags+" tags (checksum "+counts.checksum+")");
+		System.out.println("  "+(time / 1000000)+" ms, "+(bytes / 1048576.0 / (time / 1e9))+" MB/s");
+	}
+
+	/**
+	 * counts the data, the checksum keeps the values alive
+	 */
+	private static class CountingHandler implements OSMDataHandler {
+		long nodes = 0;
+		long ways = 0;
+		long wayNodes = 0;
+		long tags = 0;
+		double checksum = 0;
+
+		public void osmInfo(String version, String generator){
+		}
+
+		public void bounds(double minLat, double minLon, double maxLat, double maxLon){
+		}
+
+		public void node(long id, double longitude, double latitude){
+			nodes++;
+			checksum += longitude + latitude;
+		}
+
+		public void way(long id){
+			ways++;
+		}
+
+		public void wayNode(long nodeID){
+			wayNodes++;
+		}
+
+		public void tag(String key, String value){
+			tags++;
+		}
+
+		public void wayEnd(){
+		}
+	}
+}
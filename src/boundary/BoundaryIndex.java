@@ -0,0 +1,214 @@
+package boundary;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform grid over the boundaries, so a node is only tested against the boundaries
+ * overlapping its grid cell. The cell size follows the typical boundary size,
+ * boundaries covering the whole map or very many cells are tested for every node.
+ * Boundaries are referred to by their position in the list the index was built of.
+ * @author Norbert Goebel
+ *
+ */
+public class BoundaryIndex {
+
+	//maximum number of rows and columns of the grid
+	private static final int MAX_CELLS_PER_AXIS = 512;
+
+	//boundaries covering more cells are tested for every node
+	private static final int MAX_CELLS_PER_BOUNDARY = 4096;
+
+	private static final int[] NONE = new int[0];
+
+	private Boundary[] boundaries;
+
+	//grid
+	private double minLat = 0;
+	private double minLon = 0;
+	private double maxLat = -1;
+	private double maxLon = -1;
+	private double cellHeight = 1;
+	private double cellWidth = 1;
+	private int rows = 0;
+	private int columns = 0;
+	private int[][] cells = new int[0][];
+
+	//boundaries tested for every node
+	private int[] largeBoundaries;
+
+	/**
+	 * builds the grid for the boundaries
+	 * @param boundaries
+	 */
+	public BoundaryIndex(List<Boundary> boundaries){
+		this.boundaries = boundaries.toArray(new Boundary[boundaries.size()]);
+
+		int[] large = new int[this.boundaries.length];
+		int largeCount = 0;
+		int[] gridded = new int[this.boundaries.length];
+		int griddedCount = 0;
+
+		//boundaries of the whole map have no limits
+		for (int i=0; i<this.boundaries.length; i++){
+			Boundary boundary = this.boundaries[i];
+			if (Double.isInfinite(boundary.getMaxLat() - boundary.getMinLat()) || Double.isInfinite(boundary.getMaxLon() - boundary.getMinLon())
+					|| boundary.getMinLat() > boundary.getMaxLat() || boundary.getMinLon() > boundary.getMaxLon())
+				large[largeCount++] = i;
+			else
+				gridded[griddedCount++] = i;
+		}
+
+		if (griddedCount > 0)
+			createGrid(gridded, griddedCount);
+
+		//assign boundaries to their cells, count first
+		int[] cellSizes = new int[rows * columns];
+		for (int j=0; j<griddedCount; j++){
+			Boundary boundary = this.boundaries[gridded[j]];
+			int firstRow = row(boundary.getMinLat());
+			int lastRow = row(boundary.getMaxLat());
+			int firstColumn = column(boundary.getMinLon());
+			int lastColumn = column(boundary.getMaxLon());
+			if ((long) (lastRow - firstRow + 1) * (lastColumn - firstColumn + 1) > MAX_CELLS_PER_BOUNDARY){
+				large[largeCount++] = gridded[j];
+				gridded[j] = -1;
+				continue;
+			}
+			for (int row=firstRow; row<=lastRow; row++){
+				for (int column=firstColumn; column<=lastColumn; column++)
+					cellSizes[row * columns + column]++;
+			}
+		}
+
+		cells = new int[rows * columns][];
+		for (int cell=0; cell<cells.length; cell++)
+			cells[cell] = (cellSizes[cell] == 0) ? NONE : new int[cellSizes[cell]];
+		Arrays.fill(cellSizes, 0);
+		for (int j=0; j<griddedCount; j++){
+			if (gridded[j] < 0)
+				continue;
+			Boundary boundary = this.boundaries[gridded[j]];
+			for (int row=row(boundary.getMinLat()); row<=row(boundary.getMaxLat()); row++){
+				for (int column=column(boundary.getMinLon()); column<=column(boundary.getMaxLon()); column++){
+					int cell = row * columns + column;
+					cells[cell][cellSizes[cell]++] = gridded[j];
+				}
+			}
+		}
+
+		largeBoundaries = Arrays.copyOf(large, largeCount);
+		Arrays.sort(largeBoundaries);
+	}
+
+	/**
+	 * the grid covers all gridded boundaries, cells get the median size of the boundaries
+	 * @param gridded
+	 * @param count
+	 */
+	private void createGrid(int[] gridded, int count){
+		double[] heights = new double[count];
+		double[] widths = new double[count];
+		minLat = Double.MAX_VALUE;
+		minLon = Double.MAX_VALUE;
+		maxLat = -Double.MAX_VALUE;
+		maxLon = -Double.MAX_VALUE;
+		for (int j=0; j<count; j++){
+			Boundary boundary = boundaries[gridded[j]];
+			minLat = Math.min(minLat, boundary.getMinLat());
+			minLon = Math.min(minLon, boundary.getMinLon());
+			maxLat = Math.max(maxLat, boundary.getMaxLat());
+			maxLon = Math.max(maxLon, boundary.getMaxLon());
+			heights[j] = boundary.getMaxLat() - boundary.getMinLat();
+			widths[j] = boundary.getMaxLon() - boundary.getMinLon();
+		}
+		Arrays.sort(heights);
+		Arrays.sort(widths);
+
+		rows = cellCount(maxLat - minLat, heights[count / 2]);
+		columns = cellCount(maxLon - minLon, widths[count / 2]);
+		cellHeight = (maxLat - minLat) / rows;
+		cellWidth = (maxLon - minLon) / columns;
+		if (cellHeight == 0)
+			cellHeight = 1;
+		if (cellWidth == 0)
+			cellWidth = 1;
+	}
+
+	/**
+	 * @param extent
+	 * @param cellSize
+	 * @return number of cells of the given size needed for extent
+	 */
+	private static int cellCount(double extent, double cellSize){
+		if (cellSize <= 0)
+			return MAX_CELLS_PER_AXIS;
+		return (int) Math.max(1, Math.min(MAX_CELLS_PER_AXIS, Math.ceil(extent / cellSize)));
+	}
+
+	/**
+	 * @param lat
+	 * @return row of lat, the value is limited to the grid
+	 */
+	private int row(double lat){
+		int row = (int) Math.floor((lat - minLat) / cellHeight);
+		return Math.max(0, Math.min(rows - 1, row));
+	}
+
+	/**
+	 * @param lon
+	 * @return column of lon, the value is limited to the grid
+	 */
+	private int column(double lon){
+		int column = (int) Math.floor((lon - minLon) / cellWidth);
+		return Math.max(0, Math.min(columns - 1, column));
+	}
+
+	/**
+	 * @param lon
+	 * @param lat
+	 * @return cell containing the position or -1 if no gridded boundary can contain it
+	 */
+	public int getCell(double lon, double lat){
+		if (lat < minLat || lat > maxLat || lon < minLon || lon > maxLon)
+			return -1;
+		return row(lat) * columns + column(lon);
+	}
+
+	/**
+	 * @param cell
+	 * @return positions of the gridded boundaries overlapping the cell, in ascending order
+	 */
+	public int[] getBoundaries(int cell){
+		return (cell < 0) ? NONE : cells[cell];
+	}
+
+	/**
+	 * @return positions of the boundaries that have to be tested for every node, in ascending order
+	 */
+	public int[] getLargeBoundaries(){
+		return largeBoundaries;
+	}
+
+	/**
+	 * @return true if there are gridded boundaries
+	 */
+	public boolean hasCells(){
+		return cells.length > 0;
+	}
+
+	/**
+	 * @param position
+	 * @return boundary at this position of the list
+	 */
+	public Boundary getBoundary(int position){
+		return boundaries[position];
+	}
+
+	/**
+	 * @return number of boundaries
+	 */
+	public int size(){
+		return boundaries.length;
+	}
+}
@@ -0,0 +1,263 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Merges chains of edges with equal attributes into single edges.
+ * A node is removed if it only connects two edges with the same max speed, highway type,
+ * car permission, lanes and name: one edge in and one edge out for oneway streets, or
+ * the two directions of two two-way segments. The removed node becomes a between node of
+ * the merged edge, lengths and between nodes stay exactly the same.
+ * A merged edge gets the OSM id of its first edge, the reverse edge of a two-way chain the same id.
+ * @author Norbert Goebel
+ *
+ */
+public class ChainContraction {
+
+	private Graph graph;
+	private int nodeCount;
+	private int edgeCount;
+
+	private int[] edgeSources; //start node of each position
+	private int[] inDegrees;
+	private int[] inEdges; //position of an edge ending at each node
+	private boolean[] removed;
+
+	//positions of the current chain
+	private int[] chain = new int[16];
+	private int chainLength = 0;
+
+	/**
+	 * @param graph
+	 */
+	private ChainContraction(Graph graph){
+		this.graph = graph;
+		nodeCount = graph.nodeCount();
+		edgeCount = graph.edgeCount();
+	}
+
+	/**
+	 * Creates a graph with all chains of equal edges merged
+	 * @param graph
+	 * @return the contracted graph, or graph itself if no node can be removed
+	 */
+	public static Graph contract(Graph graph){
+		return new ChainContraction(graph).contract();
+	}
+
+	/**
+	 * @return the contracted graph
+	 */
+	private Graph contract(){
+		edgeSources = new int[edgeCount];
+		inDegrees = new int[nodeCount];
+		inEdges = new int[nodeCount];
+		for (int node=0; node<nodeCount; node++){
+			for (int position=graph.getFirstEdge(node); position<graph.getFirstEdge(node + 1); position++){
+				edgeSources[position] = node;
+				inDegrees[graph.getEdgeTarget(position)]++;
+				inEdges[graph.getEdgeTarget(position)] = position;
+			}
+		}
+
+		removed = new boolean[nodeCount];
+		boolean contractible = false;
+		for (int node=0; node<nodeCount; node++){
+			removed[node] = isChainNode(node);
+			contractible |= removed[node];
+		}
+		if (!contractible)
+			return graph;
+
+		//chains closed to a ring without any kept node keep their first node
+		boolean[] reached = new boolean[nodeCount];
+		for (int node=0; node<nodeCount; node++){
+			if (!removed[node])
+				markChains(node, reached);
+		}
+		for (int node=0; node<nodeCount; node++){
+			if (removed[node] && !reached[node]){
+				removed[node] = false;
+				markChains(node, reached);
+			}
+		}
+
+		//kept nodes are numbered in their order, each edge of a kept node becomes a merged edge
+		int[] newIndices = new int[nodeCount];
+		int nodes = 0;
+		int edges = 0;
+		for (int node=0; node<nodeCount; node++){
+			if (removed[node])
+				continue;
+			newIndices[node] = nodes++;
+			edges += graph.getFirstEdge(node + 1) - graph.getFirstEdge(node);
+		}
+
+		GraphBuilder builder = new GraphBuilder(nodes, edges);
+		for (int node=0; node<nodeCount; node++){
+			if (!removed[node])
+				builder.addNode(newIndices[node], graph.getNodeId(node), graph.getLongitude(node), graph.getLatitude(node));
+		}
+
+		//edges keep the order of their indices, the reverse edge of a two-way chain follows its forward edge
+		boolean[] added = new boolean[edgeCount];
+		int edgeNumber = 0;
+		for (int edge=0; edge<edgeCount; edge++){
+			int position = graph.getEdgePosition(edge);
+			if (added[position] || removed[edgeSources[position]])
+				continue;
+			added[position] = true;
+
+			followChain(position);
+			int forwardEdge = edgeNumber++;
+			addChain(builder, forwardEdge, newIndices);
+
+			int reverse = reverseOf(chain[chainLength - 1]);
+			if (reverse >= 0 && isTwoWayChain()){
+				added[reverse] = true;
+				builder.addReverseEdge(edgeNumber++, forwardEdge);
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @param node
+	 * @return true if the node only connects two edges with equal attributes
+	 */
+	private boolean isChainNode(int node){
+		int first = graph.getFirstEdge(node);
+		int outDegree = graph.getFirstEdge(node + 1) - first;
+
+		//oneway: one edge in, one edge out
+		if (outDegree == 1 && inDegrees[node] == 1){
+			int in = inEdges[node];
+			int source = edgeSources[in];
+			int target = graph.getEdgeTarget(first);
+			return source != node && target != node && source != target && equalAttributes(in, first);
+		}
+
+		//two-way: both segments in both directions
+		if (outDegree == 2 && inDegrees[node] == 2){
+			int second = first + 1;
+			int target = graph.getEdgeTarget(first);
+			int otherTarget = graph.getEdgeTarget(second);
+			return target != node && otherTarget != node && target != otherTarget
+					&& reverseOf(first) >= 0 && reverseOf(second) >= 0 && equalAttributes(first, second);
+		}
+		return false;
+	}
+
+	/**
+	 * @param position
+	 * @return position of the edge reading the segment of the edge in the opposite direction, -1 if there is none
+	 */
+	private int reverseOf(int position){
+		return graph.getReversePosition(position, edgeSources[position]);
+	}
+
+	/**
+	 * @return true if the current chain is made of two-way segments only
+	 */
+	private boolean isTwoWayChain(){
+		for (int i=0; i<chainLength; i++){
+			if (reverseOf(chain[i]) < 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @param position
+	 * @param other
+	 * @return true if both edges have the same max speed, highway type, car permission, lanes and name
+	 */
+	private boolean equalAttributes(int position, int other){
+		String name = graph.getName(position);
+		String otherName = graph.getName(other);
+		return graph.getMaxSpeed(position) == graph.getMaxSpeed(other)
+				&& graph.getHighwayType(position) == graph.getHighwayType(other)
+				&& graph.getCarPermission(position) == graph.getCarPermission(other)
+				&& graph.getLanes(position) == graph.getLanes(other)
+				&& (name == null ? otherName == null : name.equals(otherName));
+	}
+
+	/**
+	 * collects the positions of the edges from the edge at position up to the next kept node
+	 * @param position
+	 */
+	private void followChain(int position){
+		chainLength = 0;
+		while (true){
+			if (chainLength == chain.length)
+				chain = Arrays.copyOf(chain, chainLength * 2);
+			chain[chainLength++] = position;
+
+			int node = graph.getEdgeTarget(position);
+			if (!removed[node])
+				return;
+			//leave a two-way chain node by the edge not leading back
+			int next = graph.getFirstEdge(node);
+			if (graph.getFirstEdge(node + 1) - next == 2 && graph.getEdgeTarget(next) == edgeSources[position])
+				next++;
+			position = next;
+		}
+	}
+
+	/**
+	 * marks the removed nodes of all chains starting at node
+	 * @param node
+	 * @param reached
+	 */
+	private void markChains(int node, boolean[] reached){
+		reached[node] = true;
+		for (int position=graph.getFirstEdge(node); position<graph.getFirstEdge(node + 1); position++){
+			followChain(position);
+			for (int i=0; i<chainLength; i++)
+				reached[graph.getEdgeTarget(chain[i])] = true;
+		}
+	}
+
+	/**
+	 * adds the current chain as one edge, the removed nodes and the between nodes become between nodes
+	 * @param builder
+	 * @param edgeIndex
+	 * @param newIndices
+	 */
+	private void addChain(GraphBuilder builder, int edgeIndex, int[] newIndices){
+		int count = chainLength - 1;
+		for (int i=0; i<chainLength; i++)
+			count += graph.getBetweenCount(chain[i]);
+
+		int[] betweenDist = new int[count];
+		double[] betweenLon = new double[count];
+		double[] betweenLat = new double[count];
+		long[] betweenId = new long[count];
+		int k = 0;
+		int length = 0;
+		for (int i=0; i<chainLength; i++){
+			int position = chain[i];
+			if (i > 0){
+				int node = edgeSources[position];
+				betweenDist[k] = length;
+				betweenLon[k] = graph.getLongitude(node);
+				betweenLat[k] = graph.getLatitude(node);
+				betweenId[k] = graph.getNodeId(node);
+				k++;
+			}
+			for (int j=0; j<graph.getBetweenCount(position); j++){
+				betweenDist[k] = length + graph.getBetweenDistance(position, j);
+				betweenLon[k] = graph.getBetweenLongitude(position, j);
+				betweenLat[k] = graph.getBetweenLatitude(position, j);
+				betweenId[k] = graph.getBetweenId(position, j);
+				k++;
+			}
+			length += graph.getEdgeLength(position);
+		}
+
+		int first = chain[0];
+		builder.addEdge(newIndices[edgeSources[first]], edgeIndex, graph.getEdgeId(first), graph.getMaxSpeed(first),
+				graph.getCarPermission(first), graph.getLanes(first), graph.getHighwayType(first), graph.getName(first),
+				newIndices[graph.getEdgeTarget(chain[chainLength - 1])], length, betweenDist, betweenLon, betweenLat, betweenId);
+	}
+}
@@ -0,0 +1,232 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A growable byte array with the encodings of the compact graph format:
+ * varints of 7 bits per byte, zigzag encoded signed values, coordinates as 1e-7 fixed point
+ * and the edge attributes packed into one varint.
+ * Values are appended at the end and read from a position that starts at 0.
+ * @author Norbert Goebel
+ *
+ */
+class CompactBuffer {
+
+	//fixed point coordinates in 1e-7 degrees, the precision of OSM
+	static final double FIXED_POINT = 1e7;
+
+	//bits of the packed attributes, a car permission of ATTRIBUTE_ESCAPE means the values follow one by one
+	private static final int ATTRIBUTE_ESCAPE = 3;
+	private static final int HIGHWAY_TYPE_SHIFT = 2;
+	private static final int MAX_SPEED_SHIFT = 8;
+	private static final int LANES_SHIFT = 16;
+
+	private byte[] bytes;
+	private int size;
+	private int position = 0;
+
+	/**
+	 * Creates an empty buffer to write to
+	 */
+	CompactBuffer(){
+		bytes = new byte[1 << 16];
+		size = 0;
+	}
+
+	/**
+	 * Creates a buffer to read the bytes
+	 * @param bytes
+	 * @param size number of valid bytes
+	 */
+	CompactBuffer(byte[] bytes, int size){
+		this.bytes = bytes;
+		this.size = size;
+	}
+
+	byte[] getBytes(){
+		return bytes;
+	}
+
+	int size(){
+		return size;
+	}
+
+	int getPosition(){
+		return position;
+	}
+
+	void setPosition(int position){
+		this.position = position;
+	}
+
+	/**
+	 * @param coordinate in degrees
+	 * @return the coordinate in 1e-7 degrees
+	 */
+	static int fixed(double coordinate){
+		return (int) Math.round(coordinate * FIXED_POINT);
+	}
+
+	/**
+	 * @param fixed coordinate in 1e-7 degrees
+	 * @return the coordinate in degrees
+	 */
+	static double degrees(int fixed){
+		return fixed / FIXED_POINT;
+	}
+
+	private void ensure(int count){
+		if (size + count > bytes.length)
+			bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + count));
+	}
+
+	/**
+	 * appends four bytes, big endian
+	 * @param value
+	 */
+	void putInt(int value){
+		ensure(4);
+		bytes[size++] = (byte) (value >>> 24);
+		bytes[size++] = (byte) (value >>> 16);
+		bytes[size++] = (byte) (value >>> 8);
+		bytes[size++] = (byte) value;
+	}
+
+	/**
+	 * appends the bits of the value, big endian like DataOutputStream.writeDouble
+	 * @param value
+	 */
+	void putDouble(double value){
+		long bits = Double.doubleToLongBits(value);
+		putInt((int) (bits >>> 32));
+		putInt((int) bits);
+	}
+
+	/**
+	 * appends the value as unsigned varint, negative values take 5 bytes
+	 * @param value
+	 */
+	void putVarint(int value){
+		ensure(5);
+		while ((value & ~0x7F) != 0){
+			bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		bytes[size++] = (byte) value;
+	}
+
+	/**
+	 * appends the value as zigzag encoded varint, small negative values stay short
+	 * @param value
+	 */
+	void putSignedVarint(int value){
+		putVarint((value << 1) ^ (value >> 31));
+	}
+
+	void putSignedVarLong(long value){
+		value = (value << 1) ^ (value >> 63);
+		ensure(10);
+		while ((value & ~0x7FL) != 0){
+			bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		bytes[size++] = (byte) value;
+	}
+
+	void putBytes(byte[] values){
+		ensure(values.length);
+		System.arraycopy(values, 0, bytes, size, values.length);
+		size += values.length;
+	}
+
+	/**
+	 * appends the attributes of an edge as one varint, values that don't fit into
+	 * their bits follow the escape value one by one
+	 * @param maxSpeed -1 .. 254
+	 * @param carPermission 0 .. 2
+	 * @param lanes 0 .. 255
+	 * @param highwayType -1 .. 62
+	 */
+	void putAttributes(int maxSpeed, int carPermission, int lanes, int highwayType){
+		if (carPermission >= 0 && carPermission < ATTRIBUTE_ESCAPE && highwayType >= -1 && highwayType < 63
+				&& maxSpeed >= -1 && maxSpeed < 255 && lanes >= 0 && lanes < 256){
+			putVarint(carPermission | (highwayType + 1) << HIGHWAY_TYPE_SHIFT | (maxSpeed + 1) << MAX_SPEED_SHIFT
+					| lanes << LANES_SHIFT);
+		}
+		else {
+			putVarint(ATTRIBUTE_ESCAPE);
+			putSignedVarint(maxSpeed);
+			putSignedVarint(carPermission);
+			putSignedVarint(lanes);
+			putSignedVarint(highwayType);
+		}
+	}
+
+	int getInt(){
+		int value = ((bytes[position] & 0xFF) << 24) | ((bytes[position + 1] & 0xFF) << 16)
+				| ((bytes[position + 2] & 0xFF) << 8) | (bytes[position + 3] & 0xFF);
+		position += 4;
+		return value;
+	}
+
+	double getDouble(){
+		long high = getInt();
+		return Double.longBitsToDouble((high << 32) | (getInt() & 0xFFFFFFFFL));
+	}
+
+	int getVarint(){
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = bytes[position++];
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return value;
+	}
+
+	int getSignedVarint(){
+		int value = getVarint();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	long getSignedVarLong(){
+		long value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = bytes[position++];
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * @param count
+	 * @return the next count bytes
+	 */
+	byte[] getBytes(int count){
+		byte[] values = Arrays.copyOfRange(bytes, position, position + count);
+		position += count;
+		return values;
+	}
+
+	/**
+	 * reads attributes written by putAttributes()
+	 * @param attributes gets maxSpeed, carPermission, lanes and highwayType
+	 */
+	void getAttributes(int[] attributes){
+		int packed = getVarint();
+		if (packed == ATTRIBUTE_ESCAPE){
+			for (int i=0; i<4; i++)
+				attributes[i] = getSignedVarint();
+			return;
+		}
+		attributes[0] = ((packed >>> MAX_SPEED_SHIFT) & 0xFF) - 1;
+		attributes[1] = packed & 0x3;
+		attributes[2] = (packed >>> LANES_SHIFT) & 0xFF;
+		attributes[3] = ((packed >>> HIGHWAY_TYPE_SHIFT) & 0x3F) - 1;
+	}
+}
@@ -0,0 +1,284 @@
+package graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a routing.graph.small or routing.graph.large file written by the CompactGraphWriter,
+ * or a routing.graph.small file together with its geometry file.
+ * Coordinates are decoded from 1e-7 fixed point. Edges reading the between nodes of an earlier
+ * edge backwards share them again like the reverse edges of the GraphBuilder.
+ * @author Norbert Goebel
+ *
+ */
+public class CompactGraphReader {
+
+	private CompactBuffer buffer;
+	private GraphBuilder builder;
+	private String[] names;
+
+	//nodes, the coordinates in fixed point
+	private long[] nodeIds;
+	private int[] nodeLons;
+	private int[] nodeLats;
+
+	//edges by index
+	private int[] sources;
+	private int[] targets;
+	private int[] lengths;
+	private long[] edgeIds;
+	private int[][] attributes; //maxSpeed, carPermission, lanes, highwayType
+	private int[] edgeNames;
+
+	//between nodes of the edges written with their own between nodes, other edges refer to them
+	private int[][] betweenDists;
+	private double[][] betweenLons;
+	private double[][] betweenLats;
+	private long[][] betweenIds;
+
+	private CompactGraphReader(CompactBuffer buffer){
+		this.buffer = buffer;
+	}
+
+	/**
+	 * @param file
+	 * @return the graph of the file
+	 * @throws IOException if the file can't be read or is not in the compact format
+	 */
+	public static Graph read(File file) throws IOException {
+		return read(file, null);
+	}
+
+	/**
+	 * @param file routing.graph.small file
+	 * @param geometryFile geometry file written with it, null for a graph without between nodes
+	 * @return the graph of both files
+	 * @throws IOException if the files can't be read or are not in the compact format
+	 */
+	public static Graph read(File file, File geometryFile) throws IOException {
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		CompactBuffer geometry = null;
+		if (geometryFile != null){
+			byte[] geometryBytes = Files.readAllBytes(geometryFile.toPath());
+			geometry = new CompactBuffer(geometryBytes, geometryBytes.length);
+		}
+		try {
+			return new CompactGraphReader(new CompactBuffer(bytes, bytes.length)).read(geometry);
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new IOException("Truncated graph file: " + file, e);
+		}
+	}
+
+	/**
+	 * @param geometry the geometry file, null if there is none
+	 * @return the graph
+	 * @throws IOException
+	 */
+	private Graph read(CompactBuffer geometry) throws IOException {
+		int format = buffer.getInt();
+		if ((format & Graph.COMPACT) == 0 || (format & ~(1 | Graph.NAME_TABLE | Graph.COMPACT | Graph.DEFLATED)) != 0)
+			throw new IOException("Unknown graph format " + format);
+		boolean large = (format & 1) != 0;
+		if (large && geometry != null)
+			throw new IOException("A large graph file has no geometry file");
+
+		int nodeCount = buffer.getVarint();
+		int edgeCount = buffer.getVarint();
+		double minLat = buffer.getDouble();
+		double maxLat = buffer.getDouble();
+		double minLon = buffer.getDouble();
+		double maxLon = buffer.getDouble();
+
+		names = new String[buffer.getVarint()];
+		for (int index=0; index<names.length; index++)
+			names[index] = new String(buffer.getBytes(buffer.getVarint()), StandardCharsets.UTF_8);
+
+		builder = new GraphBuilder(nodeCount, edgeCount);
+		readNodes(nodeCount, edgeCount);
+		readEdges(edgeCount);
+
+		if (geometry != null){
+			//the offsets of the edges are not needed to read all of them
+			int geometryFormat = geometry.getInt();
+			if ((geometryFormat & ~Graph.DEFLATED) != Graph.GEOMETRY + Graph.COMPACT || geometry.getInt() != edgeCount)
+				throw new IOException("Geometry file does not belong to the graph");
+			geometry.setPosition(geometry.getPosition() + 4 * (edgeCount + 1));
+			format |= geometryFormat & Graph.DEFLATED;
+			buffer = geometry;
+		}
+		if (!large && geometry == null){
+			for (int edge=0; edge<edgeCount; edge++)
+				addEdge(edge, new int[0], new double[0], new double[0], new long[0]);
+		}
+		else {
+			if ((format & Graph.DEFLATED) != 0)
+				buffer = inflate(buffer);
+			readGeometry(edgeCount);
+		}
+
+		Graph graph = builder.build();
+		graph.setDimensions(minLon, maxLon, minLat, maxLat);
+		return graph;
+	}
+
+	private void readNodes(int nodeCount, int edgeCount){
+		nodeIds = new long[nodeCount];
+		nodeLons = new int[nodeCount];
+		nodeLats = new int[nodeCount];
+		sources = new int[edgeCount];
+		long id = 0;
+		int lon = 0;
+		int lat = 0;
+		int edge = 0;
+		for (int node=0; node<nodeCount; node++){
+			id += buffer.getSignedVarLong();
+			lon += buffer.getSignedVarint();
+			lat += buffer.getSignedVarint();
+			nodeIds[node] = id;
+			nodeLons[node] = lon;
+			nodeLats[node] = lat;
+			builder.addNode(node, id, CompactBuffer.degrees(lon), CompactBuffer.degrees(lat));
+			int count = buffer.getVarint();
+			for (int i=0; i<count; i++){
+				edge += buffer.getSignedVarint();
+				sources[edge] = node;
+			}
+		}
+	}
+
+	private void readEdges(int edgeCount){
+		edgeIds = new long[edgeCount];
+		attributes = new int[edgeCount][4];
+		edgeNames = new int[edgeCount];
+		targets = new int[edgeCount];
+		lengths = new int[edgeCount];
+		long id = 0;
+		for (int edge=0; edge<edgeCount; edge++){
+			id += buffer.getSignedVarLong();
+			edgeIds[edge] = id;
+			buffer.getAttributes(attributes[edge]);
+			edgeNames[edge] = buffer.getVarint();
+			targets[edge] = sources[edge] + buffer.getSignedVarint();
+			lengths[edge] = buffer.getVarint();
+		}
+	}
+
+	/**
+	 * reads the between nodes of the edges and adds the edges to the builder
+	 * @param edgeCount
+	 */
+	private void readGeometry(int edgeCount){
+		betweenDists = new int[edgeCount][];
+		betweenLons = new double[edgeCount][];
+		betweenLats = new double[edgeCount][];
+		betweenIds = new long[edgeCount][];
+
+		for (int edge=0; edge<edgeCount; edge++){
+			int reference = buffer.getVarint();
+			if (reference == 0){
+				int count = buffer.getVarint();
+				int[] dists = new int[count];
+				double[] lons = new double[count];
+				double[] lats = new double[count];
+				long[] ids = new long[count];
+
+				//the first differences are to the start node
+				long id = nodeIds[sources[edge]];
+				int lon = nodeLons[sources[edge]];
+				int lat = nodeLats[sources[edge]];
+				int distance = 0;
+				for (int k=0; k<count; k++){
+					id += buffer.getSignedVarLong();
+					lon += buffer.getSignedVarint();
+					lat += buffer.getSignedVarint();
+					distance += buffer.getSignedVarint();
+					ids[k] = id;
+					lons[k] = CompactBuffer.degrees(lon);
+					lats[k] = CompactBuffer.degrees(lat);
+					dists[k] = distance;
+				}
+				betweenDists[edge] = dists;
+				betweenLons[edge] = lons;
+				betweenLats[edge] = lats;
+				betweenIds[edge] = ids;
+				addEdge(edge, dists, lons, lats, ids);
+				continue;
+			}
+
+			//the other edge has its own between nodes, a reverse edge shares them as in the GraphBuilder
+			int other = edge - (reference >>> 1);
+			boolean reversed = (reference & 1) != 0;
+			if (reversed && isReverse(edge, other)){
+				builder.addReverseEdge(edge, other);
+				continue;
+			}
+
+			//copy the between nodes, backwards if reversed
+			int count = betweenIds[other].length;
+			int[] dists = new int[count];
+			double[] lons = new double[count];
+			double[] lats = new double[count];
+			long[] ids = new long[count];
+			for (int k=0; k<count; k++){
+				int from = reversed ? count - 1 - k : k;
+				dists[k] = reversed ? lengths[edge] - betweenDists[other][from] : betweenDists[other][from];
+				lons[k] = betweenLons[other][from];
+				lats[k] = betweenLats[other][from];
+				ids[k] = betweenIds[other][from];
+			}
+			addEdge(edge, dists, lons, lats, ids);
+		}
+	}
+
+	/**
+	 * @param edge
+	 * @param other
+	 * @return true if edge has all values of other and goes in the opposite direction, as GraphBuilder.addReverseEdge() adds it
+	 */
+	private boolean isReverse(int edge, int other){
+		return sources[edge] == targets[other] && targets[edge] == sources[other] && edgeIds[edge] == edgeIds[other]
+				&& Arrays.equals(attributes[edge], attributes[other]) && edgeNames[edge] == edgeNames[other]
+				&& lengths[edge] == lengths[other];
+	}
+
+	/**
+	 * adds the edge with its between nodes to the builder
+	 */
+	private void addEdge(int edge, int[] dists, double[] lons, double[] lats, long[] ids){
+		int[] values = attributes[edge];
+		builder.addEdge(sources[edge], edge, edgeIds[edge], values[0], values[1], values[2], values[3], names[edgeNames[edge]],
+				targets[edge], lengths[edge], dists, lons, lats, ids);
+	}
+
+	/**
+	 * @param buffer positioned at the deflated geometry section
+	 * @return the inflated geometry section
+	 * @throws IOException if the data is no deflate stream
+	 */
+	private static CompactBuffer inflate(CompactBuffer buffer) throws IOException {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(buffer.getBytes(), buffer.getPosition(), buffer.size() - buffer.getPosition());
+			byte[] bytes = new byte[Math.max(1 << 16, (buffer.size() - buffer.getPosition()) * 4)];
+			int size = 0;
+			while (!inflater.finished()){
+				if (size == bytes.length)
+					bytes = Arrays.copyOf(bytes, bytes.length * 2);
+				int count = inflater.inflate(bytes, size, bytes.length - size);
+				if (count == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary()))
+					throw new IOException("Truncated geometry section");
+				size += count;
+			}
+			return new CompactBuffer(bytes, size);
+		} catch (DataFormatException e) {
+			throw new IOException("Damaged geometry section", e);
+		} finally {
+			inflater.end();
+		}
+	}
+}
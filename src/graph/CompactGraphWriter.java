@@ -0,0 +1,285 @@
+package graph;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the routing.graph.small and routing.graph.large files of a graph in the compact format.
+ * Coordinates are 1e-7 fixed point, numbers are varints, most of them the difference to the
+ * previous value, and the attributes of an edge are packed into one varint.
+ * The small file is the large file without the geometry section at its end.
+ *
+ * int format: COMPACT + NAME_TABLE, + 1 for the large file, + DEFLATED if the geometry is compressed
+ * varint node count, varint edge count, double minLat, maxLat, minLon, maxLon
+ * varint name count, per name varint length and the UTF-8 bytes
+ * per node: id, longitude and latitude as difference to the previous node, varint number of edges,
+ * 		the edge indices as difference to the previous edge index written
+ * per edge index: id as difference to the previous edge, packed attributes, varint name index,
+ * 		target as difference to the start node, varint length
+ * large only, the geometry section, per edge index: varint 0 and the between nodes of the edge,
+ * 		or (e - f) << 1 | reversed if the edge e reads the between nodes of an earlier edge f
+ * 		(backwards if reversed), f has its own between nodes. The between nodes are varint count, then per node id, longitude,
+ * 		latitude and distance as difference to the node before, starting with the start node.
+ * All differences are zigzag encoded.
+ * Instead of the large file a geometry file can be written: int format GEOMETRY + COMPACT
+ * (+ DEFLATED), int edge count, edge count + 1 ints with the offset of each edge in the
+ * geometry section, the offsets are in the inflated section if it is compressed, then the
+ * geometry section.
+ * @author Norbert Goebel
+ *
+ */
+public class CompactGraphWriter {
+
+	private boolean deflate;
+
+	/**
+	 * @param deflate compress the geometry section of the large file
+	 */
+	public CompactGraphWriter(boolean deflate){
+		this.deflate = deflate;
+	}
+
+	/**
+	 * Writes both files, existing files are replaced
+	 * @param graph
+	 * @param smallFile
+	 * @param largeFile
+	 * @throws IOException
+	 */
+	public void write(Graph graph, File smallFile, File largeFile) throws IOException {
+		int format = Graph.COMPACT + Graph.NAME_TABLE;
+		int[] sources = sources(graph);
+		CompactBuffer base = base(graph, sources);
+		CompactBuffer geometry = geometry(graph, sources, new int[graph.edgeCount() + 1]);
+
+		FileOutputStream small = new FileOutputStream(smallFile);
+		try {
+			small.write(header(format));
+			small.write(base.getBytes(), 0, base.size());
+		} finally {
+			small.close();
+		}
+
+		FileOutputStream large = new FileOutputStream(largeFile);
+		try {
+			large.write(header(format + 1 + (deflate ? Graph.DEFLATED : 0)));
+			large.write(base.getBytes(), 0, base.size());
+			if (deflate)
+				writeDeflated(geometry, large);
+			else
+				large.write(geometry.getBytes(), 0, geometry.size());
+		} finally {
+			large.close();
+		}
+	}
+
+	/**
+	 * Writes the small file and the geometry section into the geometry file, existing files are replaced
+	 * @param graph
+	 * @param smallFile
+	 * @param geometryFile
+	 * @throws IOException
+	 */
+	public void writeWithGeometry(Graph graph, File smallFile, File geometryFile) throws IOException {
+		int[] sources = sources(graph);
+		CompactBuffer base = base(graph, sources);
+		int[] offsets = new int[graph.edgeCount() + 1];
+		CompactBuffer geometry = geometry(graph, sources, offsets);
+
+		FileOutputStream small = new FileOutputStream(smallFile);
+		try {
+			small.write(header(Graph.COMPACT + Graph.NAME_TABLE));
+			small.write(base.getBytes(), 0, base.size());
+		} finally {
+			small.close();
+		}
+
+		CompactBuffer header = new CompactBuffer();
+		header.putInt(Graph.GEOMETRY + Graph.COMPACT + (deflate ? Graph.DEFLATED : 0));
+		header.putInt(graph.edgeCount());
+		for (int offset : offsets)
+			header.putInt(offset);
+		FileOutputStream out = new FileOutputStream(geometryFile);
+		try {
+			out.write(header.getBytes(), 0, header.size());
+			if (deflate)
+				writeDeflated(geometry, out);
+			else
+				out.write(geometry.getBytes(), 0, geometry.size());
+		} finally {
+			out.close();
+		}
+	}
+
+	private static byte[] header(int format){
+		return new byte[] {(byte) (format >>> 24), (byte) (format >>> 16), (byte) (format >>> 8), (byte) format};
+	}
+
+	/**
+	 * Compresses the geometry section into the stream
+	 * @param geometry
+	 * @param out
+	 * @throws IOException
+	 */
+	private static void writeDeflated(CompactBuffer geometry, OutputStream out) throws IOException {
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		try {
+			deflater.setInput(geometry.getBytes(), 0, geometry.size());
+			deflater.finish();
+			byte[] buffer = new byte[1 << 16];
+			while (!deflater.finished()){
+				int count = deflater.deflate(buffer);
+				out.write(buffer, 0, count);
+			}
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * @param graph
+	 * @return the start node of each edge index
+	 */
+	private static int[] sources(Graph graph){
+		int[] sources = new int[graph.edgeCount()];
+		for (int node=0; node<graph.nodeCount(); node++){
+			for (int position=graph.getFirstEdge(node); position<graph.getFirstEdge(node + 1); position++)
+				sources[graph.getEdgeNumber(position)] = node;
+		}
+		return sources;
+	}
+
+	/**
+	 * @param graph
+	 * @param sources start node of each edge index
+	 * @return counts, bounds, names, nodes and edges
+	 */
+	private static CompactBuffer base(Graph graph, int[] sources){
+		CompactBuffer buffer = new CompactBuffer();
+		buffer.putVarint(graph.nodeCount());
+		buffer.putVarint(graph.edgeCount());
+
+		//the bounds stay doubles, without bounds in the OSM file they are +-Double.MAX_VALUE
+		buffer.putDouble(graph.getMinLat());
+		buffer.putDouble(graph.getMaxLat());
+		buffer.putDouble(graph.getMinLon());
+		buffer.putDouble(graph.getMaxLon());
+
+		buffer.putVarint(graph.nameCount());
+		for (int index=0; index<graph.nameCount(); index++){
+			byte[] name = graph.getNameAt(index).getBytes(StandardCharsets.UTF_8);
+			buffer.putVarint(name.length);
+			buffer.putBytes(name);
+		}
+
+		//nodes, numbered along a Hilbert curve the differences are small
+		long id = 0;
+		int lon = 0;
+		int lat = 0;
+		int edge = 0;
+		for (int node=0; node<graph.nodeCount(); node++){
+			buffer.putSignedVarLong(graph.getNodeId(node) - id);
+			id = graph.getNodeId(node);
+			int fixedLon = CompactBuffer.fixed(graph.getLongitude(node));
+			int fixedLat = CompactBuffer.fixed(graph.getLatitude(node));
+			buffer.putSignedVarint(fixedLon - lon);
+			buffer.putSignedVarint(fixedLat - lat);
+			lon = fixedLon;
+			lat = fixedLat;
+
+			int first = graph.getFirstEdge(node);
+			int end = graph.getFirstEdge(node + 1);
+			buffer.putVarint(end - first);
+			for (int position=first; position<end; position++){
+				buffer.putSignedVarint(graph.getEdgeNumber(position) - edge);
+				edge = graph.getEdgeNumber(position);
+			}
+		}
+
+		//edges in the order of their indices, the edges of a way follow each other
+		id = 0;
+		for (edge=0; edge<graph.edgeCount(); edge++){
+			int position = graph.getEdgePosition(edge);
+			buffer.putSignedVarLong(graph.getEdgeId(position) - id);
+			id = graph.getEdgeId(position);
+			buffer.putAttributes(graph.getMaxSpeed(position), graph.getCarPermission(position),
+					graph.getLanes(position), graph.getHighwayType(position));
+			buffer.putVarint(graph.getNameIndex(position));
+			buffer.putSignedVarint(graph.getEdgeTarget(position) - sources[edge]);
+			buffer.putVarint(graph.getEdgeLength(position));
+		}
+		return buffer;
+	}
+
+	/**
+	 * @param graph
+	 * @param sources start node of each edge index
+	 * @param offsets gets the offset of each edge in the section and its size at the end
+	 * @return the between nodes of all edges, the between nodes of a segment are written once
+	 */
+	private static CompactBuffer geometry(Graph graph, int[] sources, int[] offsets){
+		CompactBuffer buffer = new CompactBuffer();
+
+		//edge index of the edge that wrote the between nodes of each segment
+		int[] segmentEdges = new int[graph.edgeCount()];
+		Arrays.fill(segmentEdges, -1);
+
+		for (int edge=0; edge<graph.edgeCount(); edge++){
+			offsets[edge] = buffer.size();
+			int position = graph.getEdgePosition(edge);
+			int segment = graph.getSegment(position);
+			boolean reversed = segment < 0;
+			if (reversed)
+				segment = ~segment;
+
+			//an earlier edge of the same length already has the between nodes, the distances of
+			//the between nodes read backwards are the length minus their distances
+			if (segment < segmentEdges.length && segmentEdges[segment] >= 0){
+				int other = graph.getEdgePosition(segmentEdges[segment]);
+				if (graph.getEdgeLength(other) == graph.getEdgeLength(position)){
+					boolean otherReversed = graph.getSegment(other) < 0;
+					buffer.putVarint((edge - segmentEdges[segment]) << 1 | (reversed != otherReversed ? 1 : 0));
+					continue;
+				}
+			}
+			else {
+				if (segment >= segmentEdges.length){
+					int size = segmentEdges.length;
+					segmentEdges = Arrays.copyOf(segmentEdges, Math.max(segment + 1, size * 2));
+					Arrays.fill(segmentEdges, size, segmentEdges.length, -1);
+				}
+				segmentEdges[segment] = edge;
+			}
+
+			buffer.putVarint(0);
+			int count = graph.getBetweenCount(position);
+			buffer.putVarint(count);
+
+			//the first differences are to the start node
+			int source = sources[edge];
+			long id = graph.getNodeId(source);
+			int lon = CompactBuffer.fixed(graph.getLongitude(source));
+			int lat = CompactBuffer.fixed(graph.getLatitude(source));
+			int distance = 0;
+			for (int k=0; k<count; k++){
+				buffer.putSignedVarLong(graph.getBetweenId(position, k) - id);
+				id = graph.getBetweenId(position, k);
+				int fixedLon = CompactBuffer.fixed(graph.getBetweenLongitude(position, k));
+				int fixedLat = CompactBuffer.fixed(graph.getBetweenLatitude(position, k));
+				buffer.putSignedVarint(fixedLon - lon);
+				buffer.putSignedVarint(fixedLat - lat);
+				lon = fixedLon;
+				lat = fixedLat;
+				buffer.putSignedVarint(graph.getBetweenDistance(position, k) - distance);
+				distance = graph.getBetweenDistance(position, k);
+			}
+		}
+		offsets[graph.edgeCount()] = buffer.size();
+		return buffer;
+	}
+}
@@ -0,0 +1,174 @@
+package graph;
+
+/**
+ * Removes the parts of a graph a route can not enter and leave again.
+ * The strongly connected components are found with an iterative version of Tarjan's
+ * algorithm, so deep graphs need no large stack. The largest component is kept together
+ * with all components of at least a minimal size, nodes and edges are renumbered compactly
+ * in their old order.
+ * @author Norbert Goebel
+ *
+ */
+public class ComponentPruning {
+
+	private Graph graph;
+	private int nodeCount;
+
+	//component of each node and number of nodes of each component
+	private int[] components;
+	private int[] componentSizes;
+	private int componentCount = 0;
+
+	/**
+	 * @param graph
+	 */
+	private ComponentPruning(Graph graph){
+		this.graph = graph;
+		nodeCount = graph.nodeCount();
+	}
+
+	/**
+	 * Creates a graph of the largest strongly connected component and all components with at least minSize nodes
+	 * @param graph
+	 * @param minSize 0 keeps the largest component only
+	 * @return the pruned graph, or graph itself if all nodes are kept
+	 */
+	public static Graph prune(Graph graph, int minSize){
+		return new ComponentPruning(graph).prune(minSize);
+	}
+
+	/**
+	 * @param minSize
+	 * @return the pruned graph
+	 */
+	private Graph prune(int minSize){
+		if (nodeCount == 0)
+			return graph;
+		findComponents();
+
+		//the first of the largest components is kept
+		int largest = 0;
+		for (int component=1; component<componentCount; component++){
+			if (componentSizes[component] > componentSizes[largest])
+				largest = component;
+		}
+		boolean[] keptComponents = new boolean[componentCount];
+		int keptCount = 0;
+		for (int component=0; component<componentCount; component++){
+			keptComponents[component] = component == largest || (minSize > 0 && componentSizes[component] >= minSize);
+			if (keptComponents[component])
+				keptCount++;
+		}
+		if (keptCount == componentCount)
+			return graph;
+
+		//kept nodes are numbered in their order
+		int[] newIndices = new int[nodeCount];
+		int[] edgeSources = new int[graph.edgeCount()];
+		int nodes = 0;
+		int edges = 0;
+		for (int node=0; node<nodeCount; node++){
+			boolean kept = keptComponents[components[node]];
+			newIndices[node] = kept ? nodes++ : -1;
+			for (int position=graph.getFirstEdge(node); position<graph.getFirstEdge(node + 1); position++)
+				edgeSources[position] = node;
+		}
+		for (int position=0; position<graph.edgeCount(); position++){
+			if (newIndices[edgeSources[position]] >= 0 && newIndices[graph.getEdgeTarget(position)] >= 0)
+				edges++;
+		}
+
+		GraphBuilder builder = new GraphBuilder(nodes, edges);
+		for (int node=0; node<nodeCount; node++){
+			if (newIndices[node] >= 0)
+				builder.addNode(newIndices[node], graph.getNodeId(node), graph.getLongitude(node), graph.getLatitude(node));
+		}
+
+		//edges keep the order of their indices, reverse edges keep sharing the between nodes
+		int[] newEdges = new int[graph.edgeCount()];
+		int edgeNumber = 0;
+		for (int edge=0; edge<graph.edgeCount(); edge++){
+			int position = graph.getEdgePosition(edge);
+			int source = newIndices[edgeSources[position]];
+			int target = newIndices[graph.getEdgeTarget(position)];
+			newEdges[position] = -1;
+			if (source < 0 || target < 0)
+				continue;
+
+			int reverse = graph.getReversePosition(position, edgeSources[position]);
+			newEdges[position] = edgeNumber++;
+			if (reverse >= 0 && graph.getEdgeNumber(reverse) < edge)
+				builder.addReverseEdge(newEdges[position], newEdges[reverse]);
+			else
+				builder.addEdge(source, newEdges[position], graph, position, target);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Tarjan's algorithm with explicit stacks
+	 */
+	private void findComponents(){
+		int[] order = new int[nodeCount]; //visiting order + 1, 0 for nodes not visited yet
+		int[] lowLinks = new int[nodeCount];
+		boolean[] onStack = new boolean[nodeCount];
+		int[] stack = new int[nodeCount];
+		int stackSize = 0;
+		//nodes of the depth first search and the position of the next edge to follow
+		int[] pathNodes = new int[nodeCount];
+		int[] pathEdges = new int[nodeCount];
+		int pathLength = 0;
+		int visited = 0;
+
+		components = new int[nodeCount];
+		componentSizes = new int[nodeCount];
+
+		for (int root=0; root<nodeCount; root++){
+			if (order[root] != 0)
+				continue;
+			order[root] = lowLinks[root] = ++visited;
+			stack[stackSize++] = root;
+			onStack[root] = true;
+			pathNodes[pathLength] = root;
+			pathEdges[pathLength++] = graph.getFirstEdge(root);
+
+			while (pathLength > 0){
+				int node = pathNodes[pathLength - 1];
+				int position = pathEdges[pathLength - 1];
+				if (position < graph.getFirstEdge(node + 1)){
+					pathEdges[pathLength - 1]++;
+					int target = graph.getEdgeTarget(position);
+					if (order[target] == 0){
+						//descend to the target
+						order[target] = lowLinks[target] = ++visited;
+						stack[stackSize++] = target;
+						onStack[target] = true;
+						pathNodes[pathLength] = target;
+						pathEdges[pathLength++] = graph.getFirstEdge(target);
+					}
+					else if (onStack[target] && order[target] < lowLinks[node])
+						lowLinks[node] = order[target];
+					continue;
+				}
+
+				//all edges followed, the node is the root of a component if it reaches no earlier node
+				pathLength--;
+				if (lowLinks[node] == order[node]){
+					int member;
+					do {
+						member = stack[--stackSize];
+						onStack[member] = false;
+						components[member] = componentCount;
+						componentSizes[componentCount]++;
+					} while (member != node);
+					componentCount++;
+				}
+				if (pathLength > 0){
+					int parent = pathNodes[pathLength - 1];
+					if (lowLinks[node] < lowLinks[parent])
+						lowLinks[parent] = lowLinks[node];
+				}
+			}
+		}
+	}
+}
@@ -1,208 +1,549 @@
-package graph;
-
-import java.io.DataOutputStream;
-import java.io.IOException;
-
-//there still is some room for improvement in making the datastructure more memoryeffective
-// for example one could save the streetnames in a hashtable so each name has to be saved only once
-// downside: serializing and deserializing will get much more complicated
-
-/**
- * This Class represents the RoutingGraph
- * @author Norbert Goebel
- *
- */
-public class Graph {
-	
-	private Node[] nodes;
-	private Edge[] edges;
-	
-	//minimal and maximal Latitudes and Longitudes in this map
-	//this is needed to build the can zones to just overlap this map area
-	private double minLat;
-	private double maxLat;
-	private double minLon;
-	private double maxLon;
-	private double safety = 0.001; //the safety margin for the intervals
-	
-	/**
-	 * Creates an empty Graph with nodes Nodes and edges Edges
-	 */
-	public Graph(int nodes, int edges){
-		this.nodes = new Node[nodes];
-		this.edges = new Edge[edges];
-		this.minLat = Double.MAX_VALUE;
-		this.minLon = Double.MAX_VALUE;
-		this.maxLat = -Double.MAX_VALUE;
-		this.maxLon = -Double.MAX_VALUE;
-	}
-
-	/**
-	 * This function adds an edge to the graph.
-	 * @param startNode
-	 * @param edgeIndex
-	 * @param edge
-	 */
-	public void addEdge(int startNode, int edgeIndex, Edge edge){
-		edges[edgeIndex]= edge;
-		nodes[startNode].addEdge(edgeIndex);
-	}
-	
-	/**
-	 * Adds a node to the graph as long as the node is not already present in the 
-	 * nodes Array
-	 * @param index
-	 * @param latitude
-	 * @param longitude
-	 */
-	public void addNode(int index, long id, double longitude, double latitude){
-		//only add the node if it has not already been added to the graph
-		if (nodes[index]==null)
-		{
-			nodes[index]= new Node(id, longitude,latitude);
-			
-			//check if we have new min or max long/lat for this graph
-			if (longitude < minLon)
-				minLon = longitude;
-			else if (longitude + safety > maxLon)
-				maxLon = longitude + safety;
-			if (latitude < minLat)
-				minLat = latitude;
-			else if (latitude + safety > maxLat)
-				maxLat = latitude + safety;
-		}
-	}
-	
-	/**
-	 * Adds a node to the graph as long as the node is not already present in the 
-	 * nodes Array
-	 * @param index
-	 * @param latitude
-	 * @param longitude
-	 */
-	/*
-	public void addNode(int index, double longitude, double latitude){
-		//only add the node if it has not already been added to the graph
-		if (nodes[index]==null)
-		{
-			nodes[index]= new Node(longitude,latitude);
-			
-			//check if we have new min or max long/lat for this graph
-			if (longitude < minLon)
-				minLon = longitude;
-			else if (longitude + safety > maxLon)
-				maxLon = longitude + safety;
-			if (latitude < minLat)
-				minLat = latitude;
-			else if (latitude + safety > maxLat)
-				maxLat = latitude + safety;
-		}
-	}
-*/
-	/**
-	 * Prints max/min longitude/latitude for debugging
-	 */
-	public void printMinMax(){
-		System.out.println("Vorher: "+minLat+" "+maxLat+" "+minLon+" "+maxLon);
-		double minLa = Double.MAX_VALUE;
-		double maxLa = Double.MIN_VALUE;
-		double minLo = Double.MAX_VALUE;
-		double maxLo = Double.MIN_VALUE;
-		double temp;
-		
-		for (int i=0; i<nodes.length; i++)
-		{
-			temp = nodes[i].getLatitude();
-			if (temp < minLa)
-				minLa = temp;
-			if (temp > maxLa)
-				maxLa = temp;
-			temp = nodes[i].getLongitude();
-			if (temp < minLo)
-				minLo = temp;
-			if (temp > maxLo)
-				maxLo = temp;
-		}
-		System.out.println("Nachher: "+minLa+" "+maxLa+" "+minLo+" "+maxLo);
-	}
-	
-/*	
-	public void normalize(double from, double to){
-		for (int i=0; i<nodes.length; i++)
-			nodes[i].normalize(minLat,maxLat,minLon,maxLon,from,to);
-		minLat = from;
-		maxLat = to;
-		minLon = from;
-		maxLon = to;
-	}
-*/
-	
-	public int nodeCount(){
-		return nodes.length;
-	}
-	
-	public int edgeCount(){
-		return edges.length;
-	}
-	
-	public Edge getEdge(int edge) throws IndexOutOfBoundsException{
-		return (Edge) edges[edge];
-	}
-	
-	public Node getNode(int index) throws IndexOutOfBoundsException{
-			return nodes[index];
-	}
-
-	/**
-	 * This function serializes the graph and all its nodes + edges
-	 * @param dos
-	 * @param large = will betweenNodes be stored too?
-	 * @throws IOException
-	 */
-	public void toDataStream(DataOutputStream dos, boolean large) throws IOException 
-	{
-		//first we store if this is a routing.graph.small=0 or routing.graph.large=1
-		if (large)
-		{			dos.writeInt(1); System.out.println(1); }
-		else
-			dos.writeInt(0);
-		
-		//first we export the dimensions of the graph
-		dos.writeInt(nodes.length); System.out.println(nodes.length);
-		dos.writeInt(edges.length); System.out.println(edges.length);
-		
-		//now we export the min/max coordinates used in this graph
-		dos.writeDouble(this.minLat); System.out.println(this.minLat);
-		dos.writeDouble(this.maxLat); System.out.println(this.maxLat);
-		dos.writeDouble(this.minLon); System.out.println(this.minLon);
-		
-		int s = dos.size();
-		dos.writeDouble(this.maxLon); System.out.println(this.maxLon);
-		s = dos.size();
-		
-		//now we export the nodes list
-		for (int i=0;i<nodes.length;i++){
-			nodes[i].toDataStream(dos);
-		}
-		
-		//export all edges
-		for (int i=0;i<edges.length;i++){
-			edges[i].toDataStream(dos,large);
-		}
-	}
-
-	/**
-	 * Set the bounds the OSM File tells us
-	 * @param minlon
-	 * @param maxlon
-	 * @param minlat
-	 * @param maxlat
-	 */
-	public void setDimensions(double minlon, double maxlon, double minlat, double maxlat)
-	{
-		this.minLat = minlat;
-		this.minLon = minlon;
-		this.maxLat = maxlat;
-		this.maxLon = maxlon;
-	}
-}
+package graph;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+//there still is some room for improvement in making the datastructure more memoryeffective
+// the streetnames are saved once in a name table, the edges refer to them by index.
+// the files only contain the name table if asked for, so older readers can still read them
+
+/**
+ * This Class represents the RoutingGraph.
+ * The graph is stored in compressed sparse row layout: the edges are sorted by their start node,
+ * the edges of node n are at the positions firstEdge[n] .. firstEdge[n+1]-1 of the edge arrays.
+ * Edges keep the index they were added with (getEdgeNumber), nodes list their edges by this index.
+ * The between nodes are stored once per segment, the reverse edge of a two-way segment reads them
+ * backwards and gets their distance from its start as length - distance from the segment start.
+ * Street names are kept once in a name table, edges store the index of their name.
+ * Graphs are created by a GraphBuilder.
+ * @author Norbert Goebel
+ *
+ */
+public class Graph {
+
+	//added to the format number at the start of a file if it contains the name table
+	public static final int NAME_TABLE = 2;
+
+	//added to the format number of the compact format, see CompactGraphWriter, DEFLATED if its geometry is compressed
+	public static final int COMPACT = 4;
+	public static final int DEFLATED = 8;
+
+	//format number of a file with only the between nodes, see GraphWriter.writeWithGeometry()
+	public static final int GEOMETRY = 16;
+
+	//nodes
+	private int nodeCount;
+	private long[] nodeIds;
+	private double[] longitudes;
+	private double[] latitudes;
+	private int[] firstEdge; //nodeCount+1 entries
+
+	//edges by position
+	private int edgeCount;
+	private int[] edgeTargets;
+	private int[] edgeLengths; //in meters
+	private long[] edgeIds;
+	private int[] edgeMaxSpeeds;
+	private int[] edgeLanes;
+	private int[] edgeTypes; //highwayType and carPermission, see type()
+	private int[] edgeNames; //index in names
+	private int[] edgeNumbers; //index of the edge at each position
+	private int[] edgePositions; //position of each edge index
+
+	//segment s of each edge, ~s for a reverse edge, the between nodes of segment s
+	//are at geometryOffsets[s] .. geometryOffsets[s+1]-1
+	private int[] edgeSegments;
+	private int[] geometryOffsets;
+	private long[] betweenIds;
+	private double[] betweenLons;
+	private double[] betweenLats;
+	private int[] betweenDists; //distance from the start of the segment
+
+	//every street name once
+	private String[] names;
+
+	//minimal and maximal Latitudes and Longitudes in this map
+	//this is needed to build the can zones to just overlap this map area
+	private double minLat;
+	private double maxLat;
+	private double minLon;
+	private double maxLon;
+
+	/**
+	 * Creates a graph of the arrays of a GraphBuilder, the arrays are not copied
+	 */
+	Graph(long[] nodeIds, double[] longitudes, double[] latitudes, int[] firstEdge,
+			int[] edgeTargets, int[] edgeLengths, long[] edgeIds, int[] edgeMaxSpeeds, int[] edgeLanes, int[] edgeTypes,
+			String[] names, int[] edgeNames, int[] edgeNumbers, int[] edgeSegments, int[] geometryOffsets,
+			long[] betweenIds, double[] betweenLons, double[] betweenLats, int[] betweenDists){
+		this.nodeCount = nodeIds.length;
+		this.nodeIds = nodeIds;
+		this.longitudes = longitudes;
+		this.latitudes = latitudes;
+		this.firstEdge = firstEdge;
+
+		this.edgeCount = edgeTargets.length;
+		this.edgeTargets = edgeTargets;
+		this.edgeLengths = edgeLengths;
+		this.edgeIds = edgeIds;
+		this.edgeMaxSpeeds = edgeMaxSpeeds;
+		this.edgeLanes = edgeLanes;
+		this.edgeTypes = edgeTypes;
+		this.names = names;
+		this.edgeNames = edgeNames;
+		this.edgeNumbers = edgeNumbers;
+		this.edgePositions = new int[edgeCount];
+		for (int position=0; position<edgeCount; position++)
+			edgePositions[edgeNumbers[position]] = position;
+
+		this.edgeSegments = edgeSegments;
+		this.geometryOffsets = geometryOffsets;
+		this.betweenIds = betweenIds;
+		this.betweenLons = betweenLons;
+		this.betweenLats = betweenLats;
+		this.betweenDists = betweenDists;
+	}
+
+	/**
+	 * @param highwayType
+	 * @param carPermission 0 = notallowed, 1 = restricted, 2 = allowed
+	 * @return both values packed into one int
+	 */
+	static int type(int highwayType, int carPermission){
+		return (highwayType << 2) | carPermission;
+	}
+
+	/**
+	 * Prints max/min longitude/latitude for debugging
+	 */
+	public void printMinMax(){
+		System.out.println("Vorher: "+minLat+" "+maxLat+" "+minLon+" "+maxLon);
+		double minLa = Double.MAX_VALUE;
+		double maxLa = Double.MIN_VALUE;
+		double minLo = Double.MAX_VALUE;
+		double maxLo = Double.MIN_VALUE;
+		double temp;
+
+		for (int i=0; i<nodeCount; i++)
+		{
+			temp = latitudes[i];
+			if (temp < minLa)
+				minLa = temp;
+			if (temp > maxLa)
+				maxLa = temp;
+			temp = longitudes[i];
+			if (temp < minLo)
+				minLo = temp;
+			if (temp > maxLo)
+				maxLo = temp;
+		}
+		System.out.println("Nachher: "+minLa+" "+maxLa+" "+minLo+" "+maxLo);
+	}
+
+	public int nodeCount(){
+		return nodeCount;
+	}
+
+	public int edgeCount(){
+		return edgeCount;
+	}
+
+	/**
+	 * Creates an Edge object out of the arrays
+	 * @param edge index of the edge
+	 * @return the edge
+	 * @throws IndexOutOfBoundsException
+	 */
+	public Edge getEdge(int edge) throws IndexOutOfBoundsException{
+		int position = edgePositions[edge];
+		int count = getBetweenCount(position);
+
+		int[] betweenDist = new int[count];
+		double[] betweenLon = new double[count];
+		double[] betweenLat = new double[count];
+		long[] betweenId = new long[count];
+		for (int k=0; k<count; k++){
+			int between = getBetween(position, k);
+			betweenDist[k] = getBetweenDist(position, between);
+			betweenLon[k] = betweenLons[between];
+			betweenLat[k] = betweenLats[between];
+			betweenId[k] = betweenIds[between];
+		}
+
+		return new Edge(edgeIds[position], edgeMaxSpeeds[position], getCarPermission(position), edgeLanes[position],
+				getHighwayType(position), names[edgeNames[position]], edgeTargets[position], edgeLengths[position],
+				betweenDist, betweenLon, betweenLat, betweenId);
+	}
+
+	/**
+	 * Creates a Node object out of the arrays
+	 * @param index
+	 * @return the node
+	 * @throws IndexOutOfBoundsException
+	 */
+	public Node getNode(int index) throws IndexOutOfBoundsException{
+		Node node = new Node(nodeIds[index], longitudes[index], latitudes[index]);
+		for (int position=firstEdge[index]; position<firstEdge[index + 1]; position++)
+			node.addEdge(edgeNumbers[position]);
+		return node;
+	}
+
+	/**
+	 * @param node
+	 * @return position of the first edge starting at node, the edges of node end at getFirstEdge(node+1)
+	 */
+	public int getFirstEdge(int node){
+		return firstEdge[node];
+	}
+
+	/**
+	 * @param node
+	 * @return the OSM id of the node
+	 */
+	public long getNodeId(int node){
+		return nodeIds[node];
+	}
+
+	/**
+	 * @param node
+	 * @return the longitude of the node
+	 */
+	public double getLongitude(int node){
+		return longitudes[node];
+	}
+
+	/**
+	 * @param node
+	 * @return the latitude of the node
+	 */
+	public double getLatitude(int node){
+		return latitudes[node];
+	}
+
+	/**
+	 * @param position
+	 * @return the index of the edge at this position
+	 */
+	public int getEdgeNumber(int position){
+		return edgeNumbers[position];
+	}
+
+	/**
+	 * @param edge index of the edge
+	 * @return the position of the edge in the edge arrays
+	 */
+	public int getEdgePosition(int edge){
+		return edgePositions[edge];
+	}
+
+	/**
+	 * @param position
+	 * @return the target node of the edge
+	 */
+	public int getEdgeTarget(int position){
+		return edgeTargets[position];
+	}
+
+	/**
+	 * @param position
+	 * @return the length of the edge in meters
+	 */
+	public int getEdgeLength(int position){
+		return edgeLengths[position];
+	}
+
+	/**
+	 * @param position
+	 * @return the OSM id of the way of the edge
+	 */
+	public long getEdgeId(int position){
+		return edgeIds[position];
+	}
+
+	/**
+	 * @param position
+	 * @return the max speed of the edge
+	 */
+	public int getMaxSpeed(int position){
+		return edgeMaxSpeeds[position];
+	}
+
+	/**
+	 * @param position
+	 * @return the number of lanes of the edge
+	 */
+	public int getLanes(int position){
+		return edgeLanes[position];
+	}
+
+	/**
+	 * @param position
+	 * @return the highway type of the edge
+	 */
+	public int getHighwayType(int position){
+		return edgeTypes[position] >> 2;
+	}
+
+	/**
+	 * @param position
+	 * @return the car permission of the edge, 0 = notallowed, 1 = restricted, 2 = allowed
+	 */
+	public int getCarPermission(int position){
+		return edgeTypes[position] & 3;
+	}
+
+	/**
+	 * @param position
+	 * @return the street name of the edge
+	 */
+	public String getName(int position){
+		return names[edgeNames[position]];
+	}
+
+	/**
+	 * @param position
+	 * @return the index of the street name of the edge in the name table
+	 */
+	public int getNameIndex(int position){
+		return edgeNames[position];
+	}
+
+	/**
+	 * @return the number of different street names
+	 */
+	public int nameCount(){
+		return names.length;
+	}
+
+	/**
+	 * @param index
+	 * @return the street name at index of the name table
+	 */
+	public String getNameAt(int index){
+		return names[index];
+	}
+
+	/**
+	 * @param position
+	 * @return the number of between nodes of the edge
+	 */
+	public int getBetweenCount(int position){
+		int segment = edgeSegments[position];
+		if (segment < 0)
+			segment = ~segment;
+		return geometryOffsets[segment + 1] - geometryOffsets[segment];
+	}
+
+	/**
+	 * @param position
+	 * @return segment s of the edge, ~s if it reads the between nodes of the segment backwards
+	 */
+	int getSegment(int position){
+		return edgeSegments[position];
+	}
+
+	/**
+	 * @param position
+	 * @param source start node of the edge
+	 * @return position of the edge reading the segment of the edge in the opposite direction, -1 if there is none
+	 */
+	int getReversePosition(int position, int source){
+		int segment = ~edgeSegments[position];
+		int target = edgeTargets[position];
+		for (int other=firstEdge[target]; other<firstEdge[target + 1]; other++){
+			if (edgeSegments[other] == segment && edgeTargets[other] == source)
+				return other;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param position
+	 * @param k
+	 * @return index of the k-th between node of the edge in the between node arrays
+	 */
+	private int getBetween(int position, int k){
+		int segment = edgeSegments[position];
+		return (segment >= 0) ? geometryOffsets[segment] + k : geometryOffsets[~segment + 1] - 1 - k;
+	}
+
+	/**
+	 * @param position
+	 * @param between index in the between node arrays
+	 * @return distance of the between node from the start of the edge
+	 */
+	private int getBetweenDist(int position, int between){
+		return (edgeSegments[position] >= 0) ? betweenDists[between] : edgeLengths[position] - betweenDists[between];
+	}
+
+	/**
+	 * @param position
+	 * @param k
+	 * @return the OSM id of the k-th between node of the edge
+	 */
+	public long getBetweenId(int position, int k){
+		return betweenIds[getBetween(position, k)];
+	}
+
+	/**
+	 * @param position
+	 * @param k
+	 * @return the longitude of the k-th between node of the edge
+	 */
+	public double getBetweenLongitude(int position, int k){
+		return betweenLons[getBetween(position, k)];
+	}
+
+	/**
+	 * @param position
+	 * @param k
+	 * @return the latitude of the k-th between node of the edge
+	 */
+	public double getBetweenLatitude(int position, int k){
+		return betweenLats[getBetween(position, k)];
+	}
+
+	/**
+	 * @param position
+	 * @param k
+	 * @return the distance of the k-th between node from the start of the edge
+	 */
+	public int getBetweenDistance(int position, int k){
+		return getBetweenDist(position, getBetween(position, k));
+	}
+
+	/**
+	 * This function serializes the graph and all its nodes + edges
+	 * @param dos
+	 * @param large = will betweenNodes be stored too?
+	 * @throws IOException
+	 */
+	public void toDataStream(DataOutputStream dos, boolean large) throws IOException
+	{
+		toDataStream(dos, large, false);
+	}
+
+	/**
+	 * This function serializes the graph and all its nodes + edges
+	 * @param dos
+	 * @param large = will betweenNodes be stored too?
+	 * @param nameTable = are the street names stored once in front of the nodes?
+	 * @throws IOException
+	 */
+	public void toDataStream(DataOutputStream dos, boolean large, boolean nameTable) throws IOException
+	{
+		//first we store if this is a routing.graph.small=0 or routing.graph.large=1, NAME_TABLE is added if the names are stored once
+		int format = (large ? 1 : 0) + (nameTable ? NAME_TABLE : 0);
+		dos.writeInt(format);
+
+		//first we export the dimensions of the graph
+		dos.writeInt(nodeCount);
+		dos.writeInt(edgeCount);
+
+		//now we export the min/max coordinates used in this graph
+		dos.writeDouble(this.minLat);
+		dos.writeDouble(this.maxLat);
+		dos.writeDouble(this.minLon);
+		dos.writeDouble(this.maxLon);
+
+		//the name table: number of names and the names, edges store the index
+		if (nameTable){
+			dos.writeInt(names.length);
+			for (String name : names)
+				dos.writeUTF(name);
+		}
+
+		//now we export the nodes list
+		for (int i=0;i<nodeCount;i++){
+			dos.writeLong(nodeIds[i]);
+			dos.writeDouble(longitudes[i]);
+			dos.writeDouble(latitudes[i]);
+
+			//now we write how many edges start at this node and their indices
+			dos.writeInt(firstEdge[i + 1] - firstEdge[i]);
+			for (int position=firstEdge[i]; position<firstEdge[i + 1]; position++)
+				dos.writeInt(edgeNumbers[position]);
+		}
+
+		//export all edges in the order of their indices
+		for (int i=0;i<edgeCount;i++){
+			int position = edgePositions[i];
+			dos.writeLong(edgeIds[position]);
+
+			dos.writeInt(edgeMaxSpeeds[position]);
+			dos.writeInt(getCarPermission(position));
+			dos.writeInt(edgeLanes[position]);
+			dos.writeInt(getHighwayType(position));
+			if (nameTable)
+				dos.writeInt(edgeNames[position]);
+			else
+				dos.writeUTF(names[edgeNames[position]]);
+			dos.writeInt(edgeTargets[position]);
+			dos.writeInt(edgeLengths[position]);
+
+			if (large)
+			{
+				//reverse edges read the between nodes of their segment backwards
+				int segment = edgeSegments[position];
+				boolean reverse = segment < 0;
+				if (reverse)
+					segment = ~segment;
+				int from = geometryOffsets[segment];
+				int to = geometryOffsets[segment + 1];
+				dos.writeInt(to - from);
+				for (int k=0; k<to-from; k++)
+				{
+					int j = reverse ? to - 1 - k : from + k;
+					dos.writeLong(betweenIds[j]);
+
+					dos.writeDouble(betweenLons[j]);
+					dos.writeDouble(betweenLats[j]);
+					dos.writeInt(reverse ? edgeLengths[position] - betweenDists[j] : betweenDists[j]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the minimal latitude of the graph
+	 */
+	public double getMinLat(){
+		return minLat;
+	}
+
+	/**
+	 * @return the maximal latitude of the graph
+	 */
+	public double getMaxLat(){
+		return maxLat;
+	}
+
+	/**
+	 * @return the minimal longitude of the graph
+	 */
+	public double getMinLon(){
+		return minLon;
+	}
+
+	/**
+	 * @return the maximal longitude of the graph
+	 */
+	public double getMaxLon(){
+		return maxLon;
+	}
+
+	/**
+	 * Set the bounds the OSM File tells us
+	 * @param minlon
+	 * @param maxlon
+	 * @param minlat
+	 * @param maxlat
+	 */
+	public void setDimensions(double minlon, double maxlon, double minlat, double maxlat)
+	{
+		this.minLat = minlat;
+		this.minLon = minlon;
+		this.maxLat = maxlat;
+		this.maxLon = maxlon;
+	}
+}
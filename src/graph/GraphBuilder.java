@@ -0,0 +1,268 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Vector;
+
+/**
+ * Collects the nodes and edges of a routing graph and creates the Graph in
+ * compressed sparse row layout out of them.
+ * Edges may be added in any order, the edges of a node are ordered by their index.
+ * The between nodes of a two-way segment are stored once, its reverse edge refers to them.
+ * @author Norbert Goebel
+ *
+ */
+public class GraphBuilder {
+
+	//nodes
+	private long[] nodeIds;
+	private double[] longitudes;
+	private double[] latitudes;
+	private boolean[] added;
+
+	//edges by index
+	private int[] edgeStarts;
+	private int[] edgeTargets;
+	private int[] edgeLengths;
+	private long[] edgeIds;
+	private int[] edgeMaxSpeeds;
+	private int[] edgeLanes;
+	private int[] edgeTypes;
+	private int[] edgeNames; //index in names
+
+	//every street name once, in the order of their first edge
+	private Vector<String> names = new Vector<String>();
+	private HashMap<String, Integer> nameIndices = new HashMap<String, Integer>();
+
+	//segment s of each edge, ~s for reverse edges, the between nodes of the segments in the order they were added
+	private int[] edgeSegments;
+	private int[] geometryOffsets = new int[1025];
+	private int segmentCount = 0;
+	private long[] betweenIds = new long[1024];
+	private double[] betweenLons = new double[1024];
+	private double[] betweenLats = new double[1024];
+	private int[] betweenDists = new int[1024];
+	private int geometrySize = 0;
+
+	//minimal and maximal Latitudes and Longitudes of the nodes
+	private double minLat = Double.MAX_VALUE;
+	private double minLon = Double.MAX_VALUE;
+	private double maxLat = -Double.MAX_VALUE;
+	private double maxLon = -Double.MAX_VALUE;
+	private double safety = 0.001; //the safety margin for the intervals
+
+	/**
+	 * Creates an empty builder for a graph with nodes Nodes and edges Edges
+	 * @param nodes
+	 * @param edges
+	 */
+	public GraphBuilder(int nodes, int edges){
+		nodeIds = new long[nodes];
+		longitudes = new double[nodes];
+		latitudes = new double[nodes];
+		added = new boolean[nodes];
+
+		edgeStarts = new int[edges];
+		edgeTargets = new int[edges];
+		edgeLengths = new int[edges];
+		edgeIds = new long[edges];
+		edgeMaxSpeeds = new int[edges];
+		edgeLanes = new int[edges];
+		edgeTypes = new int[edges];
+		edgeNames = new int[edges];
+		edgeSegments = new int[edges];
+	}
+
+	/**
+	 * Adds a node to the graph as long as the node is not already present
+	 * @param index
+	 * @param id
+	 * @param longitude
+	 * @param latitude
+	 */
+	public void addNode(int index, long id, double longitude, double latitude){
+		//only add the node if it has not already been added to the graph
+		if (added[index])
+			return;
+		added[index] = true;
+		nodeIds[index] = id;
+		longitudes[index] = longitude;
+		latitudes[index] = latitude;
+
+		//check if we have new min or max long/lat for this graph
+		if (longitude < minLon)
+			minLon = longitude;
+		else if (longitude + safety > maxLon)
+			maxLon = longitude + safety;
+		if (latitude < minLat)
+			minLat = latitude;
+		else if (latitude + safety > maxLat)
+			maxLat = latitude + safety;
+	}
+
+	/**
+	 * Adds an Edge object to the graph
+	 * @param startNode
+	 * @param edgeIndex
+	 * @param edge
+	 */
+	public void addEdge(int startNode, int edgeIndex, Edge edge){
+		addEdge(startNode, edgeIndex, edge.getId(), edge.getOsmMaxSpeed(), edge.getCarPermission(), edge.getLanes(),
+				edge.getHighwayType(), edge.getName(), edge.getTargetNode(), edge.getLength(),
+				edge.getBetweenDistFromStart(), edge.getBetweenLon(), edge.getBetweenLat(), edge.getBetweenId());
+	}
+
+	/**
+	 * Adds a copy of an edge of another graph
+	 * @param startNode
+	 * @param edgeIndex
+	 * @param graph
+	 * @param position position of the edge in graph
+	 * @param targetNode
+	 */
+	public void addEdge(int startNode, int edgeIndex, Graph graph, int position, int targetNode){
+		int count = graph.getBetweenCount(position);
+		int[] betweenDist = new int[count];
+		double[] betweenLon = new double[count];
+		double[] betweenLat = new double[count];
+		long[] betweenId = new long[count];
+		for (int k=0; k<count; k++){
+			betweenDist[k] = graph.getBetweenDistance(position, k);
+			betweenLon[k] = graph.getBetweenLongitude(position, k);
+			betweenLat[k] = graph.getBetweenLatitude(position, k);
+			betweenId[k] = graph.getBetweenId(position, k);
+		}
+		addEdge(startNode, edgeIndex, graph.getEdgeId(position), graph.getMaxSpeed(position), graph.getCarPermission(position),
+				graph.getLanes(position), graph.getHighwayType(position), graph.getName(position), targetNode,
+				graph.getEdgeLength(position), betweenDist, betweenLon, betweenLat, betweenId);
+	}
+
+	/**
+	 * Adds an edge to the graph, the between nodes are copied into a new segment
+	 * @param startNode
+	 * @param edgeIndex
+	 * @param id OSM id of the way
+	 * @param maxSpeed
+	 * @param carPermission
+	 * @param lanes
+	 * @param highwayType
+	 * @param name
+	 * @param targetNode
+	 * @param length
+	 * @param betweenDist
+	 * @param betweenLon
+	 * @param betweenLat
+	 * @param betweenId
+	 */
+	public void addEdge(int startNode, int edgeIndex, long id, int maxSpeed, int carPermission, int lanes, int highwayType,
+			String name, int targetNode, int length, int[] betweenDist, double[] betweenLon, double[] betweenLat, long[] betweenId){
+		edgeStarts[edgeIndex] = startNode;
+		edgeTargets[edgeIndex] = targetNode;
+		edgeLengths[edgeIndex] = length;
+		edgeIds[edgeIndex] = id;
+		edgeMaxSpeeds[edgeIndex] = maxSpeed;
+		edgeLanes[edgeIndex] = lanes;
+		edgeTypes[edgeIndex] = Graph.type(highwayType, carPermission);
+		edgeNames[edgeIndex] = nameIndex(name);
+		edgeSegments[edgeIndex] = segmentCount;
+
+		int count = betweenId.length;
+		if (geometrySize + count > betweenIds.length){
+			int size = Math.max(betweenIds.length * 2, geometrySize + count);
+			betweenIds = Arrays.copyOf(betweenIds, size);
+			betweenLons = Arrays.copyOf(betweenLons, size);
+			betweenLats = Arrays.copyOf(betweenLats, size);
+			betweenDists = Arrays.copyOf(betweenDists, size);
+		}
+		System.arraycopy(betweenId, 0, betweenIds, geometrySize, count);
+		System.arraycopy(betweenLon, 0, betweenLons, geometrySize, count);
+		System.arraycopy(betweenLat, 0, betweenLats, geometrySize, count);
+		System.arraycopy(betweenDist, 0, betweenDists, geometrySize, count);
+		geometrySize += count;
+
+		if (segmentCount + 1 == geometryOffsets.length)
+			geometryOffsets = Arrays.copyOf(geometryOffsets, geometryOffsets.length * 2);
+		geometryOffsets[++segmentCount] = geometrySize;
+	}
+
+	/**
+	 * Adds the edge in the opposite direction of an edge added before.
+	 * It gets the attributes of the edge and reads its between nodes backwards.
+	 * @param edgeIndex
+	 * @param forwardEdgeIndex
+	 */
+	public void addReverseEdge(int edgeIndex, int forwardEdgeIndex){
+		edgeStarts[edgeIndex] = edgeTargets[forwardEdgeIndex];
+		edgeTargets[edgeIndex] = edgeStarts[forwardEdgeIndex];
+		edgeLengths[edgeIndex] = edgeLengths[forwardEdgeIndex];
+		edgeIds[edgeIndex] = edgeIds[forwardEdgeIndex];
+		edgeMaxSpeeds[edgeIndex] = edgeMaxSpeeds[forwardEdgeIndex];
+		edgeLanes[edgeIndex] = edgeLanes[forwardEdgeIndex];
+		edgeTypes[edgeIndex] = edgeTypes[forwardEdgeIndex];
+		edgeNames[edgeIndex] = edgeNames[forwardEdgeIndex];
+		edgeSegments[edgeIndex] = ~edgeSegments[forwardEdgeIndex];
+	}
+
+	/**
+	 * @param name
+	 * @return index of the name in the name table, new names are added
+	 */
+	private int nameIndex(String name){
+		Integer index = nameIndices.get(name);
+		if (index == null){
+			index = Integer.valueOf(names.size());
+			names.add(name);
+			nameIndices.put(name, index);
+		}
+		return index.intValue();
+	}
+
+	/**
+	 * Sorts the edges by their start node and creates the graph
+	 * @return graph
+	 */
+	public Graph build(){
+		int nodeCount = nodeIds.length;
+		int edgeCount = edgeStarts.length;
+
+		//counting sort of the edge indices by start node
+		int[] firstEdge = new int[nodeCount + 1];
+		for (int edge=0; edge<edgeCount; edge++)
+			firstEdge[edgeStarts[edge] + 1]++;
+		for (int node=0; node<nodeCount; node++)
+			firstEdge[node + 1] += firstEdge[node];
+		int[] edgeNumbers = new int[edgeCount];
+		int[] next = Arrays.copyOf(firstEdge, nodeCount);
+		for (int edge=0; edge<edgeCount; edge++)
+			edgeNumbers[next[edgeStarts[edge]]++] = edge;
+
+		//edge attributes in the order of the positions, the segments keep their order
+		Graph graph = new Graph(nodeIds, longitudes, latitudes, firstEdge,
+				permute(edgeTargets, edgeNumbers), permute(edgeLengths, edgeNumbers), permute(edgeIds, edgeNumbers),
+				permute(edgeMaxSpeeds, edgeNumbers), permute(edgeLanes, edgeNumbers), permute(edgeTypes, edgeNumbers),
+				names.toArray(new String[names.size()]), permute(edgeNames, edgeNumbers), edgeNumbers, permute(edgeSegments, edgeNumbers),
+				Arrays.copyOf(geometryOffsets, segmentCount + 1), Arrays.copyOf(betweenIds, geometrySize),
+				Arrays.copyOf(betweenLons, geometrySize), Arrays.copyOf(betweenLats, geometrySize), Arrays.copyOf(betweenDists, geometrySize));
+		graph.setDimensions(minLon, maxLon, minLat, maxLat);
+		return graph;
+	}
+
+	/**
+	 * @param values by edge index
+	 * @param edgeNumbers edge index of each position
+	 * @return values by position
+	 */
+	private static int[] permute(int[] values, int[] edgeNumbers){
+		int[] permuted = new int[values.length];
+		for (int position=0; position<permuted.length; position++)
+			permuted[position] = values[edgeNumbers[position]];
+		return permuted;
+	}
+
+	private static long[] permute(long[] values, int[] edgeNumbers){
+		long[] permuted = new long[values.length];
+		for (int position=0; position<permuted.length; position++)
+			permuted[position] = values[edgeNumbers[position]];
+		return permuted;
+	}
+}
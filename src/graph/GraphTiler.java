@@ -0,0 +1,241 @@
+package graph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Splits a graph into tiles of tileSize x tileSize degrees, counted from latitude -90 and
+ * longitude -180, so tiles of different graphs with the same size line up.
+ * A tile gets the nodes inside it and all edges starting at them, with their between nodes.
+ * The target of an edge in another tile is added to the tile as stub node behind its own nodes.
+ * A stub node has no edges, the tile index names the tile and the node a router continues with.
+ *
+ * Tile index: int format TILE_INDEX, double tileSize, int tileCount, per tile int row, int column,
+ * int node count, int own node count, int edge count, then per stub node int tile and int node.
+ * @author Norbert Goebel
+ *
+ */
+public class GraphTiler {
+
+	//format number at the start of a tile index
+	public static final int TILE_INDEX = 32;
+
+	private Graph graph;
+	private double tileSize;
+
+	//tile and index in the tile of each node
+	private int[] nodeTiles;
+	private int[] localNodes;
+
+	//row and column of each tile, ordered by row and column
+	private int[] rows;
+	private int[] columns;
+
+	//nodes of each tile, its edge positions in the order of the edge indices and its stub nodes
+	private int[][] tileNodes;
+	private int[][] tileEdges;
+	private int[][] tileStubs;
+
+	//start node of each edge position
+	private int[] sources;
+
+	/**
+	 * Assigns the nodes and edges of the graph to tiles
+	 * @param graph
+	 * @param tileSize in degrees
+	 */
+	public GraphTiler(Graph graph, double tileSize){
+		this.graph = graph;
+		this.tileSize = tileSize;
+		int nodeCount = graph.nodeCount();
+
+		//tile key of each node, the tiles are numbered in the order of their keys
+		long[] keys = new long[nodeCount];
+		for (int node=0; node<nodeCount; node++)
+			keys[node] = key(row(graph.getLatitude(node)), column(graph.getLongitude(node)));
+		long[] tileKeys = distinct(keys);
+		HashMap<Long, Integer> tileIndices = new HashMap<Long, Integer>();
+		rows = new int[tileKeys.length];
+		columns = new int[tileKeys.length];
+		for (int tile=0; tile<tileKeys.length; tile++){
+			tileIndices.put(Long.valueOf(tileKeys[tile]), Integer.valueOf(tile));
+			rows[tile] = (int) (tileKeys[tile] >> 32);
+			columns[tile] = (int) tileKeys[tile];
+		}
+
+		//nodes keep their order inside a tile
+		nodeTiles = new int[nodeCount];
+		localNodes = new int[nodeCount];
+		int[] nodeCounts = new int[tileKeys.length];
+		for (int node=0; node<nodeCount; node++){
+			nodeTiles[node] = tileIndices.get(Long.valueOf(keys[node])).intValue();
+			localNodes[node] = nodeCounts[nodeTiles[node]]++;
+		}
+		tileNodes = new int[tileKeys.length][];
+		for (int tile=0; tile<tileKeys.length; tile++)
+			tileNodes[tile] = new int[nodeCounts[tile]];
+		for (int node=0; node<nodeCount; node++)
+			tileNodes[nodeTiles[node]][localNodes[node]] = node;
+
+		sources = new int[graph.edgeCount()];
+		for (int node=0; node<nodeCount; node++){
+			for (int position=graph.getFirstEdge(node); position<graph.getFirstEdge(node + 1); position++)
+				sources[position] = node;
+		}
+
+		//edges belong to the tile of their start node
+		int[] edgeCounts = new int[tileKeys.length];
+		for (int position=0; position<graph.edgeCount(); position++)
+			edgeCounts[nodeTiles[sources[position]]]++;
+		tileEdges = new int[tileKeys.length][];
+		for (int tile=0; tile<tileKeys.length; tile++)
+			tileEdges[tile] = new int[edgeCounts[tile]];
+		Arrays.fill(edgeCounts, 0);
+		for (int edge=0; edge<graph.edgeCount(); edge++){
+			int position = graph.getEdgePosition(edge);
+			int tile = nodeTiles[sources[position]];
+			tileEdges[tile][edgeCounts[tile]++] = position;
+		}
+
+		//targets in other tiles become stub nodes
+		tileStubs = new int[tileKeys.length][];
+		for (int tile=0; tile<tileKeys.length; tile++){
+			HashMap<Integer, Integer> stubs = new HashMap<Integer, Integer>();
+			int[] stubNodes = new int[16];
+			for (int position : tileEdges[tile]){
+				int target = graph.getEdgeTarget(position);
+				if (nodeTiles[target] != tile && !stubs.containsKey(Integer.valueOf(target))){
+					if (stubs.size() == stubNodes.length)
+						stubNodes = Arrays.copyOf(stubNodes, stubNodes.length * 2);
+					stubNodes[stubs.size()] = target;
+					stubs.put(Integer.valueOf(target), Integer.valueOf(stubs.size()));
+				}
+			}
+			tileStubs[tile] = Arrays.copyOf(stubNodes, stubs.size());
+		}
+	}
+
+	/**
+	 * @param latitude
+	 * @return row of the tile, counted from latitude -90
+	 */
+	private int row(double latitude){
+		return (int) Math.floor((latitude + 90) / tileSize);
+	}
+
+	/**
+	 * @param longitude
+	 * @return column of the tile, counted from longitude -180
+	 */
+	private int column(double longitude){
+		return (int) Math.floor((longitude + 180) / tileSize);
+	}
+
+	private static long key(int row, int column){
+		return ((long) row << 32) | (column & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * @param keys
+	 * @return the different keys in ascending order
+	 */
+	private static long[] distinct(long[] keys){
+		long[] sorted = keys.clone();
+		Arrays.sort(sorted);
+		int count = 0;
+		for (int i=0; i<sorted.length; i++){
+			if (i == 0 || sorted[i] != sorted[i - 1])
+				sorted[count++] = sorted[i];
+		}
+		return Arrays.copyOf(sorted, count);
+	}
+
+	public int tileCount(){
+		return rows.length;
+	}
+
+	public int getRow(int tile){
+		return rows[tile];
+	}
+
+	public int getColumn(int tile){
+		return columns[tile];
+	}
+
+	/**
+	 * @param tile
+	 * @return name of the tile files, tile_row_column
+	 */
+	public String getTileName(int tile){
+		return "tile_" + rows[tile] + "_" + columns[tile];
+	}
+
+	/**
+	 * @param tile
+	 * @return number of stub nodes of the tile
+	 */
+	public int stubCount(int tile){
+		return tileStubs[tile].length;
+	}
+
+	/**
+	 * Creates the graph of a tile, its own nodes come first, then its stub nodes
+	 * @param tile
+	 * @return the graph of the tile
+	 */
+	public Graph buildTile(int tile){
+		int[] nodes = tileNodes[tile];
+		int[] stubs = tileStubs[tile];
+		int[] edges = tileEdges[tile];
+		GraphBuilder builder = new GraphBuilder(nodes.length + stubs.length, edges.length);
+		for (int i=0; i<nodes.length; i++)
+			builder.addNode(i, graph.getNodeId(nodes[i]), graph.getLongitude(nodes[i]), graph.getLatitude(nodes[i]));
+
+		//index of the stub node of each target in another tile
+		HashMap<Integer, Integer> stubIndices = new HashMap<Integer, Integer>();
+		for (int i=0; i<stubs.length; i++){
+			builder.addNode(nodes.length + i, graph.getNodeId(stubs[i]), graph.getLongitude(stubs[i]), graph.getLatitude(stubs[i]));
+			stubIndices.put(Integer.valueOf(stubs[i]), Integer.valueOf(nodes.length + i));
+		}
+
+		for (int edge=0; edge<edges.length; edge++){
+			int position = edges[edge];
+			int target = graph.getEdgeTarget(position);
+			int localTarget = (nodeTiles[target] == tile) ? localNodes[target] : stubIndices.get(Integer.valueOf(target)).intValue();
+			builder.addEdge(localNodes[sources[position]], edge, graph, position, localTarget);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Writes the tile index
+	 * @param file
+	 * @throws IOException
+	 */
+	public void writeIndex(File file) throws IOException {
+		DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			dos.writeInt(TILE_INDEX);
+			dos.writeDouble(tileSize);
+			dos.writeInt(tileCount());
+			for (int tile=0; tile<tileCount(); tile++){
+				dos.writeInt(rows[tile]);
+				dos.writeInt(columns[tile]);
+				dos.writeInt(tileNodes[tile].length + tileStubs[tile].length);
+				dos.writeInt(tileNodes[tile].length);
+				dos.writeInt(tileEdges[tile].length);
+				for (int stub : tileStubs[tile]){
+					dos.writeInt(nodeTiles[stub]);
+					dos.writeInt(localNodes[stub]);
+				}
+			}
+		} finally {
+			dos.close();
+		}
+	}
+}
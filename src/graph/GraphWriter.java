@@ -0,0 +1,301 @@
+package graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the routing.graph.small and routing.graph.large files of a graph in one pass.
+ * Both files are written through direct buffers to file channels, the bytes are the same
+ * as Graph.toDataStream() writes to a DataOutputStream.
+ * Instead of the large file a geometry file with only the between nodes can be written:
+ * int format GEOMETRY, int edge count, edge count + 1 ints with the number of between nodes
+ * before each edge, then the between nodes of the edges in the order of their indices,
+ * each with long id, double longitude, double latitude and int distance.
+ * @author Norbert Goebel
+ *
+ */
+public class GraphWriter {
+
+	//bytes buffered per file
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	private boolean nameTable;
+
+	//the small file gets everything but the between nodes, large is null if the between nodes go to the geometry file
+	private Output small;
+	private Output large;
+	private Output geometry;
+
+	//the street names in modified UTF-8 with their length, as writeUTF writes them
+	private byte[][] names;
+
+	/**
+	 * @param nameTable write the street names once in front of the nodes
+	 */
+	public GraphWriter(boolean nameTable){
+		this.nameTable = nameTable;
+	}
+
+	/**
+	 * Writes both files, existing files are replaced
+	 * @param graph
+	 * @param smallFile
+	 * @param largeFile
+	 * @throws IOException
+	 */
+	public void write(Graph graph, File smallFile, File largeFile) throws IOException {
+		small = new Output(smallFile);
+		try {
+			large = new Output(largeFile);
+			try {
+				write(graph);
+				small.flush();
+				large.flush();
+			} finally {
+				large.close();
+			}
+		} finally {
+			small.close();
+			small = null;
+			large = null;
+			names = null;
+		}
+	}
+
+	/**
+	 * Writes the small file and the between nodes into the geometry file, existing files are replaced
+	 * @param graph
+	 * @param smallFile
+	 * @param geometryFile
+	 * @throws IOException
+	 */
+	public void writeWithGeometry(Graph graph, File smallFile, File geometryFile) throws IOException {
+		small = new Output(smallFile);
+		try {
+			geometry = new Output(geometryFile);
+			try {
+				writeGeometryHeader(graph);
+				write(graph);
+				small.flush();
+				geometry.flush();
+			} finally {
+				geometry.close();
+			}
+		} finally {
+			small.close();
+			small = null;
+			geometry = null;
+			names = null;
+		}
+	}
+
+	/**
+	 * writes the format and the number of between nodes before each edge to the geometry file
+	 * @param graph
+	 * @throws IOException
+	 */
+	private void writeGeometryHeader(Graph graph) throws IOException {
+		geometry.putInt(Graph.GEOMETRY);
+		geometry.putInt(graph.edgeCount());
+		int offset = 0;
+		for (int edge=0; edge<graph.edgeCount(); edge++){
+			geometry.putInt(offset);
+			offset += graph.getBetweenCount(graph.getEdgePosition(edge));
+		}
+		geometry.putInt(offset);
+	}
+
+	/**
+	 * @param graph
+	 * @throws IOException
+	 */
+	private void write(Graph graph) throws IOException {
+		//first we store if this is a routing.graph.small=0 or routing.graph.large=1
+		int format = nameTable ? Graph.NAME_TABLE : 0;
+		small.putInt(format);
+		if (large != null)
+			large.putInt(format + 1);
+
+		//dimensions and min/max coordinates of the graph
+		putInt(graph.nodeCount());
+		putInt(graph.edgeCount());
+		putDouble(graph.getMinLat());
+		putDouble(graph.getMaxLat());
+		putDouble(graph.getMinLon());
+		putDouble(graph.getMaxLon());
+
+		//every name is encoded once
+		names = new byte[graph.nameCount()][];
+		for (int index=0; index<names.length; index++)
+			names[index] = utf(graph.getNameAt(index));
+		if (nameTable){
+			putInt(names.length);
+			for (byte[] name : names)
+				putBytes(name);
+		}
+
+		//nodes with the indices of their edges
+		for (int node=0; node<graph.nodeCount(); node++){
+			putLong(graph.getNodeId(node));
+			putDouble(graph.getLongitude(node));
+			putDouble(graph.getLatitude(node));
+			int first = graph.getFirstEdge(node);
+			int end = graph.getFirstEdge(node + 1);
+			putInt(end - first);
+			for (int position=first; position<end; position++)
+				putInt(graph.getEdgeNumber(position));
+		}
+
+		//edges in the order of their indices, only the large or the geometry file gets the between nodes
+		for (int edge=0; edge<graph.edgeCount(); edge++){
+			int position = graph.getEdgePosition(edge);
+			putLong(graph.getEdgeId(position));
+			putInt(graph.getMaxSpeed(position));
+			putInt(graph.getCarPermission(position));
+			putInt(graph.getLanes(position));
+			putInt(graph.getHighwayType(position));
+			if (nameTable)
+				putInt(graph.getNameIndex(position));
+			else
+				putBytes(names[graph.getNameIndex(position)]);
+			putInt(graph.getEdgeTarget(position));
+			putInt(graph.getEdgeLength(position));
+
+			int count = graph.getBetweenCount(position);
+			Output between = (large != null) ? large : geometry;
+			if (large != null)
+				large.putInt(count);
+			for (int k=0; k<count; k++){
+				between.putLong(graph.getBetweenId(position, k));
+				between.putDouble(graph.getBetweenLongitude(position, k));
+				between.putDouble(graph.getBetweenLatitude(position, k));
+				between.putInt(graph.getBetweenDistance(position, k));
+			}
+		}
+	}
+
+	private void putInt(int value) throws IOException {
+		small.putInt(value);
+		if (large != null)
+			large.putInt(value);
+	}
+
+	private void putLong(long value) throws IOException {
+		small.putLong(value);
+		if (large != null)
+			large.putLong(value);
+	}
+
+	private void putDouble(double value) throws IOException {
+		small.putDouble(value);
+		if (large != null)
+			large.putDouble(value);
+	}
+
+	private void putBytes(byte[] bytes) throws IOException {
+		small.putBytes(bytes);
+		if (large != null)
+			large.putBytes(bytes);
+	}
+
+	/**
+	 * Encodes a string like DataOutputStream.writeUTF
+	 * @param string
+	 * @return length of the encoded string in two bytes followed by the modified UTF-8 bytes
+	 * @throws UTFDataFormatException if the encoded string is longer than 65535 bytes
+	 */
+	private static byte[] utf(String string) throws UTFDataFormatException {
+		int length = 0;
+		for (int i=0; i<string.length(); i++){
+			char c = string.charAt(i);
+			if (c >= 0x0001 && c <= 0x007F)
+				length++;
+			else if (c > 0x07FF)
+				length += 3;
+			else
+				length += 2;
+		}
+		if (length > 65535)
+			throw new UTFDataFormatException("encoded string too long: " + length + " bytes");
+
+		byte[] bytes = new byte[length + 2];
+		bytes[0] = (byte) (length >>> 8);
+		bytes[1] = (byte) length;
+		int j = 2;
+		for (int i=0; i<string.length(); i++){
+			char c = string.charAt(i);
+			if (c >= 0x0001 && c <= 0x007F)
+				bytes[j++] = (byte) c;
+			else if (c > 0x07FF){
+				bytes[j++] = (byte) (0xE0 | ((c >> 12) & 0x0F));
+				bytes[j++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				bytes[j++] = (byte) (0x80 | (c & 0x3F));
+			}
+			else {
+				bytes[j++] = (byte) (0xC0 | ((c >> 6) & 0x1F));
+				bytes[j++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * a file channel with a direct buffer, values are written big endian like a DataOutputStream writes them
+	 */
+	private static class Output {
+		private FileChannel channel;
+		private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+		Output(File file) throws IOException {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+		}
+
+		void putInt(int value) throws IOException {
+			if (buffer.remaining() < 4)
+				flush();
+			buffer.putInt(value);
+		}
+
+		void putLong(long value) throws IOException {
+			if (buffer.remaining() < 8)
+				flush();
+			buffer.putLong(value);
+		}
+
+		void putDouble(double value) throws IOException {
+			//writeDouble writes the bits of doubleToLongBits
+			putLong(Double.doubleToLongBits(value));
+		}
+
+		void putBytes(byte[] bytes) throws IOException {
+			int offset = 0;
+			while (offset < bytes.length){
+				if (!buffer.hasRemaining())
+					flush();
+				int count = Math.min(buffer.remaining(), bytes.length - offset);
+				buffer.put(bytes, offset, count);
+				offset += count;
+			}
+		}
+
+		/**
+		 * writes the buffered bytes to the file
+		 * @throws IOException
+		 */
+		void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+			buffer.clear();
+		}
+
+		void close() throws IOException {
+			channel.close();
+		}
+	}
+}
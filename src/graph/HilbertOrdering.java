@@ -0,0 +1,110 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Renumbers the nodes of a graph along a Hilbert curve over longitude and latitude,
+ * so nodes close to each other get close indices. The edges are renumbered by their
+ * start node, the edges of a node keep their order.
+ * A search relaxing the edges of a node then mostly reads nodes and edges stored nearby.
+ * @author Norbert Goebel
+ *
+ */
+public class HilbertOrdering {
+
+	//the bounds of the graph are divided into 2^ORDER x 2^ORDER cells
+	private static final int ORDER = 16;
+	private static final int CELLS = 1 << ORDER;
+
+	/**
+	 * Creates a copy of the graph with nodes in Hilbert curve order
+	 * @param graph
+	 * @return the reordered graph
+	 */
+	public static Graph reorder(Graph graph){
+		int nodeCount = graph.nodeCount();
+		int edgeCount = graph.edgeCount();
+
+		double minLon = Double.MAX_VALUE;
+		double maxLon = -Double.MAX_VALUE;
+		double minLat = Double.MAX_VALUE;
+		double maxLat = -Double.MAX_VALUE;
+		for (int node=0; node<nodeCount; node++){
+			minLon = Math.min(minLon, graph.getLongitude(node));
+			maxLon = Math.max(maxLon, graph.getLongitude(node));
+			minLat = Math.min(minLat, graph.getLatitude(node));
+			maxLat = Math.max(maxLat, graph.getLatitude(node));
+		}
+
+		//curve index and old index of each node in one key, nodes in the same cell keep their order
+		long[] keys = new long[nodeCount];
+		for (int node=0; node<nodeCount; node++){
+			int x = cell(graph.getLongitude(node), minLon, maxLon);
+			int y = cell(graph.getLatitude(node), minLat, maxLat);
+			keys[node] = (curveIndex(x, y) << 31) | node;
+		}
+		Arrays.sort(keys);
+
+		GraphBuilder builder = new GraphBuilder(nodeCount, edgeCount);
+		int[] newIndices = new int[nodeCount];
+		for (int index=0; index<nodeCount; index++){
+			int node = (int) (keys[index] & Integer.MAX_VALUE);
+			newIndices[node] = index;
+			builder.addNode(index, graph.getNodeId(node), graph.getLongitude(node), graph.getLatitude(node));
+		}
+
+		//edges get their index in the order of their new start nodes, reverse edges keep sharing the between nodes
+		int[] newEdges = new int[edgeCount];
+		Arrays.fill(newEdges, -1);
+		int edgeNumber = 0;
+		for (int index=0; index<nodeCount; index++){
+			int node = (int) (keys[index] & Integer.MAX_VALUE);
+			for (int position=graph.getFirstEdge(node); position<graph.getFirstEdge(node + 1); position++){
+				int reverse = graph.getReversePosition(position, node);
+				newEdges[position] = edgeNumber++;
+				if (reverse >= 0 && newEdges[reverse] >= 0)
+					builder.addReverseEdge(newEdges[position], newEdges[reverse]);
+				else
+					builder.addEdge(index, newEdges[position], graph, position, newIndices[graph.getEdgeTarget(position)]);
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @param value
+	 * @param min
+	 * @param max
+	 * @return cell of the value, 0 .. CELLS-1
+	 */
+	private static int cell(double value, double min, double max){
+		if (max <= min)
+			return 0;
+		return (int) Math.min(CELLS - 1, (value - min) / (max - min) * CELLS);
+	}
+
+	/**
+	 * @param x
+	 * @param y
+	 * @return position of the cell on the Hilbert curve, 0 .. CELLS*CELLS-1
+	 */
+	private static long curveIndex(int x, int y){
+		long index = 0;
+		for (int s=CELLS/2; s>0; s/=2){
+			int rx = ((x & s) != 0) ? 1 : 0;
+			int ry = ((y & s) != 0) ? 1 : 0;
+			index += (long) s * s * ((3 * rx) ^ ry);
+			//rotate the quadrant, so the curve continues at the end of the last one
+			if (ry == 0){
+				if (rx == 1){
+					x = CELLS - 1 - x;
+					y = CELLS - 1 - y;
+				}
+				int swap = x;
+				x = y;
+				y = swap;
+			}
+		}
+		return index;
+	}
+}
@@ -0,0 +1,483 @@
+package graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a routing.graph.small or routing.graph.large file without copying it to the heap.
+ * The file is memory mapped, nodes, edges and between nodes are read from the mapped buffer
+ * when they are asked for. Nodes, edges and street names have variable length, so the offset
+ * of each of them is indexed once while loading, this is the only data kept on the heap.
+ * Files with and without name table can be read, they must be smaller than 2 GB.
+ * A routing.graph.small file can be read with its geometry file, the between nodes are then
+ * read from the mapped geometry file, which has fixed size records and needs no index.
+ * @author Norbert Goebel
+ *
+ */
+public class MappedGraph {
+
+	//bytes of the fixed parts
+	private static final int HEADER_SIZE = 44; //format, node count, edge count, 4 bounds
+	private static final int NODE_SIZE = 28; //id, longitude, latitude, number of edges
+	private static final int EDGE_ATTRIBUTES_SIZE = 24; //id, max speed, car permission, lanes, highway type
+	private static final int BETWEEN_SIZE = 28; //id, longitude, latitude, distance
+	private static final int GEOMETRY_HEADER_SIZE = 8; //format, edge count
+
+	private MappedByteBuffer buffer;
+	private MappedByteBuffer geometry; //null without geometry file
+	private int geometryStart; //offset of the first between node in the geometry file
+	private boolean large;
+	private boolean nameTable;
+	private int nodeCount;
+	private int edgeCount;
+
+	//offsets of the nodes, edges and names in the file
+	private int[] nodeOffsets;
+	private int[] edgeOffsets;
+	private int[] nameOffsets;
+
+	/**
+	 * Maps the file and indexes its nodes and edges
+	 * @param file
+	 * @throws IOException if the file can't be read or is no routing graph
+	 */
+	public MappedGraph(File file) throws IOException {
+		this(file, null);
+	}
+
+	/**
+	 * Maps the routing.graph.small file and its geometry file and indexes the nodes and edges
+	 * @param file
+	 * @param geometryFile null to read the file alone
+	 * @throws IOException if the files can't be read or don't belong together
+	 */
+	public MappedGraph(File file, File geometryFile) throws IOException {
+		buffer = map(file);
+		try {
+			index();
+		} catch (IndexOutOfBoundsException e) {
+			throw new IOException("Truncated graph file: " + file, e);
+		}
+
+		if (geometryFile != null){
+			if (large)
+				throw new IOException("A large graph file has no geometry file");
+			geometry = map(geometryFile);
+			geometryStart = GEOMETRY_HEADER_SIZE + 4 * (edgeCount + 1);
+			if (geometry.limit() < geometryStart || geometry.getInt(0) != Graph.GEOMETRY || geometry.getInt(4) != edgeCount)
+				throw new IOException("Geometry file does not belong to the graph: " + geometryFile);
+			if (geometry.limit() != geometryStart + (long) BETWEEN_SIZE * geometry.getInt(geometryStart - 4))
+				throw new IOException("Truncated geometry file: " + geometryFile);
+		}
+	}
+
+	/**
+	 * @param file
+	 * @return the file mapped read only
+	 * @throws IOException
+	 */
+	private static MappedByteBuffer map(File file) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException("Graph file larger than 2 GB: " + file);
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			//the mapping stays valid
+			channel.close();
+		}
+	}
+
+	/**
+	 * reads the header and finds the offsets of all names, nodes and edges
+	 * @throws IOException if the format is unknown or a count is invalid
+	 */
+	private void index() throws IOException {
+		int format = buffer.getInt(0);
+		if (format < 0 || format > (1 | Graph.NAME_TABLE))
+			throw new IOException("Unknown graph format " + format);
+		large = (format & 1) != 0;
+		nameTable = (format & Graph.NAME_TABLE) != 0;
+		nodeCount = readCount(4, NODE_SIZE);
+		edgeCount = readCount(8, EDGE_ATTRIBUTES_SIZE);
+		int offset = HEADER_SIZE;
+
+		if (nameTable){
+			nameOffsets = new int[readCount(offset, 2)];
+			offset += 4;
+			for (int name=0; name<nameOffsets.length; name++){
+				nameOffsets[name] = offset;
+				offset += 2 + utfLength(offset);
+			}
+		}
+
+		nodeOffsets = new int[nodeCount];
+		for (int node=0; node<nodeCount; node++){
+			nodeOffsets[node] = offset;
+			offset += NODE_SIZE + 4 * readCount(offset + NODE_SIZE - 4, 4);
+		}
+
+		edgeOffsets = new int[edgeCount];
+		for (int edge=0; edge<edgeCount; edge++){
+			edgeOffsets[edge] = offset;
+			offset = targetOffset(edge) + 8;
+			if (large)
+				offset += 4 + BETWEEN_SIZE * readCount(offset, BETWEEN_SIZE);
+		}
+		if (offset != buffer.limit())
+			throw new IOException("Unexpected data behind the last edge");
+	}
+
+	/**
+	 * @param offset position of a count in the file
+	 * @param size bytes each counted entry needs at least
+	 * @return the count
+	 * @throws IOException if the count is negative or its entries don't fit into the file
+	 */
+	private int readCount(int offset, int size) throws IOException {
+		int count = buffer.getInt(offset);
+		if (count < 0 || (long) count * size > buffer.limit() - offset - 4)
+			throw new IOException("Invalid count " + count + " at offset " + offset);
+		return count;
+	}
+
+	/**
+	 * @return true for a routing.graph.large file with between nodes
+	 */
+	public boolean isLarge(){
+		return large;
+	}
+
+	/**
+	 * @return true if the between nodes are read from a geometry file
+	 */
+	public boolean hasGeometryFile(){
+		return geometry != null;
+	}
+
+	/**
+	 * @return true if the file has a name table
+	 */
+	public boolean hasNameTable(){
+		return nameTable;
+	}
+
+	/**
+	 * @return the number of nodes
+	 */
+	public int nodeCount(){
+		return nodeCount;
+	}
+
+	/**
+	 * @return the number of directed edges
+	 */
+	public int edgeCount(){
+		return edgeCount;
+	}
+
+	/**
+	 * @return the minimal latitude of the graph
+	 */
+	public double getMinLat(){
+		return buffer.getDouble(12);
+	}
+
+	/**
+	 * @return the maximal latitude of the graph
+	 */
+	public double getMaxLat(){
+		return buffer.getDouble(20);
+	}
+
+	/**
+	 * @return the minimal longitude of the graph
+	 */
+	public double getMinLon(){
+		return buffer.getDouble(28);
+	}
+
+	/**
+	 * @return the maximal longitude of the graph
+	 */
+	public double getMaxLon(){
+		return buffer.getDouble(36);
+	}
+
+	/**
+	 * @param node
+	 * @return the OSM id of the node
+	 */
+	public long getNodeId(int node){
+		return buffer.getLong(nodeOffsets[node]);
+	}
+
+	/**
+	 * @param node
+	 * @return the longitude of the node
+	 */
+	public double getLongitude(int node){
+		return buffer.getDouble(nodeOffsets[node] + 8);
+	}
+
+	/**
+	 * @param node
+	 * @return the latitude of the node
+	 */
+	public double getLatitude(int node){
+		return buffer.getDouble(nodeOffsets[node] + 16);
+	}
+
+	/**
+	 * @param node
+	 * @return the number of edges starting at the node
+	 */
+	public int getEdgeCount(int node){
+		return buffer.getInt(nodeOffsets[node] + 24);
+	}
+
+	/**
+	 * @param node
+	 * @param i
+	 * @return the index of the i-th edge starting at the node
+	 */
+	public int getEdge(int node, int i){
+		return buffer.getInt(nodeOffsets[node] + NODE_SIZE + 4 * i);
+	}
+
+	/**
+	 * @param edge
+	 * @return the OSM id of the way of the edge
+	 */
+	public long getEdgeId(int edge){
+		return buffer.getLong(edgeOffsets[edge]);
+	}
+
+	/**
+	 * @param edge
+	 * @return the max speed of the edge
+	 */
+	public int getMaxSpeed(int edge){
+		return buffer.getInt(edgeOffsets[edge] + 8);
+	}
+
+	/**
+	 * @param edge
+	 * @return the car permission of the edge, 0 = notallowed, 1 = restricted, 2 = allowed
+	 */
+	public int getCarPermission(int edge){
+		return buffer.getInt(edgeOffsets[edge] + 12);
+	}
+
+	/**
+	 * @param edge
+	 * @return the number of lanes of the edge
+	 */
+	public int getLanes(int edge){
+		return buffer.getInt(edgeOffsets[edge] + 16);
+	}
+
+	/**
+	 * @param edge
+	 * @return the highway type of the edge
+	 */
+	public int getHighwayType(int edge){
+		return buffer.getInt(edgeOffsets[edge] + 20);
+	}
+
+	/**
+	 * @param edge
+	 * @return the street name of the edge, decoded on every call
+	 */
+	public String getName(int edge){
+		int offset = edgeOffsets[edge] + EDGE_ATTRIBUTES_SIZE;
+		return readUTF(nameTable ? nameOffsets[buffer.getInt(offset)] : offset);
+	}
+
+	/**
+	 * @param edge
+	 * @return the index of the street name in the name table
+	 * @throws IllegalStateException if the file has no name table
+	 */
+	public int getNameIndex(int edge){
+		if (!nameTable)
+			throw new IllegalStateException("Graph file without name table");
+		return buffer.getInt(edgeOffsets[edge] + EDGE_ATTRIBUTES_SIZE);
+	}
+
+	/**
+	 * @return the number of names in the name table, 0 if the file has none
+	 */
+	public int nameCount(){
+		return nameTable ? nameOffsets.length : 0;
+	}
+
+	/**
+	 * @param index
+	 * @return the street name at index of the name table
+	 */
+	public String getNameAt(int index){
+		return readUTF(nameOffsets[index]);
+	}
+
+	/**
+	 * @param edge
+	 * @return the index of the target node of the edge
+	 */
+	public int getEdgeTarget(int edge){
+		return buffer.getInt(targetOffset(edge));
+	}
+
+	/**
+	 * @param edge
+	 * @return the length of the edge in meters
+	 */
+	public int getEdgeLength(int edge){
+		return buffer.getInt(targetOffset(edge) + 4);
+	}
+
+	/**
+	 * @param edge
+	 * @return the number of between nodes of the edge, 0 for small files without geometry file
+	 */
+	public int getBetweenCount(int edge){
+		if (geometry != null)
+			return geometry.getInt(GEOMETRY_HEADER_SIZE + 4 * (edge + 1)) - geometry.getInt(GEOMETRY_HEADER_SIZE + 4 * edge);
+		return large ? buffer.getInt(targetOffset(edge) + 8) : 0;
+	}
+
+	/**
+	 * @param edge
+	 * @param k
+	 * @return the OSM id of the k-th between node of the edge
+	 */
+	public long getBetweenId(int edge, int k){
+		return betweens().getLong(betweenOffset(edge, k));
+	}
+
+	/**
+	 * @param edge
+	 * @param k
+	 * @return the longitude of the k-th between node of the edge
+	 */
+	public double getBetweenLongitude(int edge, int k){
+		return betweens().getDouble(betweenOffset(edge, k) + 8);
+	}
+
+	/**
+	 * @param edge
+	 * @param k
+	 * @return the latitude of the k-th between node of the edge
+	 */
+	public double getBetweenLatitude(int edge, int k){
+		return betweens().getDouble(betweenOffset(edge, k) + 16);
+	}
+
+	/**
+	 * @param edge
+	 * @param k
+	 * @return the distance of the k-th between node from the start of the edge
+	 */
+	public int getBetweenDistance(int edge, int k){
+		return betweens().getInt(betweenOffset(edge, k) + 24);
+	}
+
+	/**
+	 * Creates a Node object out of the mapped data
+	 * @param node
+	 * @return the node
+	 */
+	public Node getNode(int node){
+		Node result = new Node(getNodeId(node), getLongitude(node), getLatitude(node));
+		for (int i=0; i<getEdgeCount(node); i++)
+			result.addEdge(getEdge(node, i));
+		return result;
+	}
+
+	/**
+	 * Creates an Edge object out of the mapped data
+	 * @param edge
+	 * @return the edge
+	 */
+	public Edge getEdge(int edge){
+		int count = getBetweenCount(edge);
+		int[] betweenDist = new int[count];
+		double[] betweenLon = new double[count];
+		double[] betweenLat = new double[count];
+		long[] betweenId = new long[count];
+		for (int k=0; k<count; k++){
+			betweenDist[k] = getBetweenDistance(edge, k);
+			betweenLon[k] = getBetweenLongitude(edge, k);
+			betweenLat[k] = getBetweenLatitude(edge, k);
+			betweenId[k] = getBetweenId(edge, k);
+		}
+		return new Edge(getEdgeId(edge), getMaxSpeed(edge), getCarPermission(edge), getLanes(edge),
+				getHighwayType(edge), getName(edge), getEdgeTarget(edge), getEdgeLength(edge),
+				betweenDist, betweenLon, betweenLat, betweenId);
+	}
+
+	/**
+	 * @param edge
+	 * @return offset of the target node of the edge, it follows the name or name index
+	 */
+	private int targetOffset(int edge){
+		int offset = edgeOffsets[edge] + EDGE_ATTRIBUTES_SIZE;
+		return offset + (nameTable ? 4 : 2 + utfLength(offset));
+	}
+
+	/**
+	 * @return the buffer with the between nodes
+	 */
+	private MappedByteBuffer betweens(){
+		return (geometry != null) ? geometry : buffer;
+	}
+
+	/**
+	 * @param edge
+	 * @param k
+	 * @return offset of the k-th between node of the edge in betweens()
+	 */
+	private int betweenOffset(int edge, int k){
+		if (geometry != null)
+			return geometryStart + BETWEEN_SIZE * (geometry.getInt(GEOMETRY_HEADER_SIZE + 4 * edge) + k);
+		return targetOffset(edge) + 12 + BETWEEN_SIZE * k;
+	}
+
+	/**
+	 * @param offset
+	 * @return number of bytes of the string written by writeUTF at offset
+	 */
+	private int utfLength(int offset){
+		return buffer.getShort(offset) & 0xFFFF;
+	}
+
+	/**
+	 * Decodes a string written by writeUTF
+	 * @param offset
+	 * @return the string
+	 */
+	private String readUTF(int offset){
+		int end = offset + 2 + utfLength(offset);
+		char[] chars = new char[end - offset - 2];
+		int count = 0;
+		for (int i=offset+2; i<end; ){
+			int c = buffer.get(i) & 0xFF;
+			if (c < 0x80){
+				chars[count++] = (char) c;
+				i++;
+			}
+			else if ((c & 0xE0) == 0xC0){
+				chars[count++] = (char) (((c & 0x1F) << 6) | (buffer.get(i + 1) & 0x3F));
+				i += 2;
+			}
+			else {
+				chars[count++] = (char) (((c & 0x0F) << 12) | ((buffer.get(i + 1) & 0x3F) << 6) | (buffer.get(i + 2) & 0x3F));
+				i += 3;
+			}
+		}
+		return new String(chars, 0, count);
+	}
+}
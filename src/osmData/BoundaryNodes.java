@@ -0,0 +1,187 @@
+package osmData;
+
+import java.util.BitSet;
+
+import tools.IntSet;
+import tools.LongIntMap;
+
+/**
+ * The nodes of a boundary as a view of the NodeStore shared by all boundaries.
+ * Only the membership of the nodes is stored per boundary: as hash set of the dense
+ * node indices while the boundary holds few of the nodes, as bit set over the dense
+ * indices once that is smaller.
+ *
+ * The inner/outer node counters of the node store count every way as if it was
+ * not clipped. Boundaries clipping a way store the difference to their own counts,
+ * so only nodes of clipped ways need counters per boundary.
+ * @author Norbert Goebel
+ *
+ */
+public class BoundaryNodes {
+
+	//a hash set needs about 7 bytes per member, a bit set 1 bit per node of the node store.
+	//OSM files are sorted by id, not by location, so the share of the nodes a boundary
+	//holds hardly changes while reading and the decision can be made early
+	private static final int BITS_PER_MEMBER = 56;
+	private static final int MIN_BIT_SET_MEMBERS = 1024;
+
+	private NodeStore nodes;
+
+	//membership
+	private IntSet sparseMembers = new IntSet();
+	private BitSet members = null;
+	private int size = 0;
+
+	//counter differences caused by clipped ways, created when needed
+	private LongIntMap outerNodeCountDeltas = null;
+	private LongIntMap innerNodeCountDeltas = null;
+
+	/**
+	 * creates an empty view on the node store
+	 * @param nodes shared node store
+	 */
+	public BoundaryNodes(NodeStore nodes){
+		this.nodes = nodes;
+	}
+
+	/**
+	 * @return the shared node store
+	 */
+	public NodeStore getNodeStore(){
+		return nodes;
+	}
+
+	/**
+	 * adds a node of the node store to this boundary, its counters are reset
+	 * @param index index in the node store
+	 */
+	public void add(int index){
+		if (members != null){
+			if (!members.get(index)){
+				members.set(index);
+				size++;
+			}
+		}
+		else if (sparseMembers.add(index)){
+			size++;
+			//switch to a bit set if it is smaller
+			if (size >= MIN_BIT_SET_MEMBERS && (long) size * BITS_PER_MEMBER > nodes.size())
+				switchToBitSet();
+		}
+
+		if (outerNodeCountDeltas != null && outerNodeCountDeltas.get(index, 0) != 0)
+			outerNodeCountDeltas.put(index, 0);
+		if (innerNodeCountDeltas != null && innerNodeCountDeltas.get(index, 0) != 0)
+			innerNodeCountDeltas.put(index, 0);
+	}
+
+	/**
+	 * @param index index in the node store
+	 * @return true if the node belongs to this boundary
+	 */
+	public boolean contains(int index){
+		if (index < 0)
+			return false;
+		return (members != null) ? members.get(index) : sparseMembers.contains(index);
+	}
+
+	/**
+	 * Looks up the index of a node
+	 * @param id
+	 * @return index of the node in the node store or -1 if the node does not belong to this boundary
+	 */
+	public int indexOf(long id){
+		int index = nodes.indexOf(id);
+		return contains(index) ? index : -1;
+	}
+
+	/**
+	 * checks if a node belongs to this boundary
+	 * @param id
+	 * @return boolean
+	 */
+	public boolean containsKey(long id){
+		return indexOf(id) >= 0;
+	}
+
+	/**
+	 * @return number of nodes of this boundary
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * @param index as returned by indexOf
+	 * @return the OSM id
+	 */
+	public long getId(int index){
+		return nodes.getId(index);
+	}
+
+	/**
+	 * @param index as returned by indexOf
+	 * @return the longitude
+	 */
+	public double getLongitude(int index){
+		return nodes.getLongitude(index);
+	}
+
+	/**
+	 * @param index as returned by indexOf
+	 * @return the latitude
+	 */
+	public double getLatitude(int index){
+		return nodes.getLatitude(index);
+	}
+
+	/**
+	 * @param index as returned by indexOf
+	 * @return the outerNodeCount of the node in this boundary
+	 */
+	public int getOuterNodeCount(int index){
+		int delta = (outerNodeCountDeltas == null) ? 0 : outerNodeCountDeltas.get(index, 0);
+		return nodes.getOuterNodeCount(index) + delta;
+	}
+
+	/**
+	 * @param index as returned by indexOf
+	 * @return the innerNodeCount of the node in this boundary
+	 */
+	public int getInnerNodeCount(int index){
+		int delta = (innerNodeCountDeltas == null) ? 0 : innerNodeCountDeltas.get(index, 0);
+		return nodes.getInnerNodeCount(index) + delta;
+	}
+
+	/**
+	 * changes the outerNodeCount of a node in this boundary only
+	 * @param index
+	 * @param delta
+	 */
+	public void addOuterNodeCount(int index, int delta){
+		if (outerNodeCountDeltas == null)
+			outerNodeCountDeltas = new LongIntMap();
+		outerNodeCountDeltas.put(index, outerNodeCountDeltas.get(index, 0) + delta);
+	}
+
+	/**
+	 * changes the innerNodeCount of a node in this boundary only
+	 * @param index
+	 * @param delta
+	 */
+	public void addInnerNodeCount(int index, int delta){
+		if (innerNodeCountDeltas == null)
+			innerNodeCountDeltas = new LongIntMap();
+		innerNodeCountDeltas.put(index, innerNodeCountDeltas.get(index, 0) + delta);
+	}
+
+	/**
+	 * moves the members from the hash set to a bit set
+	 */
+	private void switchToBitSet(){
+		members = new BitSet(nodes.size());
+		for (int index : sparseMembers.toArray())
+			members.set(index);
+		sparseMembers = null;
+	}
+}
@@ -0,0 +1,209 @@
+package osmData;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import tools.LongIntMap;
+
+/**
+ * Disk backed storage for node coordinates of country or planet sized OSM files.
+ * The coordinates are stored in a memory mapped file as a dense array indexed by
+ * the OSM node id, each entry holds latitude and longitude as 1e-7 fixed point ints.
+ * As OSM files are sorted by id, nodes are written sequentially into the page cache.
+ *
+ * The file grows sparse, only pages with node entries take disk space. Nodes with
+ * negative ids (e.g. unsaved JOSM data) have no place in the file, they are kept on the heap.
+ * @author Norbert Goebel
+ *
+ */
+public class MappedNodeLocations {
+
+	//OSM coordinates have 7 decimal places
+	public static final double FIXED_POINT_FACTOR = 1e7;
+
+	//stored latitudes are shifted, so an unwritten (zero) entry marks a missing node
+	private static final int LAT_SHIFT = 1000000000;
+
+	//every entry needs 4 bytes latitude and 4 bytes longitude
+	private static final int ENTRY_SIZE = 8;
+
+	//each mapped segment holds 2^27 entries (1 GB)
+	private static final int SEGMENT_BITS = 27;
+	private static final long SEGMENT_ENTRIES = 1L << SEGMENT_BITS;
+	private static final long SEGMENT_MASK = SEGMENT_ENTRIES - 1;
+
+	private File file;
+	private RandomAccessFile randomAccessFile;
+	private FileChannel channel;
+	private MappedByteBuffer[] segments = new MappedByteBuffer[16];
+
+	//nodes with negative ids, latitude and longitude at two times their index
+	private LongIntMap negativeIndices = new LongIntMap(16);
+	private int[] negativeEntries = new int[32];
+
+	/**
+	 * creates a new empty node location file, an existing file will be overwritten
+	 * @param file
+	 * @throws IOException
+	 */
+	public MappedNodeLocations(File file) throws IOException {
+		this.file = file;
+		randomAccessFile = new RandomAccessFile(file, "rw");
+		randomAccessFile.setLength(0);
+		channel = randomAccessFile.getChannel();
+	}
+
+	/**
+	 * stores the coordinates of a node
+	 * @param id
+	 * @param longitude
+	 * @param latitude
+	 * @throws IOException if the file can't grow
+	 */
+	public void put(long id, double longitude, double latitude) throws IOException {
+		if (id < 0){
+			putNegative(id, longitude, latitude);
+			return;
+		}
+		MappedByteBuffer segment = writeSegment(id);
+		int offset = offset(id);
+		segment.putInt(offset, (int) Math.round(latitude * FIXED_POINT_FACTOR) + LAT_SHIFT);
+		segment.putInt(offset + 4, (int) Math.round(longitude * FIXED_POINT_FACTOR));
+	}
+
+	/**
+	 * checks if coordinates of a node are stored
+	 * @param id
+	 * @return boolean
+	 */
+	public boolean contains(long id){
+		if (id < 0)
+			return negativeIndices.get(id, -1) >= 0;
+		MappedByteBuffer segment = readSegment(id);
+		return segment != null && segment.getInt(offset(id)) != 0;
+	}
+
+	/**
+	 * @param id of a stored node
+	 * @return the longitude
+	 */
+	public double getLongitude(long id){
+		if (id < 0)
+			return negativeEntries[negativeEntry(id) + 1] / FIXED_POINT_FACTOR;
+		return storedSegment(id).getInt(offset(id) + 4) / FIXED_POINT_FACTOR;
+	}
+
+	/**
+	 * @param id of a stored node
+	 * @return the latitude
+	 */
+	public double getLatitude(long id){
+		if (id < 0)
+			return negativeEntries[negativeEntry(id)] / FIXED_POINT_FACTOR;
+		return (storedSegment(id).getInt(offset(id)) - LAT_SHIFT) / FIXED_POINT_FACTOR;
+	}
+
+	/**
+	 * @return the file the coordinates are mapped to
+	 */
+	public File getFile(){
+		return file;
+	}
+
+	/**
+	 * releases the file and deletes it, the coordinates are not needed after graph building
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		//a mapping is released when its buffer is garbage collected,
+		//some platforms (Windows) can't delete a file that is still mapped
+		segments = new MappedByteBuffer[0];
+		channel.close();
+		randomAccessFile.close();
+		if (!file.delete()){
+			System.gc();
+			if (!file.delete())
+				file.deleteOnExit();
+		}
+	}
+
+	/**
+	 * stores the coordinates of a node with negative id on the heap
+	 * @param id
+	 * @param longitude
+	 * @param latitude
+	 */
+	private void putNegative(long id, double longitude, double latitude){
+		int index = negativeIndices.get(id, -1);
+		if (index < 0){
+			index = negativeIndices.size();
+			negativeIndices.put(id, index);
+			if (2 * index + 1 >= negativeEntries.length)
+				negativeEntries = Arrays.copyOf(negativeEntries, negativeEntries.length * 2);
+		}
+		negativeEntries[2 * index] = (int) Math.round(latitude * FIXED_POINT_FACTOR);
+		negativeEntries[2 * index + 1] = (int) Math.round(longitude * FIXED_POINT_FACTOR);
+	}
+
+	/**
+	 * @param id negative id of a stored node
+	 * @return position of the latitude in negativeEntries
+	 * @throws IllegalArgumentException if the node is not stored
+	 */
+	private int negativeEntry(long id){
+		int index = negativeIndices.get(id, -1);
+		if (index < 0)
+			throw new IllegalArgumentException("Node "+id+" is not stored");
+		return 2 * index;
+	}
+
+	/**
+	 * @param id
+	 * @return byte offset of the node entry inside its segment
+	 */
+	private static int offset(long id){
+		return (int) (id & SEGMENT_MASK) * ENTRY_SIZE;
+	}
+
+	/**
+	 * @param id
+	 * @return segment of a node which must be stored
+	 * @throws IllegalArgumentException if there is no segment for this node
+	 */
+	private MappedByteBuffer storedSegment(long id){
+		MappedByteBuffer segment = readSegment(id);
+		if (segment == null)
+			throw new IllegalArgumentException("Node "+id+" is not stored");
+		return segment;
+	}
+
+	/**
+	 * @param id not negative
+	 * @return mapped segment of a node or null if it was never written
+	 */
+	private MappedByteBuffer readSegment(long id){
+		long segmentIndex = id >>> SEGMENT_BITS;
+		return (segmentIndex < segments.length) ? segments[(int) segmentIndex] : null;
+	}
+
+	/**
+	 * @param id not negative
+	 * @return the mapped segment of a node, a new segment is mapped if needed
+	 * @throws IOException
+	 */
+	private MappedByteBuffer writeSegment(long id) throws IOException {
+		int segmentIndex = (int) (id >>> SEGMENT_BITS);
+		if (segmentIndex >= segments.length)
+			segments = Arrays.copyOf(segments, Math.max(segmentIndex + 1, segments.length * 2));
+
+		if (segments[segmentIndex] == null)
+			segments[segmentIndex] = channel.map(FileChannel.MapMode.READ_WRITE,
+					segmentIndex * SEGMENT_ENTRIES * ENTRY_SIZE, SEGMENT_ENTRIES * ENTRY_SIZE);
+
+		return segments[segmentIndex];
+	}
+}
@@ -0,0 +1,228 @@
+package osmData;
+
+import java.util.Arrays;
+
+import tools.LongIntMap;
+
+/**
+ * Storage for OSM nodes, keyed by the primitive OSM node id.
+ * Every node gets a dense index in the order the nodes are stored, id, coordinates
+ * and inner/outer node counters are kept in parallel arrays at this index.
+ * A hash table with open addressing maps the ids to the indices, so there are no
+ * Long keys, OSMNode objects or hash entries per node and no synchronization.
+ * 
+ * One node store is shared by all boundaries, their BoundaryNodes refer to the dense indices.
+ * If the coordinates are kept in MappedNodeLocations, only ids and counters
+ * are stored on the heap.
+ * @author Norbert Goebel
+ *
+ */
+public class NodeStore {
+
+	private LongIntMap indices;
+	private long[] ids;
+	private double[] longitudes; //needs to be double to reflect osm data exactly
+	private double[] latitudes;
+	private MappedNodeLocations locations = null; //used instead of the coordinate arrays if set
+	private int[] outerNodeCounts;
+	private int[] innerNodeCounts;
+
+	private int size = 0;
+
+	/**
+	 * creates an empty node store
+	 */
+	public NodeStore(){
+		this(1024);
+	}
+
+	/**
+	 * creates an empty node store for about expectedSize nodes
+	 * @param expectedSize
+	 */
+	public NodeStore(int expectedSize){
+		allocate(Math.max(expectedSize, 16));
+	}
+	
+	/**
+	 * creates an empty node store which reads its coordinates out of a node location file
+	 * @param locations
+	 */
+	public NodeStore(MappedNodeLocations locations){
+		this.locations = locations;
+		allocate(1024);
+	}
+
+	/**
+	 * Stores a node, an already stored node keeps its index and gets the new coordinates and reset counters.
+	 * If a node location file is used, the coordinates must have been put there.
+	 * @param id
+	 * @param longitude
+	 * @param latitude
+	 * @return index of the node
+	 */
+	public int put(long id, double longitude, double latitude){
+		int index = indices.get(id, -1);
+		if (index < 0){
+			if (size == ids.length)
+				grow();
+			index = size++;
+			indices.put(id, index);
+		}
+
+		ids[index] = id;
+		if (locations == null){
+			longitudes[index] = longitude;
+			latitudes[index] = latitude;
+		}
+		outerNodeCounts[index] = 0;
+		innerNodeCounts[index] = 0;
+		return index;
+	}
+
+	/**
+	 * Looks up the index of a node, the index never changes
+	 * @param id
+	 * @return index of the node or -1 if the node is not stored
+	 */
+	public int indexOf(long id){
+		return indices.get(id, -1);
+	}
+
+	/**
+	 * checks if a node is stored
+	 * @param id
+	 * @return boolean
+	 */
+	public boolean containsKey(long id){
+		return indexOf(id) >= 0;
+	}
+
+	/**
+	 * @return number of stored nodes, the indices are 0 .. size-1
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * @param index as returned by indexOf
+	 * @return the OSM id
+	 */
+	public long getId(int index){
+		return ids[index];
+	}
+
+	/**
+	 * @param index as returned by indexOf
+	 * @return the longitude
+	 */
+	public double getLongitude(int index){
+		return (locations == null) ? longitudes[index] : locations.getLongitude(ids[index]);
+	}
+
+	/**
+	 * @param index as returned by indexOf
+	 * @return the latitude
+	 */
+	public double getLatitude(int index){
+		return (locations == null) ? latitudes[index] : locations.getLatitude(ids[index]);
+	}
+
+	/**
+	 * @param index as returned by indexOf
+	 * @return the outerNodeCount
+	 */
+	public int getOuterNodeCount(int index){
+		return outerNodeCounts[index];
+	}
+
+	/**
+	 * @param index as returned by indexOf
+	 * @return the innerNodeCount
+	 */
+	public int getInnerNodeCount(int index){
+		return innerNodeCounts[index];
+	}
+
+	/**
+	 * increases the outerNodeCount of a stored node
+	 * @param id
+	 */
+	public void increaseOuterNodeCount(long id){
+		outerNodeCounts[indexOfStored(id)]++;
+	}
+
+	/**
+	 * increases the innerNodeCount of a stored node
+	 * @param id
+	 */
+	public void increaseInnerNodeCount(long id){
+		innerNodeCounts[indexOfStored(id)]++;
+	}
+
+	/**
+	 * increases the outerNodeCount of the node at index
+	 * @param index
+	 */
+	public void increaseOuterNodeCountAt(int index){
+		outerNodeCounts[index]++;
+	}
+
+	/**
+	 * increases the innerNodeCount of the node at index
+	 * @param index
+	 */
+	public void increaseInnerNodeCountAt(int index){
+		innerNodeCounts[index]++;
+	}
+
+	/**
+	 * resets inner and outer node counters of all nodes
+	 */
+	public void resetCounters(){
+		Arrays.fill(outerNodeCounts, 0);
+		Arrays.fill(innerNodeCounts, 0);
+	}
+
+	/**
+	 * @param id
+	 * @return index of a node that must be stored
+	 * @throws IllegalArgumentException if the node is not stored
+	 */
+	private int indexOfStored(long id){
+		int index = indexOf(id);
+		if (index < 0)
+			throw new IllegalArgumentException("Node "+id+" is not stored");
+		return index;
+	}
+
+	/**
+	 * creates new empty arrays
+	 * @param capacity
+	 */
+	private void allocate(int capacity){
+		indices = new LongIntMap(capacity);
+		ids = new long[capacity];
+		if (locations == null){
+			longitudes = new double[capacity];
+			latitudes = new double[capacity];
+		}
+		outerNodeCounts = new int[capacity];
+		innerNodeCounts = new int[capacity];
+	}
+
+	/**
+	 * enlarges the arrays, the indices stay the same
+	 */
+	private void grow(){
+		int capacity = ids.length + (ids.length >> 1);
+		ids = Arrays.copyOf(ids, capacity);
+		if (locations == null){
+			longitudes = Arrays.copyOf(longitudes, capacity);
+			latitudes = Arrays.copyOf(latitudes, capacity);
+		}
+		outerNodeCounts = Arrays.copyOf(outerNodeCounts, capacity);
+		innerNodeCounts = Arrays.copyOf(innerNodeCounts, capacity);
+	}
+}
@@ -0,0 +1,19 @@
+package osmReader;
+
+/**
+ * Decides which nodes a reader passes to its OSMDataHandler.
+ * Readers decoding on several threads call the filter from all of them,
+ * so it must not change any data.
+ * @author Norbert Goebel
+ *
+ */
+public interface NodeFilter {
+
+	/**
+	 * @param id
+	 * @param longitude
+	 * @param latitude
+	 * @return true if the node is needed
+	 */
+	public boolean accept(long id, double longitude, double latitude);
+}
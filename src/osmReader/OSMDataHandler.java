@@ -0,0 +1,58 @@
+package osmReader;
+
+/**
+ * Receives the OSM data a reader decodes, in file order.
+ * Nodes come before ways, tags of a way are passed between way() and wayEnd().
+ * @author Norbert Goebel
+ *
+ */
+public interface OSMDataHandler {
+
+	/**
+	 * general info of the OSM file
+	 * @param version
+	 * @param generator
+	 */
+	public void osmInfo(String version, String generator);
+
+	/**
+	 * bounds of the OSM file
+	 * @param minLat
+	 * @param minLon
+	 * @param maxLat
+	 * @param maxLon
+	 */
+	public void bounds(double minLat, double minLon, double maxLat, double maxLon);
+
+	/**
+	 * an OSM node
+	 * @param id
+	 * @param longitude
+	 * @param latitude
+	 */
+	public void node(long id, double longitude, double latitude);
+
+	/**
+	 * start of an OSM way
+	 * @param id
+	 */
+	public void way(long id);
+
+	/**
+	 * node reference of the current way
+	 * @param nodeID
+	 */
+	public void wayNode(long nodeID);
+
+	/**
+	 * tag of the current way
+	 * @param key
+	 * @param value
+	 */
+	public void tag(String key, String value);
+
+	/**
+	 * end of the current way
+	 */
+	public void wayEnd();
+}
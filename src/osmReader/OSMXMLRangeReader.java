@@ -0,0 +1,299 @@
+package osmReader;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads the nodes of an uncompressed OSM XML file in byte ranges on several threads.
+ * The file is split at node, way or relation elements, each range is scanned by an
+ * OSMXMLScanner of a thread pool and only the nodes accepted by the filter are kept.
+ * The calling thread delivers the ranges in file order, so the handler gets the same
+ * sequence of nodes as in sequential reading. The ways are read afterwards by the
+ * calling thread, starting at the first way.
+ * @author Norbert Goebel
+ *
+ */
+public class OSMXMLRangeReader {
+
+	//bytes per range, the ends of the ranges are moved to the next element
+	private static final int RANGE_SIZE = 8 << 20;
+
+	//scanned ranges waiting to be delivered per thread, limits the memory used for read ahead
+	private static final int RANGES_PER_THREAD = 2;
+
+	//bytes read at once while searching the start of a range
+	private static final int SEARCH_SIZE = 1 << 16;
+
+	//elements a range may start with, followed by whitespace, '/' or '>'
+	private static final byte[][] RANGE_ELEMENTS = {bytes("<node"), bytes("<way"), bytes("<relation")};
+	private static final int MAX_ELEMENT_LENGTH = 10;
+
+	private File file;
+	private OSMDataHandler handler;
+	private NodeFilter filter;
+	private int threads;
+
+	/**
+	 * creates a reader for an uncompressed OSM XML file
+	 * @param file
+	 * @param handler
+	 * @param filter nodes not accepted are dropped by the scanning threads, null keeps all nodes
+	 * @param threads number of threads scanning ranges
+	 */
+	public OSMXMLRangeReader(File file, OSMDataHandler handler, NodeFilter filter, int threads){
+		this.file = file;
+		this.handler = handler;
+		this.filter = filter;
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * reads the file up to the end or the first relation
+	 * @throws IOException if the file is no valid OSM XML file
+	 */
+	public void read() throws IOException {
+		long waysStart = readNodes();
+		if (waysStart < 0)
+			return;
+
+		FileInputStream input = new FileInputStream(file);
+		try {
+			input.getChannel().position(waysStart);
+			new OSMXMLScanner(new BufferedInputStream(input, 1 << 16), handler).read();
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * ranges are scanned by a thread pool and delivered in file order until
+	 * a range reaches the ways
+	 * @return position of the first way or relation, -1 if the file has none
+	 * @throws IOException
+	 */
+	private long readNodes() throws IOException {
+		ExecutorService scanners = Executors.newFixedThreadPool(threads);
+		ArrayDeque<Future<NodeRange>> pending = new ArrayDeque<Future<NodeRange>>();
+		long length = file.length();
+		long next = 0;
+		try {
+			while (true){
+				while (next < length && pending.size() < threads * RANGES_PER_THREAD){
+					final long from = next;
+					final long to = Math.min(length, next + RANGE_SIZE);
+					pending.add(scanners.submit(new Callable<NodeRange>() {
+						public NodeRange call() throws IOException {
+							return scan(from, to);
+						}
+					}));
+					next = to;
+				}
+				if (pending.isEmpty())
+					return -1;
+
+				NodeRange range = waitFor(pending.poll());
+				range.deliver(handler);
+				//ranges behind the first way are not needed
+				if (range.waysStart >= 0)
+					return range.waysStart;
+			}
+		} finally {
+			scanners.shutdownNow();
+		}
+	}
+
+	/**
+	 * scans the range starting at the first element behind from up to the first element behind to
+	 * @param from
+	 * @param to
+	 * @return nodes of the range
+	 * @throws IOException
+	 */
+	private NodeRange scan(long from, long to) throws IOException {
+		NodeRange range = new NodeRange(filter);
+		byte[] data;
+		long start;
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			start = rangeStart(input, from);
+			long end = rangeStart(input, to);
+			if (start >= end)
+				return range;
+			data = new byte[(int) (end - start)];
+			input.seek(start);
+			input.readFully(data);
+		} finally {
+			input.close();
+		}
+
+		long waysStart = new OSMXMLScanner(new ByteArrayInputStream(data), range).readNodes();
+		if (waysStart >= 0)
+			range.waysStart = start + waysStart;
+		return range;
+	}
+
+	/**
+	 * Finds the first node, way or relation element at or behind position.
+	 * Attribute values can't contain '<', so the element found really starts there.
+	 * @param input
+	 * @param position
+	 * @return position of the element or the length of the file if there is none
+	 * @throws IOException
+	 */
+	private static long rangeStart(RandomAccessFile input, long position) throws IOException {
+		if (position == 0)
+			return 0;
+		long length = input.length();
+		byte[] data = new byte[SEARCH_SIZE];
+		while (position < length){
+			int count = (int) Math.min(data.length, length - position);
+			input.seek(position);
+			input.readFully(data, 0, count);
+
+			//elements at the end of the data are searched again with the next part
+			int searchEnd = (position + count == length) ? count : count - MAX_ELEMENT_LENGTH;
+			for (int i=0; i<searchEnd; i++){
+				if (data[i] == '<' && isRangeElement(data, i, count))
+					return position + i;
+			}
+			position += searchEnd;
+		}
+		return length;
+	}
+
+	/**
+	 * @param data
+	 * @param start position of '<'
+	 * @param count number of valid bytes in data
+	 * @return true if a node, way or relation element starts at start
+	 */
+	private static boolean isRangeElement(byte[] data, int start, int count){
+		elements:
+		for (byte[] element : RANGE_ELEMENTS){
+			int end = start + element.length;
+			if (end >= count)
+				continue;
+			for (int i=1; i<element.length; i++){
+				if (data[start + i] != element[i])
+					continue elements;
+			}
+			byte next = data[end];
+			if (next == ' ' || next == '\t' || next == '\n' || next == '\r' || next == '/' || next == '>')
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * waits until a range is scanned
+	 * @param range
+	 * @return scanned range
+	 * @throws IOException if the range could not be scanned
+	 */
+	private static NodeRange waitFor(Future<NodeRange> range) throws IOException {
+		try {
+			return range.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			if (e.getCause() instanceof NumberFormatException)
+				throw (NumberFormatException) e.getCause();
+			throw new IOException("Error scanning XML file", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while scanning XML file", e);
+		}
+	}
+
+	/**
+	 * @param string
+	 * @return ASCII bytes of string
+	 */
+	private static byte[] bytes(String string){
+		return string.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * collects the nodes of a range and the osm and bounds elements in front of the first node
+	 */
+	private static class NodeRange implements OSMDataHandler {
+		private NodeFilter filter;
+
+		private String version = null;
+		private String generator = null;
+		private double[] bounds = null;
+
+		private long[] ids = new long[1024];
+		private double[] longitudes = new double[1024];
+		private double[] latitudes = new double[1024];
+		private int size = 0;
+
+		//position of the first way or relation in the file, -1 if the range has none
+		private long waysStart = -1;
+
+		NodeRange(NodeFilter filter){
+			this.filter = filter;
+		}
+
+		/**
+		 * passes the collected data to the handler
+		 * @param handler
+		 */
+		void deliver(OSMDataHandler handler){
+			if (version != null)
+				handler.osmInfo(version, generator);
+			if (bounds != null)
+				handler.bounds(bounds[0], bounds[1], bounds[2], bounds[3]);
+			for (int i=0; i<size; i++)
+				handler.node(ids[i], longitudes[i], latitudes[i]);
+		}
+
+		public void osmInfo(String version, String generator){
+			this.version = version;
+			this.generator = generator;
+		}
+
+		public void bounds(double minLat, double minLon, double maxLat, double maxLon){
+			bounds = new double[] {minLat, minLon, maxLat, maxLon};
+		}
+
+		public void node(long id, double longitude, double latitude){
+			if (filter != null && !filter.accept(id, longitude, latitude))
+				return;
+			if (size == ids.length){
+				ids = Arrays.copyOf(ids, size * 2);
+				longitudes = Arrays.copyOf(longitudes, size * 2);
+				latitudes = Arrays.copyOf(latitudes, size * 2);
+			}
+			ids[size] = id;
+			longitudes[size] = longitude;
+			latitudes[size] = latitude;
+			size++;
+		}
+
+		//ways are read by the calling thread
+		public void way(long id){
+		}
+
+		public void wayNode(long nodeID){
+		}
+
+		public void tag(String key, String value){
+		}
+
+		public void wayEnd(){
+		}
+	}
+}
@@ -0,0 +1,548 @@
+package osmReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Scanner for OSM XML files working directly on the bytes of the file.
+ * Only osm, bounds, node, way, nd, tag and relation elements are recognized,
+ * ids and coordinates are parsed into primitives and all other attributes
+ * (user, timestamp, changeset, version, ...) are skipped without creating strings.
+ * Like the StAX parser, reading stops at the first relation.
+ * readNodes() stops in front of the first way, so the nodes of a part of a file can be read.
+ * @author Norbert Goebel
+ *
+ */
+public class OSMXMLScanner {
+
+	//element names
+	private static final byte[] OSM = bytes("osm");
+	private static final byte[] BOUNDS = bytes("bounds");
+	private static final byte[] NODE = bytes("node");
+	private static final byte[] WAY = bytes("way");
+	private static final byte[] ND = bytes("nd");
+	private static final byte[] TAG = bytes("tag");
+	private static final byte[] RELATION = bytes("relation");
+
+	//attribute names
+	private static final byte[] ID = bytes("id");
+	private static final byte[] LAT = bytes("lat");
+	private static final byte[] LON = bytes("lon");
+	private static final byte[] REF = bytes("ref");
+	private static final byte[] K = bytes("k");
+	private static final byte[] V = bytes("v");
+	private static final byte[] VERSION = bytes("version");
+	private static final byte[] GENERATOR = bytes("generator");
+	private static final byte[] MINLAT = bytes("minlat");
+	private static final byte[] MINLON = bytes("minlon");
+	private static final byte[] MAXLAT = bytes("maxlat");
+	private static final byte[] MAXLON = bytes("maxlon");
+
+	//coordinates with up to 15 digits are read as fixed point number and divided by a power of ten once
+	private static final int MAX_FIXED_DIGITS = 15;
+	private static final double[] POWERS_OF_TEN = new double[23];
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i=1; i<POWERS_OF_TEN.length; i++)
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i-1] * 10;
+	}
+
+	//number of keys remembered, tag keys of OSM files are a small set of strings
+	private static final int KEY_CACHE_SIZE = 1024;
+
+	private InputStream input;
+	private OSMDataHandler handler;
+	private boolean inputEnd = false;
+
+	//bytes read, buffer[position .. length-1] are not scanned yet
+	private byte[] buffer = new byte[1 << 16];
+	private int position = 0;
+	private int length = 0;
+	private long bufferOffset = 0; //position of buffer[0] in the stream
+
+	//attributes of the current element, offsets into buffer
+	private int attributeCount = 0;
+	private int[] nameStarts = new int[16];
+	private int[] nameEnds = new int[16];
+	private int[] valueStarts = new int[16];
+	private int[] valueEnds = new int[16];
+
+	private boolean inWay = false;
+	private boolean nodesOnly = false;
+	private long waysStart = -1;
+	private String[] keyCache = new String[KEY_CACHE_SIZE];
+
+	/**
+	 * creates a scanner for an OSM XML stream
+	 * @param input
+	 * @param handler
+	 */
+	public OSMXMLScanner(InputStream input, OSMDataHandler handler){
+		this.input = input;
+		this.handler = handler;
+	}
+
+	/**
+	 * reads the file up to the end or the first relation
+	 * @throws IOException if the file is no valid OSM XML file
+	 */
+	public void read() throws IOException {
+		try {
+			while (true){
+				//text between elements is ignored
+				int start = indexOf('<');
+				if (start < 0)
+					return;
+				position = start;
+
+				//reading more data moves the element to the start of the buffer
+				int end = elementEnd();
+				if (end < 0)
+					throw new IOException("Unexpected end of XML file");
+				start = position;
+				position = end + 1;
+
+				if (!element(start + 1, end))
+					return;
+			}
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * reads the nodes up to the end or the first way or relation
+	 * @return position of the first way or relation in the stream, -1 if there is none
+	 * @throws IOException if the file is no valid OSM XML file
+	 */
+	public long readNodes() throws IOException {
+		nodesOnly = true;
+		read();
+		return waysStart;
+	}
+
+	/**
+	 * handles an element, comment or processing instruction in buffer[start .. end-1]
+	 * @param start position behind '<'
+	 * @param end position of '>'
+	 * @return false if reading should stop
+	 * @throws IOException
+	 */
+	private boolean element(int start, int end) throws IOException {
+		byte first = buffer[start];
+		//processing instructions, comments and declarations are ignored
+		if (first == '?' || first == '!')
+			return true;
+
+		if (first == '/'){
+			int nameEnd = nameEnd(start + 1, end);
+			if (inWay && equals(start + 1, nameEnd, WAY)){
+				inWay = false;
+				handler.wayEnd();
+			}
+			return true;
+		}
+
+		int nameEnd = nameEnd(start, end);
+		if (nodesOnly && (equals(start, nameEnd, WAY) || equals(start, nameEnd, RELATION))){
+			waysStart = bufferOffset + start - 1;
+			return false;
+		}
+		boolean empty = buffer[end - 1] == '/';
+		readAttributes(nameEnd, empty ? end - 1 : end);
+
+		if (equals(start, nameEnd, NODE)){
+			handler.node(readLong(ID), readCoordinate(LON), readCoordinate(LAT));
+		}
+		else if (equals(start, nameEnd, ND)){
+			if (inWay)
+				handler.wayNode(readLong(REF));
+		}
+		else if (equals(start, nameEnd, TAG)){
+			if (inWay)
+				handler.tag(readKey(), readString(V));
+		}
+		else if (equals(start, nameEnd, WAY)){
+			handler.way(readLong(ID));
+			inWay = true;
+			if (empty){
+				inWay = false;
+				handler.wayEnd();
+			}
+		}
+		else if (equals(start, nameEnd, RELATION)){
+			//we don't need relations, they are stored behind nodes and ways
+			return false;
+		}
+		else if (equals(start, nameEnd, BOUNDS)){
+			handler.bounds(readCoordinate(MINLAT), readCoordinate(MINLON), readCoordinate(MAXLAT), readCoordinate(MAXLON));
+		}
+		else if (equals(start, nameEnd, OSM)){
+			handler.osmInfo(readString(VERSION), readString(GENERATOR));
+		}
+		return true;
+	}
+
+	/**
+	 * finds all attributes of an element, only their positions are stored
+	 * @param from position behind the element name
+	 * @param to end of the attributes ('>' or "/>")
+	 * @throws IOException
+	 */
+	private void readAttributes(int from, int to) throws IOException {
+		attributeCount = 0;
+		int i = from;
+		while (true){
+			while (i < to && isWhitespace(buffer[i]))
+				i++;
+			if (i >= to)
+				return;
+
+			int nameStart = i;
+			while (i < to && buffer[i] != '=' && !isWhitespace(buffer[i]))
+				i++;
+			int nameEnd = i;
+			while (i < to && buffer[i] != '=')
+				i++;
+			i++;
+			while (i < to && isWhitespace(buffer[i]))
+				i++;
+			if (i >= to || (buffer[i] != '"' && buffer[i] != '\''))
+				throw new IOException("Invalid XML attribute");
+			byte quote = buffer[i++];
+			int valueStart = i;
+			while (i < to && buffer[i] != quote)
+				i++;
+			if (i >= to)
+				throw new IOException("Invalid XML attribute");
+
+			if (attributeCount == nameStarts.length){
+				nameStarts = Arrays.copyOf(nameStarts, attributeCount * 2);
+				nameEnds = Arrays.copyOf(nameEnds, attributeCount * 2);
+				valueStarts = Arrays.copyOf(valueStarts, attributeCount * 2);
+				valueEnds = Arrays.copyOf(valueEnds, attributeCount * 2);
+			}
+			nameStarts[attributeCount] = nameStart;
+			nameEnds[attributeCount] = nameEnd;
+			valueStarts[attributeCount] = valueStart;
+			valueEnds[attributeCount] = i;
+			attributeCount++;
+			i++;
+		}
+	}
+
+	/**
+	 * @param name
+	 * @return index of the attribute or -1
+	 */
+	private int attribute(byte[] name){
+		for (int i=0; i<attributeCount; i++){
+			if (equals(nameStarts[i], nameEnds[i], name))
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param name
+	 * @return value of an integer attribute, 0 if it is missing
+	 * @throws IOException
+	 */
+	private long readLong(byte[] name) throws IOException {
+		int index = attribute(name);
+		if (index < 0)
+			return 0;
+		int i = valueStarts[index];
+		int end = valueEnds[index];
+		boolean negative = i < end && buffer[i] == '-';
+		if (negative)
+			i++;
+		if (i == end)
+			throw new NumberFormatException("Invalid number in attribute "+new String(name, StandardCharsets.UTF_8));
+		long value = 0;
+		for (; i<end; i++){
+			int digit = buffer[i] - '0';
+			if (digit < 0 || digit > 9)
+				throw new NumberFormatException("Invalid number in attribute "+new String(name, StandardCharsets.UTF_8));
+			value = value * 10 + digit;
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * reads a decimal coordinate as fixed point number, the division by the power of ten
+	 * is rounded exactly, so we get the same double value as Double.valueOf
+	 * @param name
+	 * @return value of a coordinate attribute, 0 if it is missing
+	 */
+	private double readCoordinate(byte[] name){
+		int index = attribute(name);
+		if (index < 0)
+			return 0;
+		int start = valueStarts[index];
+		int end = valueEnds[index];
+		int i = start;
+		boolean negative = i < end && buffer[i] == '-';
+		if (negative)
+			i++;
+
+		long value = 0;
+		int digits = 0;
+		int decimals = -1;
+		for (; i<end; i++){
+			byte b = buffer[i];
+			if (b == '.' && decimals < 0)
+				decimals = 0;
+			else if (b >= '0' && b <= '9' && digits < MAX_FIXED_DIGITS){
+				value = value * 10 + (b - '0');
+				digits++;
+				if (decimals >= 0)
+					decimals++;
+			}
+			else
+				break;
+		}
+
+		//exponents, very long numbers or anything else unusual
+		if (i < end || digits == 0)
+			return Double.parseDouble(new String(buffer, start, end - start, StandardCharsets.ISO_8859_1).trim());
+
+		double coordinate = (decimals > 0) ? value / POWERS_OF_TEN[decimals] : value;
+		return negative ? -coordinate : coordinate;
+	}
+
+	/**
+	 * @param name
+	 * @return value of an attribute, "" if it is missing
+	 */
+	private String readString(byte[] name){
+		int index = attribute(name);
+		if (index < 0)
+			return "";
+		return decode(valueStarts[index], valueEnds[index]);
+	}
+
+	/**
+	 * reads the key of a tag, keys are taken out of a small cache if possible
+	 * @return key
+	 */
+	private String readKey(){
+		int index = attribute(K);
+		if (index < 0)
+			return "";
+		int start = valueStarts[index];
+		int end = valueEnds[index];
+
+		int hash = 0;
+		for (int i=start; i<end; i++)
+			hash = 31 * hash + buffer[i];
+		int slot = hash & (KEY_CACHE_SIZE - 1);
+		String key = keyCache[slot];
+		if (key != null && matches(start, end, key))
+			return key;
+
+		key = decode(start, end);
+		keyCache[slot] = key;
+		return key;
+	}
+
+	/**
+	 * @param start
+	 * @param end
+	 * @param key
+	 * @return true if buffer[start .. end-1] contains the ASCII characters of key
+	 */
+	private boolean matches(int start, int end, String key){
+		if (key.length() != end - start)
+			return false;
+		for (int i=start; i<end; i++){
+			if (buffer[i] != key.charAt(i - start))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * creates the string of an attribute value, resolves entities and normalizes whitespace like an XML parser
+	 * @param start
+	 * @param end
+	 * @return attribute value
+	 */
+	private String decode(int start, int end){
+		boolean plain = true;
+		for (int i=start; i<end && plain; i++){
+			byte b = buffer[i];
+			plain = b != '&' && b != '\t' && b != '\n' && b != '\r';
+		}
+		String value = new String(buffer, start, end - start, StandardCharsets.UTF_8);
+		if (plain)
+			return value;
+
+		StringBuilder decoded = new StringBuilder(value.length());
+		for (int i=0; i<value.length(); i++){
+			char c = value.charAt(i);
+			if (c == '\t' || c == '\n' || c == '\r'){
+				//line breaks are normalized before, "\r\n" becomes a single space
+				if (c == '\r' && i + 1 < value.length() && value.charAt(i + 1) == '\n')
+					i++;
+				decoded.append(' ');
+				continue;
+			}
+			int semicolon = (c == '&') ? value.indexOf(';', i) : -1;
+			if (semicolon < 0){
+				decoded.append(c);
+				continue;
+			}
+			String entity = value.substring(i + 1, semicolon);
+			if (entity.equals("amp"))
+				decoded.append('&');
+			else if (entity.equals("lt"))
+				decoded.append('<');
+			else if (entity.equals("gt"))
+				decoded.append('>');
+			else if (entity.equals("quot"))
+				decoded.append('"');
+			else if (entity.equals("apos"))
+				decoded.append('\'');
+			else if (entity.startsWith("#x"))
+				decoded.appendCodePoint(Integer.parseInt(entity.substring(2), 16));
+			else if (entity.startsWith("#"))
+				decoded.appendCodePoint(Integer.parseInt(entity.substring(1)));
+			else {
+				decoded.append(c);
+				continue;
+			}
+			i = semicolon;
+		}
+		return decoded.toString();
+	}
+
+	/**
+	 * @param start
+	 * @param end
+	 * @return end of the element name starting at start
+	 */
+	private int nameEnd(int start, int end){
+		int i = start;
+		while (i < end && buffer[i] != '/' && !isWhitespace(buffer[i]))
+			i++;
+		return i;
+	}
+
+	/**
+	 * @param start
+	 * @param end
+	 * @param name
+	 * @return true if buffer[start .. end-1] equals name
+	 */
+	private boolean equals(int start, int end, byte[] name){
+		if (end - start != name.length)
+			return false;
+		for (int i=0; i<name.length; i++){
+			if (buffer[start + i] != name[i])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * finds the next byte value, reads more data if needed
+	 * @param value
+	 * @return position in buffer or -1 at the end of the file
+	 * @throws IOException
+	 */
+	private int indexOf(char value) throws IOException {
+		int i = position;
+		while (true){
+			for (; i<length; i++){
+				if (buffer[i] == value)
+					return i;
+			}
+			position = length;
+			if (!readInput())
+				return -1;
+			i = position;
+		}
+	}
+
+	/**
+	 * finds the '>' closing the element starting at position, quoted values may contain '>'.
+	 * Comments are closed by "-->" only, the element always stays in the buffer.
+	 * @return position of '>' or -1 at the end of the file
+	 * @throws IOException
+	 */
+	private int elementEnd() throws IOException {
+		int i = position + 1;
+		byte quote = 0;
+		while (true){
+			for (; i<length; i++){
+				byte b = buffer[i];
+				if (quote != 0){
+					if (b == quote)
+						quote = 0;
+				}
+				else if (b == '>'){
+					if (!isComment() || (i - position >= 6 && buffer[i-1] == '-' && buffer[i-2] == '-'))
+						return i;
+				}
+				else if ((b == '"' || b == '\'') && !isComment() && buffer[position + 1] != '!')
+					quote = b;
+			}
+			int offset = i - position;
+			if (!readInput())
+				return -1;
+			i = position + offset;
+		}
+	}
+
+	/**
+	 * @return true if the element at position is a comment
+	 */
+	private boolean isComment(){
+		return length - position >= 4 && buffer[position + 1] == '!' && buffer[position + 2] == '-' && buffer[position + 3] == '-';
+	}
+
+	/**
+	 * moves the unscanned data to the start of the buffer and reads more data
+	 * @return false at the end of the file
+	 * @throws IOException
+	 */
+	private boolean readInput() throws IOException {
+		if (inputEnd)
+			return false;
+		if (position > 0){
+			System.arraycopy(buffer, position, buffer, 0, length - position);
+			bufferOffset += position;
+			length -= position;
+			position = 0;
+		}
+		if (length == buffer.length)
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+
+		int count = input.read(buffer, length, buffer.length - length);
+		if (count < 0){
+			inputEnd = true;
+			return false;
+		}
+		length += count;
+		return true;
+	}
+
+	/**
+	 * @param b
+	 * @return true for XML whitespace
+	 */
+	private static boolean isWhitespace(byte b){
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+	}
+
+	/**
+	 * @param string
+	 * @return ASCII bytes of string
+	 */
+	private static byte[] bytes(String string){
+		return string.getBytes(StandardCharsets.US_ASCII);
+	}
+}
@@ -0,0 +1,137 @@
+package osmReader;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A blob of an OSM PBF file as it is stored on disk (header type and compressed data).
+ * Reading a blob is cheap, inflating and decoding can be done later.
+ * @author Norbert Goebel
+ *
+ */
+public class PBFBlob {
+
+	//blob types
+	public static final String HEADER = "OSMHeader";
+	public static final String DATA = "OSMData";
+
+	//maximum sizes given by the PBF specification
+	private static final int MAX_HEADER_SIZE = 64 * 1024;
+	private static final int MAX_BLOB_SIZE = 32 * 1024 * 1024;
+
+	private String type;
+	private byte[] blob;
+
+	private PBFBlob(String type, byte[] blob){
+		this.type = type;
+		this.blob = blob;
+	}
+
+	/**
+	 * reads the next blob out of a PBF file
+	 * @param input
+	 * @return the next blob or null at the end of the file
+	 * @throws IOException
+	 */
+	public static PBFBlob read(DataInputStream input) throws IOException {
+		int headerSize;
+		try {
+			headerSize = input.readInt();
+		} catch (EOFException e) {
+			return null;
+		}
+		if (headerSize < 0 || headerSize > MAX_HEADER_SIZE)
+			throw new IOException("Invalid PBF blob header size "+headerSize);
+
+		byte[] header = new byte[headerSize];
+		input.readFully(header);
+
+		//BlobHeader: 1 = type, 2 = indexdata, 3 = datasize
+		String type = "";
+		int dataSize = -1;
+		ProtobufInput message = new ProtobufInput(header);
+		while (message.next()){
+			if (message.getField() == 1)
+				type = message.readString();
+			else if (message.getField() == 3)
+				dataSize = (int) message.readVarint();
+			else
+				message.skip();
+		}
+		if (dataSize < 0 || dataSize > MAX_BLOB_SIZE)
+			throw new IOException("Invalid PBF blob size "+dataSize);
+
+		byte[] blob = new byte[dataSize];
+		input.readFully(blob);
+		return new PBFBlob(type, blob);
+	}
+
+	/**
+	 * @return the blob type (OSMHeader or OSMData)
+	 */
+	public String getType(){
+		return type;
+	}
+
+	/**
+	 * uncompresses the blob
+	 * @return the uncompressed block
+	 * @throws IOException
+	 */
+	public byte[] inflate() throws IOException {
+		//Blob: 1 = raw, 2 = raw_size, 3 = zlib_data, 4.. = other compressions
+		byte[] raw = null;
+		byte[] zlibData = null;
+		int rawSize = -1;
+
+		ProtobufInput message = new ProtobufInput(blob);
+		while (message.next()){
+			switch (message.getField()){
+			case 1:
+				raw = message.readBytes();
+				break;
+			case 2:
+				rawSize = (int) message.readVarint();
+				break;
+			case 3:
+				zlibData = message.readBytes();
+				break;
+			case 4:
+			case 5:
+			case 6:
+			case 7:
+				throw new IOException("Unsupported PBF blob compression (field "+message.getField()+")");
+			default:
+				message.skip();
+			}
+		}
+
+		if (raw != null)
+			return raw;
+		if (zlibData == null || rawSize < 0 || rawSize > MAX_BLOB_SIZE)
+			throw new IOException("PBF blob without data");
+
+		Inflater inflater = new Inflater();
+		try {
+			byte[] block = new byte[rawSize];
+			inflater.setInput(zlibData);
+			int inflated = 0;
+			while (inflated < rawSize && !inflater.finished()){
+				int count = inflater.inflate(block, inflated, rawSize - inflated);
+				if (count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+					break;
+				inflated += count;
+			}
+			if (inflated != rawSize)
+				throw new IOException("PBF blob inflated to "+inflated+" instead of "+rawSize+" bytes");
+			return block;
+		} catch (DataFormatException e) {
+			throw new IOException("Corrupt zlib data in PBF blob", e);
+		} finally {
+			inflater.end();
+		}
+	}
+}
@@ -0,0 +1,364 @@
+package osmReader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Nodes and ways of one decoded OSMData block of a PBF file, stored in primitive arrays.
+ * Only what the parser needs is kept: node ids and coordinates, way ids, node references and tags.
+ * @author Norbert Goebel
+ *
+ */
+public class PBFBlock {
+
+	//coordinates are given in nanodegrees
+	private static final double NANO = 1e9;
+
+	//string table, strings are decoded when needed
+	private byte[] data;
+	private int[] stringOffsets = new int[0];
+	private int[] stringLengths = new int[0];
+	private String[] strings = new String[0];
+
+	//coordinate transformation of this block
+	private long granularity = 100;
+	private long latOffset = 0;
+	private long lonOffset = 0;
+
+	//nodes
+	private int nodeCount = 0;
+	private long[] nodeIds = new long[256];
+	private double[] nodeLongitudes = new double[256];
+	private double[] nodeLatitudes = new double[256];
+
+	//ways, refs and tags of way i are stored up to refEnds[i] and tagEnds[i]
+	private int wayCount = 0;
+	private long[] wayIds = new long[64];
+	private int[] refEnds = new int[64];
+	private int[] tagEnds = new int[64];
+	private int refCount = 0;
+	private long[] refs = new long[1024];
+	private int tagCount = 0;
+	private int[] tagKeys = new int[256];
+	private int[] tagValues = new int[256];
+
+	private PBFBlock(byte[] data){
+		this.data = data;
+	}
+
+	/**
+	 * decodes an uncompressed OSMData block
+	 * @param data
+	 * @return decoded block
+	 * @throws IOException
+	 */
+	public static PBFBlock decode(byte[] data) throws IOException {
+		PBFBlock block = new PBFBlock(data);
+
+		//PrimitiveBlock: 1 = stringtable, 2 = primitivegroup, 17 = granularity, 19 = lat_offset, 20 = lon_offset
+		//the coordinate transformation may follow the groups, so we decode them afterwards
+		ProtobufInput message = new ProtobufInput(data);
+		int groupCount = 0;
+		ProtobufInput[] groups = new ProtobufInput[4];
+		while (message.next()){
+			switch (message.getField()){
+			case 1:
+				block.readStringTable(message.readMessage());
+				break;
+			case 2:
+				if (groupCount == groups.length)
+					groups = Arrays.copyOf(groups, groupCount * 2);
+				groups[groupCount++] = message.readMessage();
+				break;
+			case 17:
+				block.granularity = message.readVarint();
+				break;
+			case 19:
+				block.latOffset = message.readVarint();
+				break;
+			case 20:
+				block.lonOffset = message.readVarint();
+				break;
+			default:
+				message.skip();
+			}
+		}
+
+		for (int i=0; i<groupCount; i++)
+			block.readGroup(groups[i]);
+
+		return block;
+	}
+
+	/**
+	 * passes all nodes and ways of this block to the handler
+	 * @param handler
+	 */
+	public void deliver(OSMDataHandler handler){
+		for (int i=0; i<nodeCount; i++)
+			handler.node(nodeIds[i], nodeLongitudes[i], nodeLatitudes[i]);
+
+		int ref = 0;
+		int tag = 0;
+		for (int i=0; i<wayCount; i++){
+			handler.way(wayIds[i]);
+			for (; ref < refEnds[i]; ref++)
+				handler.wayNode(refs[ref]);
+			for (; tag < tagEnds[i]; tag++)
+				handler.tag(getString(tagKeys[tag]), getString(tagValues[tag]));
+			handler.wayEnd();
+		}
+	}
+
+	/**
+	 * @return number of nodes in this block
+	 */
+	public int getNodeCount(){
+		return nodeCount;
+	}
+
+	/**
+	 * @return number of ways in this block
+	 */
+	public int getWayCount(){
+		return wayCount;
+	}
+
+	/**
+	 * StringTable: 1 = s (repeated bytes)
+	 * @param message
+	 * @throws IOException
+	 */
+	private void readStringTable(ProtobufInput message) throws IOException {
+		int count = 0;
+		while (message.next()){
+			if (message.getField() == 1){
+				if (count == stringOffsets.length){
+					stringOffsets = Arrays.copyOf(stringOffsets, Math.max(256, count * 2));
+					stringLengths = Arrays.copyOf(stringLengths, stringOffsets.length);
+				}
+				ProtobufInput string = message.readMessage();
+				stringOffsets[count] = string.getPosition();
+				stringLengths[count] = string.getLimit() - string.getPosition();
+				count++;
+			}
+			else
+				message.skip();
+		}
+		strings = new String[count];
+	}
+
+	/**
+	 * @param index
+	 * @return string of the string table
+	 * @throws IndexOutOfBoundsException
+	 */
+	private String getString(int index){
+		if (strings[index] == null)
+			strings[index] = new String(data, stringOffsets[index], stringLengths[index], StandardCharsets.UTF_8);
+		return strings[index];
+	}
+
+	/**
+	 * PrimitiveGroup: 1 = nodes, 2 = dense, 3 = ways, 4 = relations, 5 = changesets
+	 * @param message
+	 * @throws IOException
+	 */
+	private void readGroup(ProtobufInput message) throws IOException {
+		while (message.next()){
+			switch (message.getField()){
+			case 1:
+				readNode(message.readMessage());
+				break;
+			case 2:
+				readDenseNodes(message.readMessage());
+				break;
+			case 3:
+				readWay(message.readMessage());
+				break;
+			default:
+				//we don't need relations
+				message.skip();
+			}
+		}
+	}
+
+	/**
+	 * Node: 1 = id, 8 = lat, 9 = lon (all sint64)
+	 * @param message
+	 * @throws IOException
+	 */
+	private void readNode(ProtobufInput message) throws IOException {
+		long id = 0;
+		long lat = 0;
+		long lon = 0;
+		while (message.next()){
+			switch (message.getField()){
+			case 1:
+				id = message.readSignedVarint();
+				break;
+			case 8:
+				lat = message.readSignedVarint();
+				break;
+			case 9:
+				lon = message.readSignedVarint();
+				break;
+			default:
+				message.skip();
+			}
+		}
+		addNode(id, lon, lat);
+	}
+
+	/**
+	 * DenseNodes: 1 = id, 8 = lat, 9 = lon (packed, delta coded sint64)
+	 * @param message
+	 * @throws IOException
+	 */
+	private void readDenseNodes(ProtobufInput message) throws IOException {
+		long[] ids = new long[0];
+		long[] lats = new long[0];
+		long[] lons = new long[0];
+		while (message.next()){
+			switch (message.getField()){
+			case 1:
+				ids = readPacked(message, ids, true);
+				break;
+			case 8:
+				lats = readPacked(message, lats, true);
+				break;
+			case 9:
+				lons = readPacked(message, lons, true);
+				break;
+			default:
+				message.skip();
+			}
+		}
+		if (ids.length != lats.length || ids.length != lons.length)
+			throw new IOException("Inconsistent PBF dense nodes");
+		
+		decodeDeltas(ids);
+		decodeDeltas(lats);
+		decodeDeltas(lons);
+
+		for (int i=0; i<ids.length; i++)
+			addNode(ids[i], lons[i], lats[i]);
+	}
+
+	/**
+	 * Way: 1 = id, 2 = keys, 3 = vals (packed uint32), 8 = refs (packed, delta coded sint64)
+	 * @param message
+	 * @throws IOException
+	 */
+	private void readWay(ProtobufInput message) throws IOException {
+		long id = 0;
+		long[] keys = new long[0];
+		long[] values = new long[0];
+		long[] wayRefs = new long[0];
+		while (message.next()){
+			switch (message.getField()){
+			case 1:
+				id = message.readVarint();
+				break;
+			case 2:
+				keys = readPacked(message, keys, false);
+				break;
+			case 3:
+				values = readPacked(message, values, false);
+				break;
+			case 8:
+				wayRefs = readPacked(message, wayRefs, true);
+				break;
+			default:
+				message.skip();
+			}
+		}
+		decodeDeltas(wayRefs);
+
+		if (keys.length != values.length)
+			throw new IOException("Inconsistent tags of PBF way "+id);
+
+		if (wayCount == wayIds.length){
+			wayIds = Arrays.copyOf(wayIds, wayCount * 2);
+			refEnds = Arrays.copyOf(refEnds, wayCount * 2);
+			tagEnds = Arrays.copyOf(tagEnds, wayCount * 2);
+		}
+
+		if (refCount + wayRefs.length > refs.length)
+			refs = Arrays.copyOf(refs, Math.max(refs.length * 2, refCount + wayRefs.length));
+		System.arraycopy(wayRefs, 0, refs, refCount, wayRefs.length);
+		refCount += wayRefs.length;
+
+		if (tagCount + keys.length > tagKeys.length){
+			tagKeys = Arrays.copyOf(tagKeys, Math.max(tagKeys.length * 2, tagCount + keys.length));
+			tagValues = Arrays.copyOf(tagValues, tagKeys.length);
+		}
+		for (int i=0; i<keys.length; i++){
+			if (keys[i] >= strings.length || values[i] >= strings.length)
+				throw new IOException("Invalid string index in tags of PBF way "+id);
+			tagKeys[tagCount] = (int) keys[i];
+			tagValues[tagCount] = (int) values[i];
+			tagCount++;
+		}
+
+		wayIds[wayCount] = id;
+		refEnds[wayCount] = refCount;
+		tagEnds[wayCount] = tagCount;
+		wayCount++;
+	}
+
+	/**
+	 * stores a node, coordinates are transformed into degrees
+	 * @param id
+	 * @param lon
+	 * @param lat
+	 */
+	private void addNode(long id, long lon, long lat){
+		if (nodeCount == nodeIds.length){
+			nodeIds = Arrays.copyOf(nodeIds, nodeCount * 2);
+			nodeLongitudes = Arrays.copyOf(nodeLongitudes, nodeCount * 2);
+			nodeLatitudes = Arrays.copyOf(nodeLatitudes, nodeCount * 2);
+		}
+		//exact nanodegrees divided once, so we get the same double values as parsing the XML text
+		nodeIds[nodeCount] = id;
+		nodeLongitudes[nodeCount] = (lonOffset + granularity * lon) / NANO;
+		nodeLatitudes[nodeCount] = (latOffset + granularity * lat) / NANO;
+		nodeCount++;
+	}
+
+	/**
+	 * turns delta coded values into absolute values
+	 * @param values
+	 */
+	private static void decodeDeltas(long[] values){
+		for (int i=1; i<values.length; i++)
+			values[i] += values[i-1];
+	}
+
+	/**
+	 * reads a packed (or unpacked) repeated varint field
+	 * @param message
+	 * @param values already read values of this field
+	 * @param signed zig zag coded values
+	 * @return values with the new values appended
+	 * @throws IOException
+	 */
+	private static long[] readPacked(ProtobufInput message, long[] values, boolean signed) throws IOException {
+		if (message.getWireType() != ProtobufInput.LENGTH_DELIMITED){
+			values = Arrays.copyOf(values, values.length + 1);
+			values[values.length - 1] = signed ? message.readSignedVarint() : message.readVarint();
+			return values;
+		}
+
+		ProtobufInput packed = message.readMessage();
+		int count = values.length;
+		values = Arrays.copyOf(values, count + 16);
+		while (packed.hasMore()){
+			if (count == values.length)
+				values = Arrays.copyOf(values, count * 2);
+			values[count++] = signed ? packed.readSignedVarint() : packed.readVarint();
+		}
+		return Arrays.copyOf(values, count);
+	}
+}
@@ -0,0 +1,219 @@
+package osmReader;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reader for OSM PBF files (.osm.pbf), passes nodes and ways to an OSMDataHandler
+ * the same way the XML parser handles them.
+ * @author Norbert Goebel
+ *
+ */
+public class PBFReader {
+
+	//features of the OSM PBF format we can read
+	private static final String[] SUPPORTED_FEATURES = {"OsmSchema-V0.6", "DenseNodes"};
+
+	//decoded blocks waiting to be delivered per decoding thread, limits the memory used for read ahead
+	private static final int BLOCKS_PER_THREAD = 4;
+
+	private DataInputStream input;
+	private OSMDataHandler handler;
+	private int threads;
+
+	/**
+	 * creates a reader for a PBF stream, blocks are decoded by the calling thread
+	 * @param input
+	 * @param handler
+	 */
+	public PBFReader(InputStream input, OSMDataHandler handler){
+		this(input, handler, 1);
+	}
+
+	/**
+	 * creates a reader for a PBF stream
+	 * @param input
+	 * @param handler
+	 * @param threads number of threads inflating and decoding blocks
+	 */
+	public PBFReader(InputStream input, OSMDataHandler handler, int threads){
+		this.input = new DataInputStream(new BufferedInputStream(input, 1 << 16));
+		this.handler = handler;
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * reads the whole file
+	 * @throws IOException
+	 */
+	public void read() throws IOException {
+		try {
+			if (threads == 1)
+				readSequential();
+			else
+				readParallel();
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * reads, inflates, decodes and delivers one block after another
+	 * @throws IOException
+	 */
+	private void readSequential() throws IOException {
+		PBFBlob blob;
+		while ((blob = PBFBlob.read(input)) != null){
+			if (blob.getType().equals(PBFBlob.HEADER))
+				readHeader(blob.inflate(), handler);
+			else if (blob.getType().equals(PBFBlob.DATA))
+				PBFBlock.decode(blob.inflate()).deliver(handler);
+			//unknown blob types must be skipped
+		}
+	}
+
+	/**
+	 * blobs are read by the calling thread and inflated and decoded by a thread pool,
+	 * the decoded blocks are delivered by the calling thread in file order,
+	 * so the handler sees the same sequence of nodes and ways as in sequential reading
+	 * @throws IOException
+	 */
+	private void readParallel() throws IOException {
+		ExecutorService decoders = Executors.newFixedThreadPool(threads);
+		ArrayDeque<Future<PBFBlock>> pending = new ArrayDeque<Future<PBFBlock>>();
+		try {
+			PBFBlob blob;
+			while ((blob = PBFBlob.read(input)) != null){
+				if (blob.getType().equals(PBFBlob.HEADER)){
+					//blocks in front of the header are delivered first
+					while (!pending.isEmpty())
+						waitFor(pending.poll()).deliver(handler);
+					readHeader(blob.inflate(), handler);
+				}
+				else if (blob.getType().equals(PBFBlob.DATA)){
+					if (pending.size() >= threads * BLOCKS_PER_THREAD)
+						waitFor(pending.poll()).deliver(handler);
+					final PBFBlob data = blob;
+					pending.add(decoders.submit(new Callable<PBFBlock>() {
+						public PBFBlock call() throws IOException {
+							return PBFBlock.decode(data.inflate());
+						}
+					}));
+				}
+				//unknown blob types must be skipped
+			}
+			while (!pending.isEmpty())
+				waitFor(pending.poll()).deliver(handler);
+		} finally {
+			decoders.shutdownNow();
+		}
+	}
+
+	/**
+	 * waits until a block is decoded
+	 * @param block
+	 * @return decoded block
+	 * @throws IOException if the block could not be decoded
+	 */
+	private static PBFBlock waitFor(Future<PBFBlock> block) throws IOException {
+		try {
+			return block.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IOException("Error decoding PBF block", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while decoding PBF blocks", e);
+		}
+	}
+
+	/**
+	 * HeaderBlock: 1 = bbox, 4 = required_features, 16 = writingprogram
+	 * @param data uncompressed header block
+	 * @param handler
+	 * @throws IOException if the file needs features we can't read
+	 */
+	static void readHeader(byte[] data, OSMDataHandler handler) throws IOException {
+		ProtobufInput message = new ProtobufInput(data);
+		String version = "";
+		String generator = "";
+		ProtobufInput bbox = null;
+
+		while (message.next()){
+			switch (message.getField()){
+			case 1:
+				bbox = message.readMessage();
+				break;
+			case 4:
+				String feature = message.readString();
+				if (!isSupported(feature))
+					throw new IOException("PBF file needs unsupported feature "+feature);
+				if (feature.startsWith("OsmSchema-V"))
+					version = feature.substring("OsmSchema-V".length());
+				break;
+			case 16:
+				generator = message.readString();
+				break;
+			default:
+				message.skip();
+			}
+		}
+
+		handler.osmInfo(version, generator);
+		if (bbox != null)
+			readBBox(bbox, handler);
+	}
+
+	/**
+	 * HeaderBBox: 1 = left, 2 = right, 3 = top, 4 = bottom (sint64 nanodegrees)
+	 * @param message
+	 * @param handler
+	 * @throws IOException
+	 */
+	private static void readBBox(ProtobufInput message, OSMDataHandler handler) throws IOException {
+		long left = 0;
+		long right = 0;
+		long top = 0;
+		long bottom = 0;
+		while (message.next()){
+			switch (message.getField()){
+			case 1:
+				left = message.readSignedVarint();
+				break;
+			case 2:
+				right = message.readSignedVarint();
+				break;
+			case 3:
+				top = message.readSignedVarint();
+				break;
+			case 4:
+				bottom = message.readSignedVarint();
+				break;
+			default:
+				message.skip();
+			}
+		}
+		handler.bounds(bottom / 1e9, left / 1e9, top / 1e9, right / 1e9);
+	}
+
+	/**
+	 * @param feature
+	 * @return true if we can read files needing this feature
+	 */
+	private static boolean isSupported(String feature){
+		for (String supported : SUPPORTED_FEATURES){
+			if (supported.equals(feature))
+				return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,189 @@
+package osmReader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal reader for protocol buffer messages in a byte array,
+ * just what we need to decode OSM PBF files.
+ * @author Norbert Goebel
+ *
+ */
+public class ProtobufInput {
+
+	//wire types
+	public static final int VARINT = 0;
+	public static final int FIXED64 = 1;
+	public static final int LENGTH_DELIMITED = 2;
+	public static final int FIXED32 = 5;
+
+	private byte[] buffer;
+	private int position;
+	private int limit;
+
+	//the last tag read
+	private int tag = 0;
+
+	/**
+	 * creates a reader for a message in buffer[offset .. offset+length-1]
+	 * @param buffer
+	 * @param offset
+	 * @param length
+	 */
+	public ProtobufInput(byte[] buffer, int offset, int length){
+		this.buffer = buffer;
+		this.position = offset;
+		this.limit = offset + length;
+	}
+
+	/**
+	 * creates a reader for a whole byte array
+	 * @param buffer
+	 */
+	public ProtobufInput(byte[] buffer){
+		this(buffer, 0, buffer.length);
+	}
+
+	/**
+	 * reads the next field tag
+	 * @return false if the end of the message is reached
+	 * @throws IOException
+	 */
+	public boolean next() throws IOException {
+		if (position >= limit)
+			return false;
+		tag = (int) readVarint();
+		return true;
+	}
+
+	/**
+	 * @return field number of the last tag
+	 */
+	public int getField(){
+		return tag >>> 3;
+	}
+
+	/**
+	 * @return wire type of the last tag
+	 */
+	public int getWireType(){
+		return tag & 0x07;
+	}
+
+	/**
+	 * @return an unsigned varint (int32, int64, uint32, uint64, bool, enum)
+	 * @throws IOException
+	 */
+	public long readVarint() throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7){
+			if (position >= limit)
+				throw new IOException("Truncated protobuf varint");
+			byte b = buffer[position++];
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0)
+				return value;
+		}
+		throw new IOException("Malformed protobuf varint");
+	}
+
+	/**
+	 * @return a zig zag encoded varint (sint32, sint64)
+	 * @throws IOException
+	 */
+	public long readSignedVarint() throws IOException {
+		long value = readVarint();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * @return length of a length delimited field, the position is at the first byte of the field afterwards
+	 * @throws IOException
+	 */
+	public int readLength() throws IOException {
+		int length = (int) readVarint();
+		if (length < 0 || length > limit - position)
+			throw new IOException("Truncated protobuf field");
+		return length;
+	}
+
+	/**
+	 * @return a length delimited field as reader
+	 * @throws IOException
+	 */
+	public ProtobufInput readMessage() throws IOException {
+		int length = readLength();
+		ProtobufInput message = new ProtobufInput(buffer, position, length);
+		position += length;
+		return message;
+	}
+
+	/**
+	 * @return a length delimited field as byte array
+	 * @throws IOException
+	 */
+	public byte[] readBytes() throws IOException {
+		int length = readLength();
+		byte[] bytes = new byte[length];
+		System.arraycopy(buffer, position, bytes, 0, length);
+		position += length;
+		return bytes;
+	}
+
+	/**
+	 * @return a length delimited field as UTF-8 string
+	 * @throws IOException
+	 */
+	public String readString() throws IOException {
+		int length = readLength();
+		String string = new String(buffer, position, length, StandardCharsets.UTF_8);
+		position += length;
+		return string;
+	}
+
+	/**
+	 * @return position of the next unread byte in the buffer
+	 */
+	public int getPosition(){
+		return position;
+	}
+
+	/**
+	 * @return position behind the last byte of the message
+	 */
+	public int getLimit(){
+		return limit;
+	}
+
+	/**
+	 * @return true if there is unread data
+	 */
+	public boolean hasMore(){
+		return position < limit;
+	}
+
+	/**
+	 * skips the value of the last tag
+	 * @throws IOException
+	 */
+	public void skip() throws IOException {
+		switch (getWireType()){
+		case VARINT:
+			readVarint();
+			break;
+		case FIXED64:
+			position += 8;
+			break;
+		case LENGTH_DELIMITED:
+			position += readLength();
+			break;
+		case FIXED32:
+			position += 4;
+			break;
+		default:
+			throw new IOException("Unsupported protobuf wire type "+getWireType());
+		}
+		if (position > limit)
+			throw new IOException("Truncated protobuf field");
+	}
+}
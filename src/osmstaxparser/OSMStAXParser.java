@@ -1,923 +1,1522 @@
-package osmstaxparser;
-import gps.GPSTrace;
-import graph.Edge;
-import graph.Graph;
-
-import java.io.DataOutputStream;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.util.Hashtable;
-import java.util.Map;
-import java.util.Vector;
-
-import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.XMLStreamConstants;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.XMLStreamReader;
-
-import boundary.Boundary;
-
-import osmData.OSMNode;
-import osmData.OSMWay;
-import osmData.TransformOSMData;
-import tools.MyFile;
-import tools.Tools;
-
-/**
- * 
- * This class implements a StAX Parser for OSM XLM Files.
- * The result will be saved to a file called routing.graph
- * 
- * @author Norbert Goebel
- * @author Daniel Sathees Elmo
- *
- */
-
-public class OSMStAXParser {
-	
-	//map boundary buffer
-	static final double MAP_BUFFER = 0.0025;
-	
-	//definition in Open Street Map
-	static final int MIN_WAYSIZE=2;
-	static final int MAX_WAYSIZE=2000;
-	static final int MAX_PARTWAYS=MAX_WAYSIZE-1;
-	
-	//arguments reading offset constants
-	static final int BOUNDARY_OFFSET=4;
-	static final int GPS_TRACE_OFFSET=1;
-	
-	//XML classes
-	static XMLInputFactory factory = XMLInputFactory.newInstance(); 
-	static XMLStreamReader parser;
-	
-	//file class to access XML file
-	static MyFile xmlFile;
-	
-	//OSM XML file info
-	static String osmVersion="";
-	static String osmGenerator="";
-	
-	//Vector to save all boundaries user entered, counter for unnamed boundaries
-	static Vector<Boundary> boundaries = new Vector<Boundary>();
-	static int boundaryCounter = 0;
-	
-	//OSM informations
-	static String primType=""; //notice which element (data primitive) we handle (e.g. node, way, relation, member etc...)
-	static Long id=new Long(0); //this is intentionally a Long and not a long as hash table needs objects as keys.
-	static double latitude=0;
-	static double longitude=0;
-	static boolean oneWay=false;
-	static boolean error=false;
-	static boolean wayNotNeeded = false; //if we don't need this way (like areas or service routes)
-	static String lanes="1";
-	static int maxSpeed=-1;
-	static String motorcar="";
-	static String highway="";
-	static String name="";
-	static String lastkey=""; 
-	static int meansOfTransport=TransformOSMData.DEFAULT;
-	
-	//we use vectors to save way nodes, part ways and routing ways
-	static Vector<Long> wayNodes = new Vector<Long>(MAX_WAYSIZE);
-	static Vector<OSMWay> routingWays = new Vector<OSMWay>();
-	
-	//spacer to check XML formation
-	static StringBuilder spacer = new StringBuilder();
-
-	//store bounds of OSM-file
-	static double osmMinLat=  -Double.MAX_VALUE; 
-	static double osmMinLon=  -Double.MAX_VALUE;
-	static double osmMaxLat=  Double.MAX_VALUE;
-	static double osmMaxLon=  Double.MAX_VALUE;
-		
-	//graph properties
-	static long totalStreetLength=0;
-	static int edges=0;
-	static int nodes=0;
-	
-	//variables to measure runtime performance
-	static long progStartTime=0;
-	static long sectionStartTime=0;
-	static long calculationTime=0;
-	static long writingTime=0;
-	static long runtimeLength=0;
-	static double membefore=0;
-	static double memafter=0;
-	
-	/**
-	 * calculates memUsage in MB
-	 * @return
-	 */
-	public static double memUsage(){
-		Runtime rt = Runtime.getRuntime();
-        double mem = (rt.totalMemory() - rt.freeMemory()) / (1024.0 * 1024.0);
-        return mem = Math.round(mem * 100) / 100.0;
-	}
-	
-	/**
-	 * Handles OSM Nodes
-	 */
-	public static void nodeHandler(){
-		//mark that we handle a node
-		primType="node";
-		
-		//read node data
-		for ( int i = 0; i < parser.getAttributeCount(); i++ ) {
-	    	  if (parser.getAttributeLocalName(i)=="id")
-	    		  id=Long.valueOf(parser.getAttributeValue(i));
-	    	  else if (parser.getAttributeLocalName(i)=="lat")
-	    		  latitude=Double.valueOf(parser.getAttributeValue(i)).doubleValue();
-	    	  else if (parser.getAttributeLocalName(i)=="lon")
-	    		  longitude=Double.valueOf(parser.getAttributeValue(i)).doubleValue();
-	    	  /*
-	    	  else
-	    		  //should never be called
-	    		  printUnknownAttribute("node", i);
-	  		  */
-	    }
-		
-		//add node for each boundary, if node is included
-		for(Boundary boundary : boundaries)
-		{
-			//if boundary contains node, put node to hash table 
-			if (longitude >= boundary.getMinLon() && longitude <= boundary.getMaxLon() &&
-				latitude >= boundary.getMinLat() && latitude <= boundary.getMaxLat())
-				boundary.getNodeList().put(id, new OSMNode(id, longitude,latitude));
-		}
-	}
-	
-	/**
-	 * Handles OSM ways
-	 */
-	public static void wayHandler(){
-		/*
-		System.out.println(nodeVector.size()+" Nodes in "+
-						((float)(System.currentTimeMillis()-progStartTime) / 1000.0) +" s eingelesen!");
-		System.exit(0);
-		*/
-		
-		//mark that we handle a way, assume we need this way!
-		primType="way";
-		wayNotNeeded=false;
-		
-		//first we clear all leftover values:
-  	  	id= new Long(0);
-  	  	latitude=0;
-  	  	longitude=0;
-  	  	oneWay=false;
-  	  	lanes="1";
-  	  	motorcar="";
-  	  	highway="";
-  	  	name="";
-  	  	lastkey="";
-  	  	maxSpeed=-1; //set to -1 to check if it really was set in OSM database
-  	  	meansOfTransport=TransformOSMData.DEFAULT;
-  	  	
-  	  	//initialize new vectors to store part ways and their nodes
-  	  	wayNodes = new Vector<Long>(MAX_WAYSIZE);
-  	  	//partWays = new Vector<Vector<Long>>(MAX_PARTWAYS);
-  	  	
-  	  	//now we check all Attributes of the way element
-  	  	for ( int i = 0; i < parser.getAttributeCount(); i++ ) {
-  	  		if (parser.getAttributeLocalName(i).equals("id"))
-  	  			id=Long.valueOf(parser.getAttributeValue(i));
-  	  		/*
-  	  		else if (parser.getAttributeLocalName(i).equals("timestamp"))
-  	  			//ignore
-  	  			;
-  	  		else if (parser.getAttributeLocalName(i).equals("created_by"))
-	    		//ignore
-  	  			;
-  	  		else if (parser.getAttributeLocalName(i).equals("visible"))
-  	  			//ignore
-  	  			;
-  	  		else if (parser.getAttributeLocalName(i).equals("user"))
-  	  			//ignore
-  	  			;
-	    	else
-	    		//should never be called
-	    		printUnknownAttribute("way", i);
-  	  		*/
-  	  	}
-	}
-	
-	/**
-	 * Handles XML References
-	 */
-	public static void referenceHandler(){
-		//safe all nodes that belongs to a way
-		for ( int i = 0; i < parser.getAttributeCount(); i++ ) {
-			if (parser.getAttributeLocalName(i)=="ref")
-    	  	  	wayNodes.add(Long.valueOf(parser.getAttributeValue(i)));
-			else 
-				//should never be called
-				printUnknownAttribute("nd", i);
-		}
-	}
-	
-	/**
-	 * Save OSM Way
-	 */
-	public static void addWay()
-	{	
-		//save ways for each boundary, if they cross those
-		for (Boundary boundary : boundaries){
-			
-			//store nodes of a part way
-			Vector<Long> partWayNodes = new Vector<Long>();
-			Vector<Vector<Long>> partWays = new Vector<Vector<Long>>(MAX_PARTWAYS);
-			
-			//check if boundary contains every node, otherwise split up ways
-			for (Long nodeID : wayNodes){
-				if (boundary.getNodeList().containsKey(nodeID))	//start a part way if boundary contains node
-					partWayNodes.add(nodeID);
-				else if (partWayNodes.size() >= MIN_WAYSIZE){	//is our part way long enough?
-					partWays.add(partWayNodes);
-					partWayNodes = new Vector<Long>(MAX_WAYSIZE);	//new vector for next part way
-				}
-				else								
-					partWayNodes.clear();	//otherwise delete/empty part way for next loop
-			}
-		
-			//if last nodes builds an part way, store it
-			if (partWayNodes.size() >= MIN_WAYSIZE)
-				partWays.add(partWayNodes);
-		
-			//for all ways belongs to the way id
-			for (Vector<Long> nodes : partWays){
-				//increase outerNodeCount for outer ways
-				boundary.getNodeList().get((Long) nodes.firstElement()).increaseOuterNodeCount();
-				boundary.getNodeList().get((Long) nodes.lastElement()).increaseOuterNodeCount();
-				//increase innerNodeCount for inner way nodes
-				for (int i=1; i<nodes.size()-2;i++)
-					((OSMNode)boundary.getNodeList().get((Long) nodes.elementAt(i))).increaseInnerNodeCount();
-			}
-
-			//insert way into data structure
-			if (!partWays.isEmpty())
-				boundary.getOSMWays().put(id, new OSMWay(id.longValue(), partWays, maxSpeed, oneWay,
-							lanes, motorcar, highway, name, meansOfTransport));
-		}
-		//if (partWays.size()>1)
-		//	System.out.println("Way (id="+id+") split in "+partWays.size()+" part Ways");
-	}
-	
-	/**
-	 * handles boundary tag
-	 */
-	public static void boundsHandler(){
-  	  //now we check all Attributes of the bounds
-  	  for ( int i = 0; i < parser.getAttributeCount(); i++ ) {
-	    	  if (parser.getAttributeLocalName(i).equals("minlat"))
-	    		  osmMinLat = Double.valueOf(parser.getAttributeValue(i));
-	    	  else if (parser.getAttributeLocalName(i).equals("maxlat"))
-	    		  osmMaxLat = Double.valueOf(parser.getAttributeValue(i));
-	    	  else if (parser.getAttributeLocalName(i).equals("minlon"))
-	    		  osmMinLon = Double.valueOf(parser.getAttributeValue(i));
-	    	  else if (parser.getAttributeLocalName(i).equals("maxlon"))
-	    		  osmMaxLon = Double.valueOf(parser.getAttributeValue(i));
-	    	  else
-	    		  //should never be called
-	    		  printUnknownAttribute("bounds", i);
-  	  }
-  	  
-  	  //print min,max lat/lon of OSM-file
-  	  System.out.println("OSM-file boundary min(Lat/Lon),max(Lat/Lon) : ("+
-  			  			  osmMinLat+", "+osmMinLon+"),("+osmMaxLat+", "+osmMaxLon+")");
-	}
-	
-	
-	/**
-	 * Handles OSM tag 
-	 */
-	public static void osmHandler(){
-		//read OSM general info
-		for ( int i=0; i < parser.getAttributeCount(); i++){
-			if (parser.getAttributeLocalName(i).equals("version"))
-				osmVersion = parser.getAttributeValue(i);
-			else if (parser.getAttributeLocalName(i).equals("generator"))
-				osmGenerator = parser.getAttributeValue(i);
-		}
-		//print these info
-		System.out.println("Parsing "+xmlFile.getName()+"...\nOSM-Version: "+osmVersion+"\nGenerator: "+osmGenerator);
-	}
-	
-	/**
-	 * Handler for XML tags
-	 */
-	public static void tagHandler(){
-		for ( int i = 0; i < parser.getAttributeCount(); i++ ) {
-			//as all tags are (k)ey / (v)alue pairs (in this order) we remember the last key and halde the
-  		  	//assignment when we find a value.
-  		  	if (parser.getAttributeLocalName(i).equals("k"))
-  		  		lastkey=parser.getAttributeValue(i);
-  		  	//check value
-  		  	else if (parser.getAttributeLocalName(i).equals("v")){
-  		  		if (lastkey.equals("created_by") || lastkey.equals("visible")){
-  		  			//ignore
-  		  			lastkey="";
-  		  		}	
-  		  		else if (lastkey.equals("highway")){
-  		  			highway=parser.getAttributeValue(i);
-  		  			if (highway.equals("service"))
-  		  				//System.out.println("Service route, way id="+id);
-  		  				wayNotNeeded=true;	//we don't need this way
-  		  		}
-  		  		else if (lastkey.equals("motorcar"))
-  		  			motorcar=parser.getAttributeValue(i);
-  		  		else if (lastkey.equals("oneway"))
-  		  			oneWay=Boolean.valueOf(parser.getAttributeValue(i)).booleanValue();
-  		  		else if (lastkey.equals("lanes"))
-  		  			lanes=parser.getAttributeValue(i);
-  		  		else if (lastkey.equals("name"))
-  		  			name=parser.getAttributeValue(i);
-  		  		else if (lastkey.equals("railway") && parser.getAttributeValue(i).equals("tram")){
-  		  			meansOfTransport|=TransformOSMData.TRAM; 	// mark as tram railway
-  		  			//System.out.println("tram-trailway Nr."+(++tramTags)+" way id="+id);
-  		  		}
-  		  		/*
-  		  		else if (lastkey.equals("tracks")){
-  		  			System.out.println("tracks="+parser.getAttributeValue(i)+" Nr."+(++trackTags)+" id="+id);
-  		  		}
-  		  		*/
-  		  		else if (lastkey.equals("area") && parser.getAttributeValue(i).equals("yes"))
-  		  			wayNotNeeded=true;
-  		  		/*
-  		  		if(primType=="node")
-  		  			System.out.print("nodeID: "+id+" "+lastkey+"="+parser.getAttributeValue(i)+"\n");
-  		  		*/
-  		  	}
-	    	else 
-	    		//we should never end here
-	    		printUnknownAttribute("tag", i);
-  	  	}
-	}
-	
-	
-	/** 
-	 * Check the command line arguments
-	 * 
-	 * @param args
-	 * @return
-	 */
-	private static boolean checkArgs(String[] args){
-		
-		//application must be started with argument(s)!
-		if (args.length == 0)
-			return false;
-		
-		//current argument position
-		int argPos=0;
-		
-		//first argument must be the XML file, try to open it
-		try {
-			xmlFile = new MyFile( args[argPos]);
-			parser = factory.createXMLStreamReader( new FileInputStream( xmlFile));
-		} catch (FileNotFoundException e) {
-			System.err.println("Error, xml input file "+args[argPos]+" could not be found.");
-			return false;
-		} catch (XMLStreamException e) {
-			System.err.println("Error, the input File "+args[argPos]+" is no valid XML file.");
-			return false;
-		}
-		
-		//next argument
-		argPos++;
-		
-		//check if user wants to extract the whole map
-		if (args.length == 1) {
-			boundaries.add(new Boundary(TransformOSMData.CAR, xmlFile.getNameWithoutExt()));
-		}
-		//or tram routes of the whole map
-		else if (args[argPos].equals("-tram")){
-			boundaries.add(new Boundary(TransformOSMData.TRAM, xmlFile.getNameWithoutExt() + ".tram"));
-			argPos++;
-		}
-		
-		//save values during going through all arguments
-		String boundaryName="";
-		int meansOfTransport=0;
-		double minLat=0;
-		double minLon=0;
-		double maxLat=0;
-		double maxLon=0;
-		int motOffSet=0;
-		int argOffSet=0;
-		
-		//try to read rest of arguments
-		try {
-			while (argPos < args.length){
-				//set car as default means of transport, clean offset 
-				meansOfTransport=TransformOSMData.CAR;
-				motOffSet=0;
-				
-				//is argument a double value? if it is so, parse value
-				if (Tools.isDouble(args[argPos])){
-					//try to read values
-					minLat=Double.parseDouble(args[argPos]);
-					minLon=Double.parseDouble(args[argPos+1]);
-					maxLat=Double.parseDouble(args[argPos+2]);
-					maxLon=Double.parseDouble(args[argPos+3]);
-					//set offset
-					argOffSet=BOUNDARY_OFFSET;
-					//set boundary name
-					boundaryName="boundary" + (++boundaryCounter);
-				}
-				//otherwise it must an gps trace
-				else {
-					//try to read GPS trace file
-					GPSTrace gpsTrace = new GPSTrace(args[argPos]);
-					//read gps values
-					minLat=gpsTrace.getMinGPSLat();
-					minLon=gpsTrace.getMinGPSLon();
-					maxLat=gpsTrace.getMaxGPSLat();
-					maxLon=gpsTrace.getMaxGPSLon();
-					//set offset
-					argOffSet=GPS_TRACE_OFFSET;
-					//set boundary name
-					boundaryName=gpsTrace.getFileNameWithoutEx();
-				}
-				
-				// check if tram routes need to be extracted
-				if((argPos+argOffSet < args.length) &&
-				   (args[argPos+argOffSet].equals("-tram"))){
-						//notice, change boundary name and set offset
-						meansOfTransport=TransformOSMData.TRAM;
-						boundaryName=boundaryName + ".tram";
-						motOffSet=1;
-				}
-				
-				//create new boundary for user inputs
-				boundaries.add(new Boundary(minLat, minLon, maxLat, maxLon, MAP_BUFFER, meansOfTransport,boundaryName));
-				
-				//change current argument position to new unread position
-				argPos += (argOffSet+motOffSet);
-			}
-		} catch(Exception e) {
-			e.printStackTrace();
-			return false;
-		}
-		
-		//everything is fine
-		return true;
-	}
-	
-	/**
-	 * Print a small usageinfo
-	 */
-	private static void printUsage(String[] args){
-		//print instruction how to use OSMStAXParser
-		System.out.println("OSMStaxParser:\n" +
-				"This Parser converts an OpenStreetMap XML File\n"+
-				"into a Routing Graph for use with GeoAN JavaME and JavaSE\n"+
-				"Peers.\n"+
-				"Allowed arguments: OsmXMLfile [GPSTraceFile | minLat minLon maxLat maxLon] [-tram]\n"+
-				"You entered following " + args.length + " arguments:" );
-		
-		//print arguments
-		for (String arg : args) System.out.println("\"" + arg + "\"");
-	}
-	
-	/**
-	 * prints unknown attributes and their values
-	 * 
-	 * @param tagName	tag name to which unknown attribute belongs
-	 * @param attrIndex	index position of attribute inside tag
-	 */
-	private static void printUnknownAttribute(String tagName, int attrIndex)
-	{
-		System.out.println("unknown " + tagName + " attribute: " +
-	  						parser.getAttributeLocalName(attrIndex) + 
-	  						"=" + parser.getAttributeValue(attrIndex));
-	}
-	
-	/**
-	 * Parses the XML file to a dynamic osmData Datastructure
-	 * @return
-	 */
-	private static boolean parseXML(){		
-		//start reading xml data via "stream"
-		try {
-		  parser_loop:
-			  
-			while ( parser.hasNext() ) 
-			{ 
-				boolean Systemoutprint = false;		
-				  				
-				if (Systemoutprint) System.out.println( "Event: " + parser.getEventType() );
-				switch (parser.getEventType()) 
-				{ 
-				case XMLStreamConstants.START_DOCUMENT: 
-					if (Systemoutprint) System.out.println( "START_DOCUMENT: " + parser.getVersion() ); 
-					break; 
-
-				case XMLStreamConstants.END_DOCUMENT: 
-					if (Systemoutprint) System.out.println( "END_DOCUMENT: " ); 
-					parser.close(); 
-					break; 
-
-				case XMLStreamConstants.NAMESPACE: 
-					if (Systemoutprint) System.out.println( "NAMESPACE: " + parser.getNamespaceURI() ); 
-					break; 
-
-				case XMLStreamConstants.START_ELEMENT: 
-					spacer.append( "  " ); 
-					if (Systemoutprint) System.out.println( /*spacer + */ "START_ELEMENT: " + parser.getLocalName() + "\n" ); 
-
-					if (parser.getLocalName()=="node")
-					{
-						//handle nodes
-						nodeHandler();
-					}
-					else if (parser.getLocalName()=="way"){	 
-						//handle ways
-						wayHandler();
-						if (Systemoutprint) System.out.println("Way!\n");
-					}
-					else if (parser.getLocalName()=="nd"){
-						//handle node references in ways
-						referenceHandler();
-					}
-					else if (parser.getLocalName()=="tag"){
-						//handle tags in ways
-						tagHandler();
-					}
-					else if (parser.getLocalName()=="bounds"){
-						//handle boundary of the XLM file
-						boundsHandler();
-					}
-					else if (parser.getLocalName()=="osm"){
-						//handle general OSM info
-						osmHandler();
-					}
-					else if (parser.getLocalName()=="relation"){
-						// stop parsing file, leave while loop, actually we don't this block at the moment
-						parser.close();
-						break parser_loop;
-					}
-					break; 
-
-				case XMLStreamConstants.CHARACTERS: 
-					if ( ! parser.isWhiteSpace() ){ 
-						//System.out.println( spacer + "  CHARACTERS: " + parser.getText() );
-						;
-					}
-					break; 
-
-				case XMLStreamConstants.END_ELEMENT: 
-					// Save way
-					if (parser.getLocalName()=="way" && !wayNotNeeded)
-						addWay(); 
-					//System.out.println( spacer + "END_ELEMENT: " + parser.getLocalName() ); 
-					spacer.delete(spacer.length()-2, spacer.length()); 
-					break; 
-
-				default: 
-					break; 
-				} 
-				parser.next(); 
-			}
-		} catch (XMLStreamException e) {
-			System.err.println("Error parsing XML File!");
-			return false;
-		} 
-		return true;
-	}
-
-	/**
-	 * @param args
-	 */
-	public static void main(String[] args) {
-
-		Long workingNodeID = new Long(0);
-		
-		//measure time when program starts
-		progStartTime = System.currentTimeMillis();
-		
-		
-		//check arguments
-		if (!checkArgs(args)){
-			printUsage(args);
-			return;
-		}
-		
-		/*
-		for(Boundary bound : boundaries){
-			System.out.println(bound.getBoundaryName());
-			System.out.println(bound.getMinLat());
-			System.out.println(bound.getMinLon());
-			System.out.println(bound.getMaxLat());
-			System.out.println(bound.getMaxLon());
-			System.out.println(bound.getMeansOfTransport() + "\n");
-		}
-		System.exit(0);
-		*/
-		
-		
-		//parse OSM data in given file
-		if(parseXML())
-		{
-			//measure interim time
-			calculationTime=System.currentTimeMillis() - progStartTime;
-			
-			for (Boundary boundary : boundaries)
-			{
-				//notice start time for each loop
-				sectionStartTime=System.currentTimeMillis();
-				
-				//get node list of boundary
-				Hashtable<Long, OSMNode> nodeList = boundary.getNodeList();
-		
-				//create new routing way
-				routingWays = new Vector<OSMWay>();
-				
-				//generate a routing graph out of the OSM Data
-				//STEP 1: split up all ways that have inner nodes that are outer nodes for other ways.
-				for (Map.Entry<Long, OSMWay> mapEntry : boundary.getOSMWays().entrySet())
-				{
-					//take an OSM way out of hash table
-					OSMWay workingWay = mapEntry.getValue();
-				
-					//for every part way in this OSM way...
-					for(Vector<Long> partWay : workingWay.getOSMPartWays())
-					{
-						//take node list of part way
-						Vector<Long> wayNodes = new Vector<Long>();
-					
-						//add first node to way
-						wayNodes.add(partWay.firstElement());
-					
-						for (int j=1;j < partWay.size();j++)
-						{
-							workingNodeID = partWay.elementAt(j);
-							//ad the split node to the new wayNodes List
-							wayNodes.add(workingNodeID);
-
-							//do we need to split this way at this node?
-							//we need to if
-							//a) the workingNode (which is an inner Node for this way!) is an outer node for another way
-							//b) the workingNode is an inner Node for more than one way.
-							if ( ((OSMNode)nodeList.get(workingNodeID)).getOuterNodeCount() > 0 || 
-									((OSMNode)nodeList.get(workingNodeID)).getInnerNodeCount() > 1)
-							{
-
-								//add the new routingWay to the routingWays Vector
-								routingWays.add(new OSMWay(workingWay,wayNodes));
-								//create a new wayNodes Vector and add the splitnode to it as next "start" node
-								wayNodes = new Vector<Long>();
-								wayNodes.add(workingNodeID);
-							}
-						}
-					}
-				}
-
-				//STEP 2: count how many nodes and edges the graph will get
-				//so we can initialize the graph structure as needed
-				Hashtable<Long, Integer> nodeIDtoIndex = new Hashtable<Long, Integer>();
-				
-				for(OSMWay workingWay : routingWays){
-					//if desired mean of transport can use this way, add to graph
-					if (workingWay.getMeansOfTransportPermission(boundary.getMeansOfTransport())){
-			
-						//get start node of way
-						Long start = workingWay.getStart();
-
-						//add the start node to the Graph
-						if (!nodeIDtoIndex.containsKey(start)){
-							nodeIDtoIndex.put(start, new Integer(nodes));
-							nodes++;
-						}
-						
-						//get target node of way
-						Long target = workingWay.getTarget();
-						
-						//add the target node to the Graph
-						if (!nodeIDtoIndex.containsKey(target)){
-							nodeIDtoIndex.put(target, new Integer(nodes));
-							nodes++;
-						}
-						
-						//add the Edge to the graph
-						if (workingWay.isOneWay())
-							edges++;
-						else
-							edges+=2;		
-					}
-				}
-
-				membefore=memUsage(); //remember the memory usage before we start building the graph
-
-				//STEP 3: As we now know how many nodes and edges the graph will have we can create the graph structure
-				//generate a new routingGraph, clear variables
-				Graph routingGraph = new Graph(nodes,edges);
-				totalStreetLength=0;
-				edges=0;
-				nodes=0;
-
-				//add all ways to the graph
-				int edgeNumber = 0;
-				
-				for(OSMWay workingWay : routingWays){
-					
-					if (workingWay.getMeansOfTransportPermission(boundary.getMeansOfTransport())){
-
-						Vector<Long> workingOSMNodes = workingWay.getOSMPartWay();
-						int numOSMNodes = workingOSMNodes.size();
-						
-						double[] betweenLat = new double[numOSMNodes -2];
-						double[] betweenLon = new double[numOSMNodes -2];
-
-						long[] betweenId = new long[numOSMNodes -2];
-						
-						int[] betweenDistFromEdgeStart = new int[numOSMNodes -2]; 
-						
-						int distance = 0;
-						int nodedist = 0;
-							
-						double targetlon;
-						double targetlat;
-						long targatid;
-						Long start = workingWay.getStart();
-						double startlon = ((OSMNode)nodeList.get(start)).getLongitute();
-						double startlat = ((OSMNode)nodeList.get(start)).getLatitude();
-						long startid = ((OSMNode)nodeList.get(start)).getId();
-
-						//add the start node to the Graph
-						routingGraph.addNode( ((Integer)nodeIDtoIndex.get(start)).intValue() , startid, startlon, startlat);
-
-						for (int j=1; j<numOSMNodes;j++)
-						{
-							Long target = (Long) workingOSMNodes.elementAt(j);
-							targetlon = ((OSMNode)nodeList.get(target)).getLongitute();
-							targetlat = ((OSMNode)nodeList.get(target)).getLatitude();
-							targatid = ((OSMNode)nodeList.get(target)).getId();
-							nodedist = Tools.distance(startlat,startlon,targetlat,targetlon);
-							distance += nodedist;
-							
-							if (j<numOSMNodes -1)
-							{
-								//add between nodes lat, lon and dist
-								betweenLat[j-1] = targetlat;
-								betweenLon[j-1] = targetlon;
-								
-								betweenId[j-1] = targatid;
-								
-								betweenDistFromEdgeStart[j-1] = distance;
-							}
-
-							start = target;
-							startlon=targetlon;
-							startlat=targetlat;
-							startid=targatid;
-						}
-						
-						//add the totalStreetLength
-						totalStreetLength+=distance;
-
-						//add the target node to the Graph
-						routingGraph.addNode( ((Integer)nodeIDtoIndex.get(start)).intValue() , startid, startlon, startlat);
-
-						//create the new Edge
-						Edge newEdge = new Edge(workingWay.getId() ,workingWay.getMaxSpeed(),workingWay.getCarPermission(),workingWay.getLanes(),
-								workingWay.getHighwayType(),workingWay.getName(),
-								((Integer)nodeIDtoIndex.get(workingWay.getTarget())).intValue(),distance,
-								betweenDistFromEdgeStart, betweenLon, betweenLat, betweenId);
-
-						//add the Edge to the graph
-						routingGraph.addEdge(((Integer)nodeIDtoIndex.get(workingWay.getStart())).intValue(), 
-								edgeNumber++, newEdge);
-
-						//add a second edge in the opposite direction if the way is not oneway
-						if (!workingWay.isOneWay()){
-							//first we need to reverse the betweenlists and recalculate the distances!
-							double[] betweenLatRev = new double[numOSMNodes -2];
-							double[] betweenLonRev = new double[numOSMNodes -2];
-							
-							long[] betweenIdRev = new long[numOSMNodes -2];
-							
-							int[] betweenDistFromEdgeStartRev = new int[numOSMNodes -2]; 
-							
-							for (int k=0; k<numOSMNodes -2; k++)
-							{
-								betweenLatRev[k] = betweenLat[numOSMNodes - 3 - k];
-								betweenLonRev[k] = betweenLon[numOSMNodes - 3 - k];
-								
-								betweenIdRev[k] = betweenId[numOSMNodes - 3 - k];
-								
-								betweenDistFromEdgeStartRev[k] = distance - betweenDistFromEdgeStart[numOSMNodes - 3 - k];
-							}
-							
-							newEdge = new Edge(workingWay.getId(), workingWay.getMaxSpeed(),workingWay.getCarPermission(),workingWay.getLanes(),
-									workingWay.getHighwayType(),workingWay.getName(),
-									((Integer)nodeIDtoIndex.get(workingWay.getStart())).intValue(),distance,
-									betweenDistFromEdgeStartRev, betweenLonRev, betweenLatRev, betweenIdRev);
-							//add the Edge to the graph
-							routingGraph.addEdge(((Integer)nodeIDtoIndex.get(workingWay.getTarget())).intValue(), 
-									edgeNumber++, newEdge);
-						}
-					}
-				}
-				
-				//how long took calculation time? add to overall calculation time
-				calculationTime += System.currentTimeMillis() - sectionStartTime;
-
-				//normalize the coordinates of all data in the routinggraph to the range of 0.0 - 100.0
-				
-				//FIXME: why normalization?
-				//routingGraph.normalize(0.0, 100.0);
-
-				//FIXME: instead of normalization we now add the bounds the osm file tells us
-				routingGraph.setDimensions(osmMinLon, osmMaxLon, osmMinLat, osmMaxLat);
-
-				System.out.println("\nOverall only "+routingGraph.nodeCount()+" of "+nodeList.size()+" nodes are "+
-				"used for the routinggraph.");
-				System.out.println("But we started with "+boundary.getOSMWays().size()+" undirected edges and ended with "
-						+routingGraph.edgeCount()+" directed edges.");
-				System.out.println("This Graph covers a streetlength (undirected edges) of "+totalStreetLength+ " meters.");
-
-				//just for me ;)
-				memafter = memUsage(); //check the memusage after building the graph
-				System.out.println("For this graph the runtime uses: "+(memafter-membefore)+" MB");
-
-				String s = "";
-				
-				System.out.println("Writing the " + boundary.getBoundaryName() + ".routing.graph.small to disk!");
-				//and now we try to write the graph to a file
-				File f= new File(boundary.getBoundaryName() + ".routing.graph.small");
-				
-				s = boundary.getBoundaryName() + ".routing.graph.small";
-				
-				s = s + "";
-				
-				//measure writing time
-				sectionStartTime = System.currentTimeMillis();
-				
-				try {
-					//delete the file if it already exists
-					if (f.exists()){
-						f.delete();
-					}
-					//create a new file
-					f.createNewFile();
-					//open a new fileoutputstream and a corresponding dataoutputstream on the fileoutputstream
-					FileOutputStream fos = new FileOutputStream(f);
-					DataOutputStream dos = new DataOutputStream(fos);
-
-					//serialize the routingGraph
-					
-					int ss = dos.size();
-					
-					routingGraph.toDataStream(dos,false);
-					dos.flush();
-					dos.close();
-					fos.flush();
-					fos.close();
-				} catch (IOException e) {
-					System.out.println("Error writing routing.graph.small");
-				}
-
-				System.out.println("Writing the " + boundary.getBoundaryName() + ".routing.graph.large to disk!");
-				//and now we try to write the graph to a file
-				f= new File(boundary.getBoundaryName() + ".routing.graph.large");
-
-				try {
-					//delete the file if it already exists
-					if (f.exists()){
-						f.delete();
-					}
-					//create a new file
-					f.createNewFile();
-					//open a new file output stream and a corresponding data output stream on the fileoutputstream
-					FileOutputStream fos = new FileOutputStream(f);
-					DataOutputStream dos = new DataOutputStream(fos);
-
-					//serialize the routingGraph
-					routingGraph.toDataStream(dos,true);
-					dos.flush();
-					dos.close();
-					fos.flush();
-					fos.close();
-				} catch (IOException e1) {
-					System.out.println("Error writing routing.graph.large");
-				}
-				
-				//measure time took to write
-				writingTime += System.currentTimeMillis() - sectionStartTime; 
-				
-				System.out.println("Writing done!");
-			}	
-			
-			//measure time when finished
-			runtimeLength = System.currentTimeMillis() - progStartTime;
-			
-			// print all measured times
-			System.out.println("\nCalculation runtime: "+ ((float) calculationTime / 1000) +"sec");
-			System.out.println("Writing time: " + ((float) writingTime / 1000) +" sec");
-			System.out.println("Overall runtime: "+ ((float) runtimeLength / 1000) +" sec");	
-		}
-	}
-}
+package osmstaxparser;
+import gps.GPSTrace;
+import graph.ChainContraction;
+import graph.CompactGraphWriter;
+import graph.ComponentPruning;
+import graph.Graph;
+import graph.GraphTiler;
+import graph.GraphWriter;
+import graph.HilbertOrdering;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPInputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import boundary.Boundary;
+import boundary.BoundaryIndex;
+
+import osmData.BoundaryNodes;
+import osmData.MappedNodeLocations;
+import osmData.NodeStore;
+import osmData.OSMWay;
+import osmData.TransformOSMData;
+import osmReader.NodeFilter;
+import osmReader.OSMDataHandler;
+import osmReader.OSMXMLRangeReader;
+import osmReader.OSMXMLScanner;
+import osmReader.PBFReader;
+import tools.DistanceEngine;
+import tools.LongIntMap;
+import tools.LongSet;
+import tools.MyFile;
+import tools.ParallelBZip2InputStream;
+import tools.TimedInputStream;
+import tools.Tools;
+
+/**
+ * 
+ * This class implements a StAX Parser for OSM XLM Files.
+ * The result will be saved to a file called routing.graph
+ * 
+ * @author Norbert Goebel
+ * @author Daniel Sathees Elmo
+ *
+ */
+
+public class OSMStAXParser {
+	
+	//map boundary buffer
+	static final double MAP_BUFFER = 0.0025;
+	
+	//definition in Open Street Map
+	static final int MIN_WAYSIZE=2;
+	static final int MAX_WAYSIZE=2000;
+	static final int MAX_PARTWAYS=MAX_WAYSIZE-1;
+	
+	//arguments reading offset constants
+	static final int BOUNDARY_OFFSET=4;
+	static final int GPS_TRACE_OFFSET=1;
+	
+	//XML classes
+	static XMLInputFactory factory = XMLInputFactory.newInstance(); 
+	static XMLStreamReader parser;
+	
+	//file class to access XML file
+	static MyFile xmlFile;
+	
+	//OSM input file, known extensions are removed for the boundary names
+	static final String[] OSM_EXTENSIONS = {".osm", ".pbf", ".gz", ".bz2"};
+	static InputStream osmInput;
+	static boolean pbfInput=false;
+	
+	//read XML files with the byte scanner instead of the StAX parser
+	static boolean xmlScanner=false;
+	
+	//scan the nodes of uncompressed XML files in byte ranges on several threads
+	static boolean splitXML=false;
+	
+	//gzip or bzip2 compressed input, measures the time the parser waits for uncompressed data
+	static TimedInputStream decompressedInput=null;
+	
+	//two pass extraction, only keep nodes referenced by routable ways
+	static boolean wayNodesOnly=false;
+	static boolean collectingWayNodes=false; //true while the first pass collects the way nodes
+	static LongSet wayNodeIDs=null;
+	
+	//optional memory mapped file to keep node coordinates off the heap
+	static File nodeCacheFile=null;
+	static MappedNodeLocations nodeLocations=null;
+	
+	//number of threads decoding the input file
+	static int threads=Runtime.getRuntime().availableProcessors();
+	
+	//remove strongly connected components not needed, keep the largest and those with at least pruneSize nodes
+	static boolean pruneComponents=false;
+	static int pruneSize=0;
+	
+	//merge chains of edges with equal attributes before writing the graph
+	static boolean contractChains=false;
+	
+	//number the nodes along a Hilbert curve, so nodes close to each other are stored close to each other
+	static boolean reorderNodes=false;
+	
+	//approximate the lengths of short edge parts instead of using the haversine formula
+	static boolean fastDistance=false;
+	
+	//write the street names once in a name table, edges refer to them by index
+	static boolean nameTable=false;
+	
+	//write the graph files in the compact format, deflateGeometry compresses the between nodes of the large file
+	static boolean compactFormat=false;
+	static boolean deflateGeometry=false;
+	
+	//write the between nodes into a routing.graph.geometry file instead of writing a routing.graph.large file
+	static boolean geometryFile=false;
+	
+	//size of the tiles in degrees the graph is split into, 0 writes one graph per boundary
+	static double tileSize=0;
+	
+	//OSM XML file info
+	static String osmVersion="";
+	static String osmGenerator="";
+	
+	//Vector to save all boundaries user entered, counter for unnamed boundaries
+	static Vector<Boundary> boundaries = new Vector<Boundary>();
+	
+	//grid over the boundaries, grid cell of each node stored in a gridded boundary
+	static BoundaryIndex boundaryIndex;
+	
+	//coordinates and counters of the nodes of all boundaries, index of the current node in it
+	static NodeStore nodeTable;
+	static int nodeIndex;
+	static LongIntMap nodeCells=null;
+	static int[] boundaryStamps; //marks boundaries already found for the current way
+	static int wayStamp=0;
+	static int boundaryCounter = 0;
+	
+	//OSM informations
+	static String primType=""; //notice which element (data primitive) we handle (e.g. node, way, relation, member etc...)
+	static Long id=new Long(0); //this is intentionally a Long and not a long as hash table needs objects as keys.
+	static double latitude=0;
+	static double longitude=0;
+	static boolean oneWay=false;
+	static boolean error=false;
+	static boolean wayNotNeeded = false; //if we don't need this way (like areas or service routes)
+	static String lanes="1";
+	static int maxSpeed=-1;
+	static String motorcar="";
+	static String highway="";
+	static String name="";
+	static String lastkey=""; 
+	static int meansOfTransport=TransformOSMData.DEFAULT;
+	
+	//street names of the saved ways, every name is kept once
+	static HashMap<String, String> streetNames = new HashMap<String, String>();
+	
+	//we use vectors to save way nodes and part ways
+	static Vector<Long> wayNodes = new Vector<Long>(MAX_WAYSIZE);
+	
+	//spacer to check XML formation
+	static StringBuilder spacer = new StringBuilder();
+
+	//store bounds of OSM-file
+	static double osmMinLat=  -Double.MAX_VALUE; 
+	static double osmMinLon=  -Double.MAX_VALUE;
+	static double osmMaxLat=  Double.MAX_VALUE;
+	static double osmMaxLon=  Double.MAX_VALUE;
+		
+	//building graphs of several boundaries at once, memory a graph is estimated to need per node of its boundary,
+	//a heuristic: building a 2 million node graph raised the heap peak by 110 bytes per node, 230 with -prune -contract -reorder
+	static final double GRAPH_MEMORY_SHARE = 0.8;
+	static final int GRAPH_BYTES_PER_NODE = 256;
+	
+	//variables to measure runtime performance
+	static long progStartTime=0;
+	static long calculationTime=0;
+	static long parsingTime=0;
+	static long decompressionTime=0;
+	static long bzip2DecodingTime=0;
+	static long writingTime=0;
+	static long runtimeLength=0;
+	
+	/**
+	 * calculates memUsage in MB
+	 * @return
+	 */
+	public static double memUsage(){
+		Runtime rt = Runtime.getRuntime();
+        double mem = (rt.totalMemory() - rt.freeMemory()) / (1024.0 * 1024.0);
+        return mem = Math.round(mem * 100) / 100.0;
+	}
+	
+	/**
+	 * Handles OSM Nodes
+	 */
+	public static void nodeHandler(){
+		//mark that we handle a node
+		primType="node";
+		
+		//read node data
+		for ( int i = 0; i < parser.getAttributeCount(); i++ ) {
+	    	  if (parser.getAttributeLocalName(i)=="id")
+	    		  id=Long.valueOf(parser.getAttributeValue(i));
+	    	  else if (parser.getAttributeLocalName(i)=="lat")
+	    		  latitude=Double.valueOf(parser.getAttributeValue(i)).doubleValue();
+	    	  else if (parser.getAttributeLocalName(i)=="lon")
+	    		  longitude=Double.valueOf(parser.getAttributeValue(i)).doubleValue();
+	    	  /*
+	    	  else
+	    		  //should never be called
+	    		  printUnknownAttribute("node", i);
+	  		  */
+	    }
+		
+		//store the node
+		addNode();
+	}
+	
+	/**
+	 * Save OSM Node (id, longitude and latitude of the current node)
+	 */
+	public static void addNode(){
+		//in two pass mode we skip all nodes no routable way refers to
+		if (wayNodeIDs != null && !wayNodeIDs.contains(id.longValue()))
+			return;
+		
+		//add node for each boundary, if node is included, only boundaries of the node's grid cell are tested
+		int cell = boundaryIndex.getCell(longitude, latitude);
+		nodeIndex = -1;
+		putNode(boundaryIndex.getLargeBoundaries());
+		//ways look for their boundaries in the cells of their nodes
+		if (putNode(boundaryIndex.getBoundaries(cell)))
+			nodeCells.put(id.longValue(), cell);
+	}
+	
+	/**
+	 * Adds the current node to the candidate boundaries containing it,
+	 * the node is stored once in the shared node store
+	 * @param candidates positions of the boundaries in the boundary index
+	 * @return true if any of the candidates contains the node
+	 */
+	private static boolean putNode(int[] candidates){
+		boolean contained = false;
+		for (int position : candidates)
+		{
+			Boundary boundary = boundaryIndex.getBoundary(position);
+			//if boundary contains node, add node to the boundary 
+			if (contains(boundary, longitude, latitude)){
+				if (nodeIndex < 0){
+					//coordinates are written once to the node location file for all boundaries
+					if (nodeLocations != null)
+						storeNodeLocation();
+					nodeIndex = nodeTable.put(id.longValue(), longitude, latitude);
+				}
+				boundary.getNodeList().add(nodeIndex);
+				contained = true;
+			}
+		}
+		return contained;
+	}
+	
+	/**
+	 * @param nodeLongitude
+	 * @param nodeLatitude
+	 * @return true if any boundary contains the position
+	 */
+	private static boolean inBoundaries(double nodeLongitude, double nodeLatitude){
+		for (int position : boundaryIndex.getLargeBoundaries()){
+			if (contains(boundaryIndex.getBoundary(position), nodeLongitude, nodeLatitude))
+				return true;
+		}
+		for (int position : boundaryIndex.getBoundaries(boundaryIndex.getCell(nodeLongitude, nodeLatitude))){
+			if (contains(boundaryIndex.getBoundary(position), nodeLongitude, nodeLatitude))
+				return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * @param boundary
+	 * @param nodeLongitude
+	 * @param nodeLatitude
+	 * @return true if the boundary contains the position
+	 */
+	private static boolean contains(Boundary boundary, double nodeLongitude, double nodeLatitude){
+		return nodeLongitude >= boundary.getMinLon() && nodeLongitude <= boundary.getMaxLon() &&
+			nodeLatitude >= boundary.getMinLat() && nodeLatitude <= boundary.getMaxLat();
+	}
+	
+	/**
+	 * writes the coordinates of the current node to the node location file
+	 */
+	private static void storeNodeLocation(){
+		try {
+			nodeLocations.put(id.longValue(), longitude, latitude);
+		} catch (IOException e) {
+			throw new IllegalStateException("Error writing node location file "+nodeCacheFile.getPath(), e);
+		}
+	}
+	
+	/**
+	 * Handles OSM ways
+	 */
+	public static void wayHandler(){
+		/*
+		System.out.println(nodeVector.size()+" Nodes in "+
+						((float)(System.currentTimeMillis()-progStartTime) / 1000.0) +" s eingelesen!");
+		System.exit(0);
+		*/
+		
+		//mark that we handle a new way
+		startWay();
+		
+  	  	//now we check all Attributes of the way element
+  	  	for ( int i = 0; i < parser.getAttributeCount(); i++ ) {
+  	  		if (parser.getAttributeLocalName(i).equals("id"))
+  	  			id=Long.valueOf(parser.getAttributeValue(i));
+  	  		/*
+  	  		else if (parser.getAttributeLocalName(i).equals("timestamp"))
+  	  			//ignore
+  	  			;
+  	  		else if (parser.getAttributeLocalName(i).equals("created_by"))
+	    		//ignore
+  	  			;
+  	  		else if (parser.getAttributeLocalName(i).equals("visible"))
+  	  			//ignore
+  	  			;
+  	  		else if (parser.getAttributeLocalName(i).equals("user"))
+  	  			//ignore
+  	  			;
+	    	else
+	    		//should never be called
+	    		printUnknownAttribute("way", i);
+  	  		*/
+  	  	}
+	}
+	
+	/**
+	 * Mark that we handle a way and clear all leftover values
+	 */
+	public static void startWay(){
+		//mark that we handle a way, assume we need this way!
+		primType="way";
+		wayNotNeeded=false;
+		
+		//first we clear all leftover values:
+  	  	id= new Long(0);
+  	  	latitude=0;
+  	  	longitude=0;
+  	  	oneWay=false;
+  	  	lanes="1";
+  	  	motorcar="";
+  	  	highway="";
+  	  	name="";
+  	  	lastkey="";
+  	  	maxSpeed=-1; //set to -1 to check if it really was set in OSM database
+  	  	meansOfTransport=TransformOSMData.DEFAULT;
+  	  	
+  	  	//initialize new vectors to store part ways and their nodes
+  	  	wayNodes = new Vector<Long>(MAX_WAYSIZE);
+  	  	//partWays = new Vector<Vector<Long>>(MAX_PARTWAYS);
+	}
+	
+	/**
+	 * Finishes the current way, it will be saved if it is needed
+	 */
+	public static void endWay(){
+		if (wayNotNeeded)
+			return;
+		
+		if (collectingWayNodes)
+			collectWayNodes();
+		//in two pass mode ways like buildings or landuse lost their nodes, skip them
+		else if (wayNodeIDs == null || isRoutableWay())
+			addWay();
+	}
+	
+	/**
+	 * Handles XML References
+	 */
+	public static void referenceHandler(){
+		//safe all nodes that belongs to a way
+		for ( int i = 0; i < parser.getAttributeCount(); i++ ) {
+			if (parser.getAttributeLocalName(i)=="ref")
+    	  	  	wayNodes.add(Long.valueOf(parser.getAttributeValue(i)));
+			else 
+				//should never be called
+				printUnknownAttribute("nd", i);
+		}
+	}
+	
+	/**
+	 * Save OSM Way
+	 */
+	public static void addWay()
+	{	
+		//ways with the same name share one string
+		name = internName(name);
+		
+		//indices of the way nodes in the shared node store, -1 for nodes of no boundary
+		int[] indices = new int[wayNodes.size()];
+		for (int i=0; i<indices.length; i++)
+			indices[i] = nodeTable.indexOf(wayNodes.elementAt(i).longValue());
+		
+		//the shared counters count the way as if no boundary clips it
+		changeNodeCounts(null, indices, 1);
+		
+		//save ways for each boundary, if they cross those
+		for (int position : wayBoundaries()){
+			Boundary boundary = boundaryIndex.getBoundary(position);
+			BoundaryNodes nodeList = boundary.getNodeList();
+			
+			//store nodes of a part way
+			Vector<Long> partWayNodes = new Vector<Long>();
+			Vector<Vector<Long>> partWays = new Vector<Vector<Long>>(MAX_PARTWAYS);
+			
+			//check if boundary contains every node, otherwise split up ways
+			for (int i=0; i<indices.length; i++){
+				Long nodeID = wayNodes.elementAt(i);
+				if (nodeList.contains(indices[i]))	//start a part way if boundary contains node
+					partWayNodes.add(nodeID);
+				else if (partWayNodes.size() >= MIN_WAYSIZE){	//is our part way long enough?
+					partWays.add(partWayNodes);
+					partWayNodes = new Vector<Long>(MAX_WAYSIZE);	//new vector for next part way
+				}
+				else								
+					partWayNodes.clear();	//otherwise delete/empty part way for next loop
+			}
+		
+			//if last nodes builds an part way, store it
+			if (partWayNodes.size() >= MIN_WAYSIZE)
+				partWays.add(partWayNodes);
+		
+			//a clipped way replaces the shared counts by the counts of its part ways in this boundary
+			if (partWays.size() != 1 || partWays.firstElement().size() != indices.length){
+				changeNodeCounts(nodeList, indices, -1);
+				for (Vector<Long> nodes : partWays){
+					int[] partIndices = new int[nodes.size()];
+					for (int i=0; i<partIndices.length; i++)
+						partIndices[i] = nodeTable.indexOf(nodes.elementAt(i).longValue());
+					changeNodeCounts(nodeList, partIndices, 1);
+				}
+			}
+
+			//insert way into data structure
+			if (!partWays.isEmpty())
+				boundary.getOSMWays().put(id, new OSMWay(id.longValue(), partWays, maxSpeed, oneWay,
+							lanes, motorcar, highway, name, meansOfTransport));
+		}
+		//if (partWays.size()>1)
+		//	System.out.println("Way (id="+id+") split in "+partWays.size()+" part Ways");
+	}
+	
+	/**
+	 * @param name
+	 * @return the string saved for this name before or name if it is new
+	 */
+	private static String internName(String name){
+		String saved = streetNames.get(name);
+		if (saved != null)
+			return saved;
+		streetNames.put(name, name);
+		return name;
+	}
+	
+	/**
+	 * Changes the counters of the nodes of a (part) way
+	 * @param nodeList boundary to change the counters for, null for the shared counters
+	 * @param indices indices of the way nodes in the shared node store
+	 * @param delta 1 to add the way, -1 to remove it
+	 */
+	private static void changeNodeCounts(BoundaryNodes nodeList, int[] indices, int delta){
+		if (indices.length < MIN_WAYSIZE)
+			return;
+		
+		//outerNodeCount for outer way nodes
+		changeOuterNodeCount(nodeList, indices[0], delta);
+		changeOuterNodeCount(nodeList, indices[indices.length-1], delta);
+		//innerNodeCount for inner way nodes
+		for (int i=1; i<indices.length-2;i++){
+			if (nodeList == null && indices[i] >= 0)
+				nodeTable.increaseInnerNodeCountAt(indices[i]);
+			else if (nodeList != null && nodeList.contains(indices[i]))
+				nodeList.addInnerNodeCount(indices[i], delta);
+		}
+	}
+	
+	/**
+	 * Changes the outerNodeCount of a node
+	 * @param nodeList boundary to change the counter for, null for the shared counter
+	 * @param index index of the node in the shared node store
+	 * @param delta
+	 */
+	private static void changeOuterNodeCount(BoundaryNodes nodeList, int index, int delta){
+		if (nodeList == null && index >= 0)
+			nodeTable.increaseOuterNodeCountAt(index);
+		else if (nodeList != null && nodeList.contains(index))
+			nodeList.addOuterNodeCount(index, delta);
+	}
+	
+	/**
+	 * Finds the boundaries the current way may cross: all large boundaries
+	 * and the gridded boundaries of the cells of its nodes
+	 * @return positions of the boundaries in the boundary index, in ascending order
+	 */
+	private static int[] wayBoundaries(){
+		int[] large = boundaryIndex.getLargeBoundaries();
+		if (nodeCells == null)
+			return large;
+		
+		int[] candidates = Arrays.copyOf(large, boundaryIndex.size());
+		int count = large.length;
+		wayStamp++;
+		int lastCell = -1;
+		for (Long nodeID : wayNodes){
+			int cell = nodeCells.get(nodeID.longValue(), -1);
+			if (cell < 0 || cell == lastCell)
+				continue;
+			lastCell = cell;
+			for (int position : boundaryIndex.getBoundaries(cell)){
+				if (boundaryStamps[position] != wayStamp){
+					boundaryStamps[position] = wayStamp;
+					candidates[count++] = position;
+				}
+			}
+		}
+		Arrays.sort(candidates, 0, count);
+		return Arrays.copyOf(candidates, count);
+	}
+	
+	/**
+	 * Remember all nodes of a routable way (first pass of two pass extraction)
+	 */
+	public static void collectWayNodes()
+	{
+		if (!isRoutableWay())
+			return;
+		
+		for (Long nodeID : wayNodes)
+			wayNodeIDs.add(nodeID.longValue());
+	}
+	
+	/**
+	 * checks if the current way can be used by the means of transport of any boundary
+	 * @return boolean
+	 */
+	public static boolean isRoutableWay()
+	{
+		//same means of transport flags an OSMWay gets
+		int wayMeansOfTransport = meansOfTransport;
+		if (TransformOSMData.carPermission(TransformOSMData.highwayType(highway), motorcar, id.longValue(), false) != 0)
+			wayMeansOfTransport |= TransformOSMData.CAR;
+		
+		for (Boundary boundary : boundaries){
+			if ((wayMeansOfTransport & boundary.getMeansOfTransport()) != 0)
+				return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * handles boundary tag
+	 */
+	public static void boundsHandler(){
+  	  //now we check all Attributes of the bounds
+  	  for ( int i = 0; i < parser.getAttributeCount(); i++ ) {
+	    	  if (parser.getAttributeLocalName(i).equals("minlat"))
+	    		  osmMinLat = Double.valueOf(parser.getAttributeValue(i));
+	    	  else if (parser.getAttributeLocalName(i).equals("maxlat"))
+	    		  osmMaxLat = Double.valueOf(parser.getAttributeValue(i));
+	    	  else if (parser.getAttributeLocalName(i).equals("minlon"))
+	    		  osmMinLon = Double.valueOf(parser.getAttributeValue(i));
+	    	  else if (parser.getAttributeLocalName(i).equals("maxlon"))
+	    		  osmMaxLon = Double.valueOf(parser.getAttributeValue(i));
+	    	  else
+	    		  //should never be called
+	    		  printUnknownAttribute("bounds", i);
+  	  }
+  	  
+  	  printBounds();
+	}
+	
+	/**
+	 * prints the bounds of the OSM file
+	 */
+	public static void printBounds(){
+  	  //print min,max lat/lon of OSM-file
+  	  System.out.println("OSM-file boundary min(Lat/Lon),max(Lat/Lon) : ("+
+  			  			  osmMinLat+", "+osmMinLon+"),("+osmMaxLat+", "+osmMaxLon+")");
+	}
+	
+	
+	/**
+	 * Handles OSM tag 
+	 */
+	public static void osmHandler(){
+		//read OSM general info
+		for ( int i=0; i < parser.getAttributeCount(); i++){
+			if (parser.getAttributeLocalName(i).equals("version"))
+				osmVersion = parser.getAttributeValue(i);
+			else if (parser.getAttributeLocalName(i).equals("generator"))
+				osmGenerator = parser.getAttributeValue(i);
+		}
+		printOSMInfo();
+	}
+	
+	/**
+	 * prints general info of the OSM file
+	 */
+	public static void printOSMInfo(){
+		//print these info
+		System.out.println("Parsing "+xmlFile.getName()+"...\nOSM-Version: "+osmVersion+"\nGenerator: "+osmGenerator);
+	}
+	
+	/**
+	 * Handler for XML tags
+	 */
+	public static void tagHandler(){
+		for ( int i = 0; i < parser.getAttributeCount(); i++ ) {
+			//as all tags are (k)ey / (v)alue pairs (in this order) we remember the last key and halde the
+  		  	//assignment when we find a value.
+  		  	if (parser.getAttributeLocalName(i).equals("k"))
+  		  		lastkey=parser.getAttributeValue(i);
+  		  	//check value
+  		  	else if (parser.getAttributeLocalName(i).equals("v"))
+  		  		addTag(lastkey, parser.getAttributeValue(i));
+	    	else 
+	    		//we should never end here
+	    		printUnknownAttribute("tag", i);
+  	  	}
+	}
+	
+	/**
+	 * Save the key / value pair of a tag for the current way
+	 * @param key
+	 * @param value
+	 */
+	public static void addTag(String key, String value){
+		if (key.equals("created_by") || key.equals("visible")){
+			//ignore
+		}	
+		else if (key.equals("highway")){
+			highway=value;
+			if (highway.equals("service"))
+				//System.out.println("Service route, way id="+id);
+				wayNotNeeded=true;	//we don't need this way
+		}
+		else if (key.equals("motorcar"))
+			motorcar=value;
+		else if (key.equals("oneway"))
+			oneWay=Boolean.valueOf(value).booleanValue();
+		else if (key.equals("lanes"))
+			lanes=value;
+		else if (key.equals("name"))
+			name=value;
+		else if (key.equals("railway") && value.equals("tram")){
+			meansOfTransport|=TransformOSMData.TRAM; 	// mark as tram railway
+			//System.out.println("tram-trailway Nr."+(++tramTags)+" way id="+id);
+		}
+		/*
+		else if (key.equals("tracks")){
+			System.out.println("tracks="+value+" Nr."+(++trackTags)+" id="+id);
+		}
+		*/
+		else if (key.equals("area") && value.equals("yes"))
+			wayNotNeeded=true;
+		/*
+		if(primType=="node")
+			System.out.print("nodeID: "+id+" "+key+"="+value+"\n");
+		*/
+	}
+	
+	
+	/** 
+	 * Check the command line arguments
+	 * 
+	 * @param args
+	 * @return
+	 */
+	private static boolean checkArgs(String[] args){
+		
+		//remove options, they may be given at any position
+		args = readOptions(args);
+		
+		//application must be started with argument(s)!
+		if (args == null || args.length == 0)
+			return false;
+		
+		//current argument position
+		int argPos=0;
+		
+		//first argument must be the XML file, try to open it
+		xmlFile = new MyFile( args[argPos]);
+		pbfInput = xmlFile.getName().toLowerCase().endsWith(".pbf");
+		if (!openInput())
+			return false;
+		
+		//next argument
+		argPos++;
+		
+		//check if user wants to keep the node coordinates in a memory mapped file
+		if (nodeCacheFile != null && !openNodeCache())
+			return false;
+		
+		//check if user wants to extract the whole map
+		if (args.length == 1) {
+			boundaries.add(new Boundary(TransformOSMData.CAR, xmlFile.getNameWithoutExt(OSM_EXTENSIONS)));
+		}
+		//or tram routes of the whole map
+		else if (args[argPos].equals("-tram")){
+			boundaries.add(new Boundary(TransformOSMData.TRAM, xmlFile.getNameWithoutExt(OSM_EXTENSIONS) + ".tram"));
+			argPos++;
+		}
+		
+		//save values during going through all arguments
+		String boundaryName="";
+		int meansOfTransport=0;
+		double minLat=0;
+		double minLon=0;
+		double maxLat=0;
+		double maxLon=0;
+		int motOffSet=0;
+		int argOffSet=0;
+		
+		//try to read rest of arguments
+		try {
+			while (argPos < args.length){
+				//set car as default means of transport, clean offset 
+				meansOfTransport=TransformOSMData.CAR;
+				motOffSet=0;
+				
+				//is argument a double value? if it is so, parse value
+				if (Tools.isDouble(args[argPos])){
+					//try to read values
+					minLat=Double.parseDouble(args[argPos]);
+					minLon=Double.parseDouble(args[argPos+1]);
+					maxLat=Double.parseDouble(args[argPos+2]);
+					maxLon=Double.parseDouble(args[argPos+3]);
+					//set offset
+					argOffSet=BOUNDARY_OFFSET;
+					//set boundary name
+					boundaryName="boundary" + (++boundaryCounter);
+				}
+				//otherwise it must an gps trace
+				else {
+					//try to read GPS trace file
+					GPSTrace gpsTrace = new GPSTrace(args[argPos]);
+					//read gps values
+					minLat=gpsTrace.getMinGPSLat();
+					minLon=gpsTrace.getMinGPSLon();
+					maxLat=gpsTrace.getMaxGPSLat();
+					maxLon=gpsTrace.getMaxGPSLon();
+					//set offset
+					argOffSet=GPS_TRACE_OFFSET;
+					//set boundary name
+					boundaryName=gpsTrace.getFileNameWithoutEx();
+				}
+				
+				// check if tram routes need to be extracted
+				if((argPos+argOffSet < args.length) &&
+				   (args[argPos+argOffSet].equals("-tram"))){
+						//notice, change boundary name and set offset
+						meansOfTransport=TransformOSMData.TRAM;
+						boundaryName=boundaryName + ".tram";
+						motOffSet=1;
+				}
+				
+				//create new boundary for user inputs
+				boundaries.add(new Boundary(minLat, minLon, maxLat, maxLon, MAP_BUFFER, meansOfTransport,boundaryName));
+				
+				//change current argument position to new unread position
+				argPos += (argOffSet+motOffSet);
+			}
+		} catch(Exception e) {
+			e.printStackTrace();
+			return false;
+		}
+		
+		//all boundaries share one node store, it reads the coordinates out of the node location file if given
+		nodeTable = (nodeLocations != null) ? new NodeStore(nodeLocations) : new NodeStore();
+		for (Boundary boundary : boundaries)
+			boundary.setNodeList(new BoundaryNodes(nodeTable));
+		
+		//spatial index, so nodes and ways are only tested against boundaries nearby
+		boundaryIndex = new BoundaryIndex(boundaries);
+		boundaryStamps = new int[boundaries.size()];
+		if (boundaryIndex.hasCells())
+			nodeCells = new LongIntMap();
+		
+		//everything is fine
+		return true;
+	}
+	
+	/**
+	 * Reads all options out of the command line arguments
+	 * 
+	 * @param args
+	 * @return remaining arguments (OSM file, boundaries and GPS traces), null if an option has no valid value
+	 */
+	private static String[] readOptions(String[] args){
+		Vector<String> remainingArgs = new Vector<String>();
+		
+		for (int i=0; i<args.length; i++){
+			//keep only nodes referenced by routable ways (reads the OSM file twice)
+			if (args[i].equals("-waynodes"))
+				wayNodesOnly=true;
+			//keep node coordinates in a memory mapped file
+			else if (args[i].equals("-nodecache") && i+1 < args.length && !args[i+1].startsWith("-"))
+				nodeCacheFile = new File(args[++i]);
+			//scan XML files without StAX
+			else if (args[i].equals("-scanner"))
+				xmlScanner=true;
+			//scan nodes of XML files on several threads, ranges are read by the scanner
+			else if (args[i].equals("-splitxml")){
+				splitXML=true;
+				xmlScanner=true;
+			}
+			//number of decoding threads
+			else if (args[i].equals("-threads") && i+1 < args.length && Tools.isInteger(args[i+1]))
+				threads = Math.max(1, Integer.parseInt(args[++i]));
+			//keep only the largest strongly connected component
+			else if (args[i].equals("-prune"))
+				pruneComponents=true;
+			//keep the largest component and the components with at least n nodes
+			else if (args[i].equals("-prunesize") && i+1 < args.length && Tools.isInteger(args[i+1])){
+				pruneComponents=true;
+				pruneSize = Math.max(0, Integer.parseInt(args[++i]));
+			}
+			//remove nodes between two edges with equal attributes
+			else if (args[i].equals("-contract"))
+				contractChains=true;
+			//sort nodes along a Hilbert curve, edges by their start node
+			else if (args[i].equals("-reorder"))
+				reorderNodes=true;
+			//equirectangular projection for nodes close to each other
+			else if (args[i].equals("-fastdistance"))
+				fastDistance=true;
+			//graph files with a name table
+			else if (args[i].equals("-nametable"))
+				nameTable=true;
+			//graph files with fixed point coordinates and varints
+			else if (args[i].equals("-compact"))
+				compactFormat=true;
+			else if (args[i].equals("-deflate")){
+				compactFormat=true;
+				deflateGeometry=true;
+			}
+			//small graph file and geometry file
+			else if (args[i].equals("-geometryfile"))
+				geometryFile=true;
+			//one graph per tile
+			else if (args[i].equals("-tilesize") && i+1 < args.length && Tools.isDouble(args[i+1]))
+				tileSize = Math.max(0, Double.parseDouble(args[++i]));
+			//an option with a missing or wrong value would be taken as file or boundary
+			else if (args[i].equals("-nodecache") || args[i].equals("-threads") || args[i].equals("-prunesize") || args[i].equals("-tilesize")){
+				System.err.println("Error, option "+args[i]+" needs "+(args[i].equals("-nodecache") ? "a file name." : "a number."));
+				return null;
+			}
+			else
+				remainingArgs.add(args[i]);
+		}
+		return remainingArgs.toArray(new String[remainingArgs.size()]);
+	}
+	
+	/**
+	 * Creates the memory mapped node location file
+	 * @return true if file could be created
+	 */
+	private static boolean openNodeCache(){
+		try {
+			nodeLocations = new MappedNodeLocations(nodeCacheFile);
+		} catch (IOException e) {
+			System.err.println("Error, node cache file "+nodeCacheFile.getPath()+" could not be created.");
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Releases and deletes the memory mapped node location file
+	 */
+	private static void closeNodeCache(){
+		if (nodeLocations == null)
+			return;
+		try {
+			nodeLocations.close();
+		} catch (IOException e) {
+			System.err.println("Error closing node cache file "+nodeCacheFile.getPath());
+		}
+	}
+	
+	/**
+	 * (Re)opens the OSM file (XML or PBF) for parsing
+	 * @return true if file could be opened
+	 */
+	private static boolean openInput(){
+		try {
+			osmInput = openDecompressed(new BufferedInputStream(new FileInputStream( xmlFile), 1 << 16));
+			if (!pbfInput && !xmlScanner)
+				parser = factory.createXMLStreamReader( osmInput);
+		} catch (FileNotFoundException e) {
+			System.err.println("Error, xml input file "+xmlFile.getPath()+" could not be found.");
+			return false;
+		} catch (IOException e) {
+			System.err.println("Error, the input File "+xmlFile.getPath()+" could not be read.");
+			return false;
+		} catch (XMLStreamException e) {
+			System.err.println("Error, the input File "+xmlFile.getPath()+" is no valid XML file.");
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Detects gzip or bzip2 compressed input by its magic bytes
+	 * @param input
+	 * @return uncompressed input
+	 * @throws IOException
+	 */
+	private static InputStream openDecompressed(BufferedInputStream input) throws IOException {
+		input.mark(3);
+		int b0 = input.read();
+		int b1 = input.read();
+		int b2 = input.read();
+		input.reset();
+		
+		if (b0 == 0x1f && b1 == 0x8b)
+			decompressedInput = new TimedInputStream(new GZIPInputStream(input, 1 << 16));
+		else if (b0 == 'B' && b1 == 'Z' && b2 == 'h')
+			decompressedInput = new TimedInputStream(new ParallelBZip2InputStream(input, threads));
+		else {
+			decompressedInput = null;
+			return input;
+		}
+		return decompressedInput;
+	}
+	
+	/**
+	 * Print a small usageinfo
+	 */
+	private static void printUsage(String[] args){
+		//print instruction how to use OSMStAXParser
+		System.out.println("OSMStaxParser:\n" +
+				"This Parser converts an OpenStreetMap XML File\n"+
+				"into a Routing Graph for use with GeoAN JavaME and JavaSE\n"+
+				"Peers.\n"+
+				"Allowed arguments: OsmFile(.osm|.osm.gz|.osm.bz2|.osm.pbf) [GPSTraceFile | minLat minLon maxLat maxLon] [-tram] [-tilesize degrees]\n"+
+				"Options: -waynodes  read the file twice and keep only nodes used by routable ways\n"+
+				"         -nodecache file  keep node coordinates in a memory mapped file\n"+
+				"         -scanner  read XML files with a fast scanner instead of the StAX parser\n"+
+				"         -splitxml  scan the nodes of uncompressed XML files in byte ranges on several threads\n"+
+				"         -threads n  number of threads decoding PBF or bzip2 blocks, scanning XML ranges or building graphs (default: number of cores)\n"+
+				"         -prune  keep only the largest strongly connected component of the graph\n"+
+				"         -prunesize n  keep the largest component and all components with at least n nodes\n"+
+				"         -contract  merge chains of edges with equal attributes, their inner nodes become between nodes\n"+
+				"         -reorder  number the nodes along a Hilbert curve and the edges by their start node\n"+
+				"         -fastdistance  approximate distances between close nodes, the lengths may differ by a meter\n"+
+				"         -nametable  write every street name once, edges store its index (format number + 2)\n"+
+				"         -compact  write the graph files in the compact format with 1e-7 fixed point coordinates and varints (format number + 6)\n"+
+				"         -deflate  like -compact, the between nodes in the large file are compressed (format number + 14)\n"+
+				"         -geometryfile  write the between nodes into a .routing.graph.geometry file instead of a .routing.graph.large file\n"+
+				"         -tilesize degrees  split the graphs into tiles of this size, each with its graph files, and write a .routing.tiles index\n"+
+				"You entered following " + args.length + " arguments:" );
+		
+		//print arguments
+		for (String arg : args) System.out.println("\"" + arg + "\"");
+	}
+	
+	/**
+	 * prints unknown attributes and their values
+	 * 
+	 * @param tagName	tag name to which unknown attribute belongs
+	 * @param attrIndex	index position of attribute inside tag
+	 */
+	private static void printUnknownAttribute(String tagName, int attrIndex)
+	{
+		System.out.println("unknown " + tagName + " attribute: " +
+	  						parser.getAttributeLocalName(attrIndex) + 
+	  						"=" + parser.getAttributeValue(attrIndex));
+	}
+	
+	/**
+	 * Passes the data of other readers than the StAX parser to our handlers
+	 */
+	static class DataHandler implements OSMDataHandler {
+		
+		public void osmInfo(String version, String generator){
+			if (collectingWayNodes)
+				return;
+			osmVersion = version;
+			osmGenerator = generator;
+			printOSMInfo();
+		}
+		
+		public void bounds(double minLat, double minLon, double maxLat, double maxLon){
+			if (collectingWayNodes)
+				return;
+			osmMinLat = minLat;
+			osmMinLon = minLon;
+			osmMaxLat = maxLat;
+			osmMaxLon = maxLon;
+			printBounds();
+		}
+		
+		public void node(long nodeID, double nodeLongitude, double nodeLatitude){
+			//the first pass of two pass extraction only needs ways
+			if (collectingWayNodes)
+				return;
+			primType="node";
+			id=Long.valueOf(nodeID);
+			longitude=nodeLongitude;
+			latitude=nodeLatitude;
+			addNode();
+		}
+		
+		public void way(long wayID){
+			startWay();
+			id=Long.valueOf(wayID);
+		}
+		
+		public void wayNode(long nodeID){
+			wayNodes.add(Long.valueOf(nodeID));
+		}
+		
+		public void tag(String key, String value){
+			addTag(key, value);
+		}
+		
+		public void wayEnd(){
+			endWay();
+		}
+	}
+	
+	/**
+	 * Drops nodes no boundary needs on the threads scanning XML ranges,
+	 * reads only data that is not changed while nodes are read
+	 */
+	static class BoundaryNodeFilter implements NodeFilter {
+		
+		public boolean accept(long nodeID, double nodeLongitude, double nodeLatitude){
+			//the first pass of two pass extraction only needs ways
+			if (collectingWayNodes)
+				return false;
+			if (wayNodeIDs != null && !wayNodeIDs.contains(nodeID))
+				return false;
+			return inBoundaries(nodeLongitude, nodeLatitude);
+		}
+	}
+	
+	/**
+	 * Parses the OSM file (XML or PBF)
+	 * @return
+	 */
+	private static boolean parseInput(){
+		long startTime = System.currentTimeMillis();
+		boolean parsed = (pbfInput) ? parsePBF() : (xmlScanner) ? scanXML() : parseXML();
+		parsingTime += System.currentTimeMillis() - startTime;
+		
+		//the parser may stop before the end of the file, stop the decompression threads
+		try {
+			osmInput.close();
+		} catch (IOException e) {
+			System.err.println("Error closing input file "+xmlFile.getPath());
+		}
+		
+		//time spent waiting for uncompressed data
+		if (decompressedInput != null){
+			decompressionTime += decompressedInput.getTime();
+			if (decompressedInput.getInput() instanceof ParallelBZip2InputStream)
+				bzip2DecodingTime += ((ParallelBZip2InputStream) decompressedInput.getInput()).getDecodingTime();
+		}
+		return parsed;
+	}
+	
+	/**
+	 * Parses the PBF file to a dynamic osmData Datastructure
+	 * @return
+	 */
+	private static boolean parsePBF(){
+		try {
+			new PBFReader(osmInput, new DataHandler(), threads).read();
+		} catch (IOException e) {
+			System.err.println("Error parsing PBF File: "+e.getMessage());
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Parses the XML file with the byte scanner to a dynamic osmData Datastructure
+	 * @return
+	 */
+	private static boolean scanXML(){
+		try {
+			//compressed files can't be split into ranges
+			if (splitXML && decompressedInput == null)
+				new OSMXMLRangeReader(xmlFile, new DataHandler(), new BoundaryNodeFilter(), threads).read();
+			else
+				new OSMXMLScanner(osmInput, new DataHandler()).read();
+		} catch (IOException e) {
+			System.err.println("Error parsing XML File: "+e.getMessage());
+			return false;
+		} catch (NumberFormatException e) {
+			System.err.println("Error parsing XML File: "+e.getMessage());
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Parses the XML file to a dynamic osmData Datastructure
+	 * @return
+	 */
+	private static boolean parseXML(){		
+		//start reading xml data via "stream"
+		try {
+		  parser_loop:
+			  
+			while ( parser.hasNext() ) 
+			{ 
+				boolean Systemoutprint = false;		
+				  				
+				if (Systemoutprint) System.out.println( "Event: " + parser.getEventType() );
+				switch (parser.getEventType()) 
+				{ 
+				case XMLStreamConstants.START_DOCUMENT: 
+					if (Systemoutprint) System.out.println( "START_DOCUMENT: " + parser.getVersion() ); 
+					break; 
+
+				case XMLStreamConstants.END_DOCUMENT: 
+					if (Systemoutprint) System.out.println( "END_DOCUMENT: " ); 
+					parser.close(); 
+					break; 
+
+				case XMLStreamConstants.NAMESPACE: 
+					if (Systemoutprint) System.out.println( "NAMESPACE: " + parser.getNamespaceURI() ); 
+					break; 
+
+				case XMLStreamConstants.START_ELEMENT: 
+					spacer.append( "  " ); 
+					if (Systemoutprint) System.out.println( /*spacer + */ "START_ELEMENT: " + parser.getLocalName() + "\n" ); 
+
+					if (parser.getLocalName()=="node")
+					{
+						//handle nodes, the first pass of two pass extraction only needs ways
+						if (!collectingWayNodes)
+							nodeHandler();
+					}
+					else if (parser.getLocalName()=="way"){	 
+						//handle ways
+						wayHandler();
+						if (Systemoutprint) System.out.println("Way!\n");
+					}
+					else if (parser.getLocalName()=="nd"){
+						//handle node references in ways
+						referenceHandler();
+					}
+					else if (parser.getLocalName()=="tag"){
+						//handle tags in ways
+						tagHandler();
+					}
+					else if (parser.getLocalName()=="bounds" && !collectingWayNodes){
+						//handle boundary of the XLM file
+						boundsHandler();
+					}
+					else if (parser.getLocalName()=="osm" && !collectingWayNodes){
+						//handle general OSM info
+						osmHandler();
+					}
+					else if (parser.getLocalName()=="relation"){
+						// stop parsing file, leave while loop, actually we don't this block at the moment
+						parser.close();
+						break parser_loop;
+					}
+					break; 
+
+				case XMLStreamConstants.CHARACTERS: 
+					if ( ! parser.isWhiteSpace() ){ 
+						//System.out.println( spacer + "  CHARACTERS: " + parser.getText() );
+						;
+					}
+					break; 
+
+				case XMLStreamConstants.END_ELEMENT: 
+					// Save way
+					if (parser.getLocalName()=="way")
+						endWay();
+					//System.out.println( spacer + "END_ELEMENT: " + parser.getLocalName() ); 
+					spacer.delete(spacer.length()-2, spacer.length()); 
+					break; 
+
+				default: 
+					break; 
+				} 
+				parser.next(); 
+			}
+		} catch (XMLStreamException e) {
+			System.err.println("Error parsing XML File!");
+			return false;
+		} 
+		return true;
+	}
+
+	/**
+	 * First pass of two pass extraction: collects the IDs of all nodes routable ways refer to
+	 * and reopens the XML file for the second pass
+	 * @return
+	 */
+	private static boolean collectWayNodeIDs(){
+		wayNodeIDs = new LongSet();
+		
+		collectingWayNodes=true;
+		boolean parsed = parseInput();
+		collectingWayNodes=false;
+		
+		System.out.println("First pass: "+wayNodeIDs.size()+" nodes are referenced by routable ways.");
+		
+		//start again for the second pass
+		return parsed && openInput();
+	}
+
+	/**
+	 * Builds and writes the routing graphs of all boundaries.
+	 * With more than one thread the boundaries are handled concurrently, a boundary only starts
+	 * if the memory its graph is estimated to need is not used by the graphs built at the moment.
+	 */
+	private static void buildGraphs(){
+		if (threads == 1 || boundaries.size() == 1){
+			for (Boundary boundary : boundaries)
+				buildGraph(boundary, System.out, threads, true);
+			return;
+		}
+		
+		//share of the memory left after parsing the graphs may use, in KB
+		Runtime rt = Runtime.getRuntime();
+		long freeMemory = rt.maxMemory() - (rt.totalMemory() - rt.freeMemory());
+		final int memoryBudget = (int) Math.max(1, Math.min(Integer.MAX_VALUE, (long) (freeMemory * GRAPH_MEMORY_SHARE) / 1024));
+		//fair, so a large boundary is not passed by small ones forever
+		final Semaphore memory = new Semaphore(memoryBudget, true);
+		
+		//memory of graphs built at once can't be told apart, it is measured for all of them
+		double memBefore = memUsage();
+		resetHeapPeak();
+		
+		int builderCount = Math.min(threads, boundaries.size());
+		ExecutorService builders = Executors.newFixedThreadPool(builderCount);
+		Vector<Future<ByteArrayOutputStream>> reports = new Vector<Future<ByteArrayOutputStream>>();
+		try {
+			for (final Boundary boundary : boundaries){
+				//a boundary needing more than the whole budget runs alone
+				final int estimate = (int) Math.max(1, Math.min(memoryBudget, estimatedGraphMemory(boundary) / 1024));
+				reports.add(builders.submit(new Callable<ByteArrayOutputStream>() {
+					public ByteArrayOutputStream call() throws InterruptedException {
+						memory.acquire(estimate);
+						try {
+							//messages are collected, so the messages of boundaries built at once don't mix
+							ByteArrayOutputStream report = new ByteArrayOutputStream();
+							buildGraph(boundary, new PrintStream(report), 1, false);
+							return report;
+						} finally {
+							memory.release(estimate);
+						}
+					}
+				}));
+			}
+			
+			//messages are printed in the order of the boundaries
+			for (Future<ByteArrayOutputStream> report : reports){
+				try {
+					report.get().writeTo(System.out);
+				} catch (ExecutionException e) {
+					System.err.println("Error building routing graph: "+e.getCause());
+				}
+			}
+			System.out.println("\nBuilding the graphs on "+builderCount+" threads the runtime used up to "
+					+(Math.round((heapPeak() - memBefore) * 100) / 100.0)+" MB more");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			System.err.println("Error writing messages: "+e.getMessage());
+		} finally {
+			builders.shutdownNow();
+		}
+	}
+	
+	/**
+	 * resets the peak usage of the heap memory pools
+	 */
+	private static void resetHeapPeak(){
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()){
+			if (pool.getType() == MemoryType.HEAP)
+				pool.resetPeakUsage();
+		}
+	}
+	
+	/**
+	 * @return sum of the peak usages of the heap memory pools since the last reset in MB,
+	 * the pools may have had their peaks at different times
+	 */
+	private static double heapPeak(){
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()){
+			if (pool.getType() == MemoryType.HEAP)
+				peak += pool.getPeakUsage().getUsed();
+		}
+		return peak / (1024.0 * 1024.0);
+	}
+	
+	/**
+	 * @param boundary
+	 * @return estimated memory in bytes needed to build and write the graph of the boundary
+	 */
+	private static long estimatedGraphMemory(Boundary boundary){
+		return (long) boundary.getNodeList().size() * GRAPH_BYTES_PER_NODE;
+	}
+	
+	/**
+	 * Adds the times of a boundary to the overall times, boundaries may be built at once
+	 * @param sectionCalculationTime
+	 * @param sectionWritingTime
+	 */
+	private static synchronized void addTimes(long sectionCalculationTime, long sectionWritingTime){
+		calculationTime += sectionCalculationTime;
+		writingTime += sectionWritingTime;
+	}
+	
+	/**
+	 * Builds the routing graph of a boundary and writes it to disk
+	 * @param boundary
+	 * @param report stream for the messages about the graph
+	 * @param splitThreads number of threads splitting the ways
+	 * @param reportMemory true if the graph is built alone, so its memory usage can be reported
+	 */
+	private static void buildGraph(Boundary boundary, PrintStream report, int splitThreads, boolean reportMemory){
+		//notice start time for each boundary
+		long sectionStartTime=System.currentTimeMillis();
+		
+		//get node list of boundary
+		BoundaryNodes nodeList = boundary.getNodeList();
+
+		//generate a routing graph out of the OSM Data
+		//split up all ways that have inner nodes that are outer nodes for other ways,
+		//the segments are stored as edge records of the graph builder
+		RoutingGraphBuilder builder = new RoutingGraphBuilder(nodeList, boundary.getMeansOfTransport(), new DistanceEngine(fastDistance));
+		builder.addWays(boundary.getOSMWays().values(), splitThreads);
+
+		double membefore=memUsage(); //remember the memory usage before we start building the graph
+
+		//create the graph structure out of the edge records
+		Graph routingGraph = builder.build();
+		long totalStreetLength = builder.getTotalStreetLength();
+		
+		//parts a route can't enter and leave again are removed
+		if (pruneComponents){
+			int nodeCount = routingGraph.nodeCount();
+			int edgeCount = routingGraph.edgeCount();
+			routingGraph = ComponentPruning.prune(routingGraph, pruneSize);
+			report.println("\nPruning components removed "+(nodeCount-routingGraph.nodeCount())+" nodes and "
+					+(edgeCount-routingGraph.edgeCount())+" directed edges.");
+		}
+		
+		//nodes only connecting two equal edges become between nodes
+		if (contractChains){
+			int nodeCount = routingGraph.nodeCount();
+			int edgeCount = routingGraph.edgeCount();
+			routingGraph = ChainContraction.contract(routingGraph);
+			report.println("\nContracting chains removed "+(nodeCount-routingGraph.nodeCount())+" nodes and "
+					+(edgeCount-routingGraph.edgeCount())+" directed edges.");
+		}
+		
+		//nodes close to each other get close indices
+		if (reorderNodes)
+			routingGraph = HilbertOrdering.reorder(routingGraph);
+		
+		//how long took calculation time?
+		long sectionCalculationTime = System.currentTimeMillis() - sectionStartTime;
+
+		//normalize the coordinates of all data in the routinggraph to the range of 0.0 - 100.0
+		
+		//FIXME: why normalization?
+		//routingGraph.normalize(0.0, 100.0);
+
+		//FIXME: instead of normalization we now add the bounds the osm file tells us
+		routingGraph.setDimensions(osmMinLon, osmMaxLon, osmMinLat, osmMaxLat);
+
+		report.println("\nOverall only "+routingGraph.nodeCount()+" of "+nodeList.size()+" nodes are "+
+		"used for the routinggraph.");
+		report.println("But we started with "+boundary.getOSMWays().size()+" undirected edges and ended with "
+				+routingGraph.edgeCount()+" directed edges.");
+		report.println("This Graph covers a streetlength (undirected edges) of "+totalStreetLength+ " meters.");
+
+		//just for me ;)
+		if (reportMemory){
+			double memafter = memUsage(); //check the memusage after building the graph
+			report.println("For this graph the runtime uses: "+(memafter-membefore)+" MB");
+		}
+
+		//measure writing time
+		sectionStartTime = System.currentTimeMillis();
+		
+		try {
+			if (tileSize > 0){
+				//every tile gets its graph files, the tile index connects them
+				GraphTiler tiler = new GraphTiler(routingGraph, tileSize);
+				report.println("Writing " + tiler.tileCount() + " tiles of " + tileSize + " degrees and the "
+						+ boundary.getBoundaryName() + ".routing.tiles to disk!");
+				for (int tile=0; tile<tiler.tileCount(); tile++)
+					writeGraphFiles(tiler.buildTile(tile), boundary.getBoundaryName() + "." + tiler.getTileName(tile));
+				tiler.writeIndex(new File(boundary.getBoundaryName() + ".routing.tiles"));
+			}
+			else {
+				report.println("Writing the " + boundary.getBoundaryName() + ".routing.graph.small to disk!");
+				report.println("Writing the " + boundary.getBoundaryName() + (geometryFile ? ".routing.graph.geometry" : ".routing.graph.large") + " to disk!");
+				writeGraphFiles(routingGraph, boundary.getBoundaryName());
+			}
+		} catch (IOException e) {
+			report.println("Error writing the graph files: " + e.getMessage());
+		}
+		
+		//add to overall calculation and writing time
+		addTimes(sectionCalculationTime, System.currentTimeMillis() - sectionStartTime);
+		
+		report.println("Writing done!");
+		report.flush();
+	}
+	
+	/**
+	 * Writes the graph files in the format chosen by the options, existing files are replaced
+	 * @param routingGraph
+	 * @param name the file names start with
+	 * @throws IOException
+	 */
+	private static void writeGraphFiles(Graph routingGraph, String name) throws IOException {
+		File smallFile = new File(name + ".routing.graph.small");
+		File largeFile = new File(name + ".routing.graph.large");
+		File geometry = new File(name + ".routing.graph.geometry");
+		if (compactFormat && geometryFile)
+			new CompactGraphWriter(deflateGeometry).writeWithGeometry(routingGraph, smallFile, geometry);
+		else if (compactFormat)
+			new CompactGraphWriter(deflateGeometry).write(routingGraph, smallFile, largeFile);
+		else if (geometryFile)
+			new GraphWriter(nameTable).writeWithGeometry(routingGraph, smallFile, geometry);
+		else
+			new GraphWriter(nameTable).write(routingGraph, smallFile, largeFile);
+	}
+	
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args) {
+
+		//measure time when program starts
+		progStartTime = System.currentTimeMillis();
+		
+		
+		//check arguments
+		if (!checkArgs(args)){
+			printUsage(args);
+			return;
+		}
+		
+		/*
+		for(Boundary bound : boundaries){
+			System.out.println(bound.getBoundaryName());
+			System.out.println(bound.getMinLat());
+			System.out.println(bound.getMinLon());
+			System.out.println(bound.getMaxLat());
+			System.out.println(bound.getMaxLon());
+			System.out.println(bound.getMeansOfTransport() + "\n");
+		}
+		System.exit(0);
+		*/
+		
+		
+		//parse OSM data in given file, in two pass mode collect the needed nodes before
+		if((!wayNodesOnly || collectWayNodeIDs()) && parseInput())
+		{
+			//measure interim time
+			calculationTime=System.currentTimeMillis() - progStartTime;
+			
+			//build and write the graphs of all boundaries, several at once if we have more than one thread
+			buildGraphs();
+			
+			//measure time when finished
+			runtimeLength = System.currentTimeMillis() - progStartTime;
+			
+			// print all measured times
+			System.out.println("\nCalculation runtime: "+ ((float) calculationTime / 1000) +"sec");
+			System.out.println("Parsing time: " + ((float) (parsingTime - decompressionTime) / 1000) +" sec");
+			if (decompressedInput != null)
+				System.out.println("Decompression time: " + ((float) decompressionTime / 1000) +" sec" +
+						((bzip2DecodingTime > 0) ? " (bzip2 blocks decoded in " + ((float) bzip2DecodingTime / 1000) +" sec on "+threads+" threads)" : ""));
+			System.out.println("Writing time: " + ((float) writingTime / 1000) +" sec");
+			System.out.println("Overall runtime: "+ ((float) runtimeLength / 1000) +" sec");	
+		}
+		
+		//node coordinates are not needed any more
+		closeNodeCache();
+	}
+}
@@ -0,0 +1,385 @@
+package osmstaxparser;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import graph.Graph;
+import graph.GraphBuilder;
+import osmData.BoundaryNodes;
+import osmData.OSMWay;
+import tools.DistanceEngine;
+import tools.LongIntMap;
+
+/**
+ * Builds the routing graph of a boundary out of its OSM ways.
+ * Ways are split at nodes shared with other ways while they are added, each segment
+ * is stored as primitive edge record (start node, target node, way, geometry offset),
+ * the nodes of all segments are kept as node store indices in one geometry array.
+ * The ways may be split on several threads, the segments are stored in the order of the
+ * ways, so the graph does not depend on the number of threads.
+ * @author Norbert Goebel
+ *
+ */
+public class RoutingGraphBuilder {
+
+	//ways split by one task, split ways waiting to be stored per thread
+	private static final int WAYS_PER_TASK = 2048;
+	private static final int TASKS_PER_THREAD = 2;
+
+	private BoundaryNodes nodeList;
+	private int meansOfTransport;
+	private DistanceEngine distances;
+
+	//graph nodes in order of appearance, key is the node store index
+	private LongIntMap graphNodes = new LongIntMap();
+	private int[] graphNodeIndices = new int[1024]; //node store index of each graph node
+	private int nodeCount = 0;
+
+	//ways of the segments, they hold the attributes of the edges
+	private OSMWay[] ways = new OSMWay[256];
+	private int wayCount = 0;
+
+	//one record per segment, both directions of a segment are created out of it
+	private int[] segmentStarts = new int[1024];
+	private int[] segmentTargets = new int[1024];
+	private int[] segmentWays = new int[1024];
+	private int[] geometryOffsets = new int[1025]; //nodes of segment s are geometry[geometryOffsets[s] .. geometryOffsets[s+1]-1]
+	private int segmentCount = 0;
+	private int edgeCount = 0;
+
+	//node store indices of the segment nodes, start and target included
+	private int[] geometry = new int[4096];
+	private int geometrySize = 0;
+
+	private long totalStreetLength = 0;
+
+	/**
+	 * creates an empty builder
+	 * @param nodeList nodes of the boundary
+	 * @param meansOfTransport only ways permitted for it become edges
+	 */
+	public RoutingGraphBuilder(BoundaryNodes nodeList, int meansOfTransport){
+		this(nodeList, meansOfTransport, new DistanceEngine(false));
+	}
+
+	/**
+	 * creates an empty builder
+	 * @param nodeList nodes of the boundary
+	 * @param meansOfTransport only ways permitted for it become edges
+	 * @param distances calculates the lengths of the edges
+	 */
+	public RoutingGraphBuilder(BoundaryNodes nodeList, int meansOfTransport, DistanceEngine distances){
+		this.nodeList = nodeList;
+		this.meansOfTransport = meansOfTransport;
+		this.distances = distances;
+	}
+
+	/**
+	 * Splits the ways and stores their segments in the order of the collection
+	 * @param osmWays
+	 * @param threads number of threads splitting ways
+	 */
+	public void addWays(Collection<OSMWay> osmWays, int threads){
+		final OSMWay[] wayTable = osmWays.toArray(new OSMWay[osmWays.size()]);
+		if (threads <= 1 || wayTable.length <= WAYS_PER_TASK){
+			for (int from=0; from<wayTable.length; from+=WAYS_PER_TASK)
+				addSegments(wayTable, from, split(wayTable, from, Math.min(wayTable.length, from + WAYS_PER_TASK)));
+			return;
+		}
+
+		ExecutorService splitters = Executors.newFixedThreadPool(threads);
+		ArrayDeque<Future<Segments>> pending = new ArrayDeque<Future<Segments>>();
+		try {
+			int next = 0;
+			for (int from=0; from<wayTable.length; from+=WAYS_PER_TASK){
+				while (next < wayTable.length && pending.size() < threads * TASKS_PER_THREAD){
+					final int start = next;
+					final int end = Math.min(wayTable.length, next + WAYS_PER_TASK);
+					pending.add(splitters.submit(new Callable<Segments>() {
+						public Segments call(){
+							return split(wayTable, start, end);
+						}
+					}));
+					next = end;
+				}
+				//split ways are stored in the order of the tasks
+				addSegments(wayTable, from, waitFor(pending.poll()));
+			}
+		} finally {
+			splitters.shutdownNow();
+		}
+	}
+
+	/**
+	 * Splits all part ways of the ways at their inner nodes that are outer nodes of other ways
+	 * or inner nodes of more than one way. Nodes behind the last split node are dropped.
+	 * Only reads the nodes, so ways can be split on several threads.
+	 * @param wayTable
+	 * @param from first way to split
+	 * @param to behind the last way to split
+	 * @return segments of the ways
+	 */
+	private Segments split(OSMWay[] wayTable, int from, int to){
+		Segments segments = new Segments();
+		for (int w=from; w<to; w++){
+			OSMWay way = wayTable[w];
+			if (!way.getMeansOfTransportPermission(meansOfTransport))
+				continue;
+
+			for (Vector<Long> partWay : way.getOSMPartWays()){
+				int segmentOffset = segments.geometrySize;
+				segments.addNode(nodeList.indexOf(partWay.firstElement().longValue()));
+
+				for (int j=1; j<partWay.size(); j++){
+					int index = nodeList.indexOf(partWay.elementAt(j).longValue());
+					segments.addNode(index);
+
+					//do we need to split this way at this node?
+					if (nodeList.getOuterNodeCount(index) > 0 || nodeList.getInnerNodeCount(index) > 1){
+						segments.addSegment(w - from);
+						//the split node starts the next segment
+						segmentOffset = segments.geometrySize;
+						segments.addNode(index);
+					}
+				}
+				segments.geometrySize = segmentOffset;
+			}
+		}
+		return segments;
+	}
+
+	/**
+	 * stores the segments of split ways, graph nodes are numbered in the order of the segments
+	 * @param wayTable
+	 * @param from first way that was split
+	 * @param segments
+	 */
+	private void addSegments(OSMWay[] wayTable, int from, Segments segments){
+		int lastWay = -1;
+		int wayIndex = -1;
+		int start = 0;
+		for (int s=0; s<segments.count; s++){
+			//ways are stored with their first segment
+			if (segments.ways[s] != lastWay){
+				lastWay = segments.ways[s];
+				if (wayCount == ways.length)
+					ways = Arrays.copyOf(ways, wayCount * 2);
+				ways[wayCount] = wayTable[from + lastWay];
+				wayIndex = wayCount++;
+			}
+
+			int offset = geometrySize;
+			int end = segments.ends[s];
+			for (int k=start; k<end; k++)
+				addGeometry(segments.geometry[k]);
+			addSegment(wayIndex, offset);
+			start = end;
+		}
+	}
+
+	/**
+	 * waits until ways are split
+	 * @param segments
+	 * @return segments of the ways
+	 */
+	private static Segments waitFor(Future<Segments> segments){
+		try {
+			return segments.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException("Error splitting ways", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while splitting ways", e);
+		}
+	}
+
+	/**
+	 * stores the segment geometry[offset .. geometrySize-1]
+	 * @param wayIndex
+	 * @param offset
+	 */
+	private void addSegment(int wayIndex, int offset){
+		if (segmentCount == segmentStarts.length){
+			int length = segmentCount * 2;
+			segmentStarts = Arrays.copyOf(segmentStarts, length);
+			segmentTargets = Arrays.copyOf(segmentTargets, length);
+			segmentWays = Arrays.copyOf(segmentWays, length);
+			geometryOffsets = Arrays.copyOf(geometryOffsets, length + 1);
+		}
+
+		//the start node gets its graph index before the target node
+		segmentStarts[segmentCount] = graphNode(geometry[offset]);
+		segmentTargets[segmentCount] = graphNode(geometry[geometrySize - 1]);
+		segmentWays[segmentCount] = wayIndex;
+		geometryOffsets[segmentCount] = offset;
+		geometryOffsets[segmentCount + 1] = geometrySize;
+		edgeCount += ways[wayIndex].isOneWay() ? 1 : 2;
+		segmentCount++;
+	}
+
+	/**
+	 * @param index node store index
+	 * @return graph index of the node, nodes get the next free index when they appear first
+	 */
+	private int graphNode(int index){
+		int graphIndex = graphNodes.get(index, -1);
+		if (graphIndex < 0){
+			if (nodeCount == graphNodeIndices.length)
+				graphNodeIndices = Arrays.copyOf(graphNodeIndices, nodeCount * 2);
+			graphIndex = nodeCount++;
+			graphNodeIndices[graphIndex] = index;
+			graphNodes.put(index, graphIndex);
+		}
+		return graphIndex;
+	}
+
+	/**
+	 * @param index node store index
+	 */
+	private void addGeometry(int index){
+		if (geometrySize == geometry.length)
+			geometry = Arrays.copyOf(geometry, geometrySize * 2);
+		geometry[geometrySize++] = index;
+	}
+
+	/**
+	 * Creates the routing graph, the forward edge of a segment is followed by its reverse edge
+	 * @return graph
+	 */
+	public Graph build(){
+		GraphBuilder routingGraph = new GraphBuilder(nodeCount, edgeCount);
+		int edgeNumber = 0;
+
+		//coordinates of the nodes of a segment and the distances between them
+		double[] lats = new double[64];
+		double[] lons = new double[64];
+		double[] cosLats = new double[64];
+		int[] nodeDistances = new int[64];
+
+		for (int s=0; s<segmentCount; s++){
+			OSMWay way = ways[segmentWays[s]];
+			int start = segmentStarts[s];
+			int target = segmentTargets[s];
+			int offset = geometryOffsets[s];
+			int betweenCount = geometryOffsets[s + 1] - offset - 2;
+
+			addNode(routingGraph, start);
+			addNode(routingGraph, target);
+
+			//the cosine of each latitude is calculated once for the distances on both sides of a node
+			int count = betweenCount + 2;
+			if (count > lats.length){
+				lats = new double[count * 2];
+				lons = new double[count * 2];
+				cosLats = new double[count * 2];
+				nodeDistances = new int[count * 2];
+			}
+			for (int k=0; k<count; k++){
+				int index = geometry[offset + k];
+				lats[k] = nodeList.getLatitude(index);
+				lons[k] = nodeList.getLongitude(index);
+				cosLats[k] = DistanceEngine.cosLatitude(lats[k]);
+			}
+			//the length is the sum of the rounded distances between the nodes
+			int length = distances.distances(lats, lons, cosLats, count, nodeDistances);
+			totalStreetLength += length;
+
+			//nodes between start and target with their distance from the start
+			double[] betweenLat = new double[betweenCount];
+			double[] betweenLon = new double[betweenCount];
+			long[] betweenId = new long[betweenCount];
+			int[] betweenDistFromEdgeStart = new int[betweenCount];
+			int distance = 0;
+			for (int k=0; k<betweenCount; k++){
+				distance += nodeDistances[k];
+				betweenLat[k] = lats[k + 1];
+				betweenLon[k] = lons[k + 1];
+				betweenId[k] = nodeList.getId(geometry[offset + k + 1]);
+				betweenDistFromEdgeStart[k] = distance;
+			}
+
+			int forwardEdge = edgeNumber++;
+			routingGraph.addEdge(start, forwardEdge, way.getId(), way.getMaxSpeed(), way.getCarPermission(), way.getLanes(),
+					way.getHighwayType(), way.getName(), target, length,
+					betweenDistFromEdgeStart, betweenLon, betweenLat, betweenId);
+
+			//add a second edge in the opposite direction if the way is not oneway, it shares the between nodes
+			if (!way.isOneWay())
+				routingGraph.addReverseEdge(edgeNumber++, forwardEdge);
+		}
+		return routingGraph.build();
+	}
+
+	/**
+	 * @param routingGraph
+	 * @param graphIndex
+	 */
+	private void addNode(GraphBuilder routingGraph, int graphIndex){
+		int index = graphNodeIndices[graphIndex];
+		routingGraph.addNode(graphIndex, nodeList.getId(index), nodeList.getLongitude(index), nodeList.getLatitude(index));
+	}
+
+	/**
+	 * @return number of nodes of the graph
+	 */
+	public int getNodeCount(){
+		return nodeCount;
+	}
+
+	/**
+	 * @return number of directed edges of the graph
+	 */
+	public int getEdgeCount(){
+		return edgeCount;
+	}
+
+	/**
+	 * @return sum of the lengths of all segments (undirected edges) in meters, known after build()
+	 */
+	public long getTotalStreetLength(){
+		return totalStreetLength;
+	}
+
+	/**
+	 * segments of split ways, the nodes of segment s end at ends[s], the next segment starts there
+	 */
+	private static class Segments {
+		private int[] geometry = new int[1024];
+		private int geometrySize = 0;
+		private int[] ends = new int[256];
+		private int[] ways = new int[256]; //way of each segment, relative to the first way split
+		private int count = 0;
+
+		/**
+		 * @param index node store index
+		 */
+		void addNode(int index){
+			if (geometrySize == geometry.length)
+				geometry = Arrays.copyOf(geometry, geometrySize * 2);
+			geometry[geometrySize++] = index;
+		}
+
+		/**
+		 * ends a segment behind the last node added
+		 * @param way
+		 */
+		void addSegment(int way){
+			if (count == ends.length){
+				ends = Arrays.copyOf(ends, count * 2);
+				ways = Arrays.copyOf(ways, count * 2);
+			}
+			ends[count] = geometrySize;
+			ways[count] = way;
+			count++;
+		}
+	}
+}
@@ -0,0 +1,356 @@
+package tools;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Decoder for a single block of a bzip2 stream.
+ * Blocks of a bzip2 stream are independent, so they can be decoded by several threads.
+ * @author Norbert Goebel
+ *
+ */
+public class BZip2Block {
+
+	//block and end of stream magic numbers (48 bit, not byte aligned)
+	public static final long BLOCK_MAGIC = 0x314159265359L;
+	public static final long END_OF_STREAM_MAGIC = 0x177245385090L;
+
+	//limits given by the bzip2 format
+	private static final int RUNA = 0;
+	private static final int RUNB = 1;
+	private static final int GROUP_SIZE = 50;
+	private static final int MIN_GROUPS = 2;
+	private static final int MAX_GROUPS = 6;
+	private static final int MAX_SELECTORS = 18002;
+	private static final int MAX_CODE_LENGTH = 20;
+
+	//CRC32 of bzip2 (big endian, polynomial 0x04c11db7)
+	private static final int[] CRC_TABLE = new int[256];
+	static {
+		for (int i=0; i<256; i++){
+			int crc = i << 24;
+			for (int j=0; j<8; j++)
+				crc = (crc < 0) ? (crc << 1) ^ 0x04c11db7 : crc << 1;
+			CRC_TABLE[i] = crc;
+		}
+	}
+
+	//compressed data
+	private byte[] data;
+	private int bytePosition;
+	private long bitBuffer = 0;
+	private int bitCount = 0;
+
+	//huffman tables of the coding groups
+	private int[][] limits = new int[MAX_GROUPS][MAX_CODE_LENGTH + 2];
+	private int[][] bases = new int[MAX_GROUPS][MAX_CODE_LENGTH + 2];
+	private int[][] perms = new int[MAX_GROUPS][];
+	private int[] minLengths = new int[MAX_GROUPS];
+	private int[] maxLengths = new int[MAX_GROUPS];
+
+	private BZip2Block(byte[] data, int bitOffset){
+		this.data = data;
+		this.bytePosition = bitOffset >> 3;
+	}
+
+	/**
+	 * decodes a block
+	 * @param data compressed data, containing the whole block
+	 * @param bitOffset position of the block magic number in data
+	 * @param blockSize100k block size of the stream (1..9)
+	 * @return uncompressed data of the block
+	 * @throws IOException if the block is corrupt
+	 */
+	public static byte[] decode(byte[] data, int bitOffset, int blockSize100k) throws IOException {
+		BZip2Block block = new BZip2Block(data, bitOffset);
+		block.readBits(bitOffset & 7);
+		return block.decode(blockSize100k * 100000);
+	}
+
+	/**
+	 * @param maxBlockLength
+	 * @return uncompressed block
+	 * @throws IOException
+	 */
+	private byte[] decode(int maxBlockLength) throws IOException {
+		//block header: magic, crc, randomised flag, start pointer of the BWT
+		long magic = ((long) readBits(24) << 24) | readBits(24);
+		if (magic != BLOCK_MAGIC)
+			throw new IOException("No bzip2 block");
+		int blockCRC = readBits(32);
+		if (readBits(1) != 0)
+			throw new IOException("Randomised bzip2 blocks are not supported");
+		int origPtr = readBits(24);
+
+		//used byte values
+		byte[] seqToUnseq = new byte[256];
+		int inUseCount = 0;
+		int inUse16 = readBits(16);
+		for (int i=0; i<16; i++){
+			if ((inUse16 & (0x8000 >>> i)) != 0){
+				int inUse = readBits(16);
+				for (int j=0; j<16; j++){
+					if ((inUse & (0x8000 >>> j)) != 0)
+						seqToUnseq[inUseCount++] = (byte) (i * 16 + j);
+				}
+			}
+		}
+		if (inUseCount == 0)
+			throw new IOException("Corrupt bzip2 block (no symbols)");
+		int alphaSize = inUseCount + 2;
+
+		//coding group of each 50 symbols, move to front coded
+		int groupCount = readBits(3);
+		int selectorCount = readBits(15);
+		if (groupCount < MIN_GROUPS || groupCount > MAX_GROUPS || selectorCount == 0)
+			throw new IOException("Corrupt bzip2 block (selectors)");
+		byte[] groupOrder = new byte[groupCount];
+		for (int i=0; i<groupCount; i++)
+			groupOrder[i] = (byte) i;
+		byte[] selectors = new byte[Math.min(selectorCount, MAX_SELECTORS)];
+		for (int i=0; i<selectorCount; i++){
+			int j = 0;
+			while (readBits(1) != 0){
+				if (++j >= groupCount)
+					throw new IOException("Corrupt bzip2 block (selectors)");
+			}
+			//newer encoders may write more selectors than needed
+			if (i >= MAX_SELECTORS)
+				continue;
+			byte group = groupOrder[j];
+			for (; j>0; j--)
+				groupOrder[j] = groupOrder[j-1];
+			groupOrder[0] = group;
+			selectors[i] = group;
+		}
+		selectorCount = selectors.length;
+
+		//delta coded code lengths of each group
+		int[] lengths = new int[alphaSize];
+		for (int group=0; group<groupCount; group++){
+			int length = readBits(5);
+			for (int i=0; i<alphaSize; i++){
+				while (true){
+					if (length < 1 || length > MAX_CODE_LENGTH)
+						throw new IOException("Corrupt bzip2 block (code lengths)");
+					if (readBits(1) == 0)
+						break;
+					length += (readBits(1) == 0) ? 1 : -1;
+				}
+				lengths[i] = length;
+			}
+			createDecodeTable(group, lengths, alphaSize);
+		}
+
+		//huffman, run length and move to front decoding
+		int[] tt = new int[maxBlockLength];
+		int[] counts = new int[256];
+		byte[] mtf = new byte[256];
+		for (int i=0; i<256; i++)
+			mtf[i] = (byte) i;
+		int endOfBlock = inUseCount + 1;
+		int blockLength = 0;
+		int groupIndex = -1;
+		int groupPosition = 0;
+		int group = 0;
+
+		int symbol;
+		while (true){
+			if (groupPosition == 0){
+				if (++groupIndex >= selectorCount)
+					throw new IOException("Corrupt bzip2 block (too many symbols)");
+				group = selectors[groupIndex];
+				groupPosition = GROUP_SIZE;
+			}
+			groupPosition--;
+			symbol = readSymbol(group);
+
+			if (symbol == endOfBlock)
+				break;
+
+			if (symbol == RUNA || symbol == RUNB){
+				//run of the front symbol, bijective base 2
+				int run = 0;
+				int weight = 1;
+				do {
+					if (weight > maxBlockLength)
+						throw new IOException("Corrupt bzip2 block (run length)");
+					run += (symbol == RUNA) ? weight : weight << 1;
+					weight <<= 1;
+					if (groupPosition == 0){
+						if (++groupIndex >= selectorCount)
+							throw new IOException("Corrupt bzip2 block (too many symbols)");
+						group = selectors[groupIndex];
+						groupPosition = GROUP_SIZE;
+					}
+					groupPosition--;
+					symbol = readSymbol(group);
+				} while (symbol == RUNA || symbol == RUNB);
+
+				int value = seqToUnseq[mtf[0] & 0xFF] & 0xFF;
+				if (blockLength + run > maxBlockLength)
+					throw new IOException("Corrupt bzip2 block (too long)");
+				counts[value] += run;
+				Arrays.fill(tt, blockLength, blockLength + run, value);
+				blockLength += run;
+
+				if (symbol == endOfBlock)
+					break;
+			}
+
+			//move to front
+			int index = symbol - 1;
+			byte front = mtf[index];
+			System.arraycopy(mtf, 0, mtf, 1, index);
+			mtf[0] = front;
+			int value = seqToUnseq[front & 0xFF] & 0xFF;
+			if (blockLength >= maxBlockLength)
+				throw new IOException("Corrupt bzip2 block (too long)");
+			counts[value]++;
+			tt[blockLength++] = value;
+		}
+
+		if (origPtr >= blockLength)
+			throw new IOException("Corrupt bzip2 block (start pointer)");
+
+		//inverse burrows wheeler transform, successors are stored in the upper bits of tt
+		int[] starts = new int[256];
+		for (int i=1; i<256; i++)
+			starts[i] = starts[i-1] + counts[i-1];
+		for (int i=0; i<blockLength; i++){
+			int value = tt[i] & 0xFF;
+			tt[starts[value]++] |= i << 8;
+		}
+
+		//undo the initial run length coding: 4 equal bytes are followed by a repeat count
+		byte[] output = new byte[blockLength + (blockLength >> 2)];
+		int outputLength = 0;
+		int position = tt[origPtr] >>> 8;
+		int last = -1;
+		int run = 0;
+		for (int i=0; i<blockLength; i++){
+			int entry = tt[position];
+			int value = entry & 0xFF;
+			position = entry >>> 8;
+
+			if (run == 4){
+				if (outputLength + value > output.length)
+					output = Arrays.copyOf(output, Math.max(output.length * 2, outputLength + value));
+				Arrays.fill(output, outputLength, outputLength + value, (byte) last);
+				outputLength += value;
+				run = 0;
+				last = -1;
+				continue;
+			}
+			if (value == last)
+				run++;
+			else {
+				run = 1;
+				last = value;
+			}
+			if (outputLength == output.length)
+				output = Arrays.copyOf(output, output.length * 2);
+			output[outputLength++] = (byte) value;
+		}
+
+		if (crc(output, outputLength) != blockCRC)
+			throw new IOException("bzip2 block CRC error");
+		return (outputLength == output.length) ? output : Arrays.copyOf(output, outputLength);
+	}
+
+	/**
+	 * creates the canonical huffman decode table of a coding group
+	 * @param group
+	 * @param lengths code length of each symbol
+	 * @param alphaSize number of symbols
+	 */
+	private void createDecodeTable(int group, int[] lengths, int alphaSize){
+		int minLength = MAX_CODE_LENGTH;
+		int maxLength = 0;
+		for (int i=0; i<alphaSize; i++){
+			minLength = Math.min(minLength, lengths[i]);
+			maxLength = Math.max(maxLength, lengths[i]);
+		}
+
+		//symbols sorted by code length
+		int[] perm = new int[alphaSize];
+		int count = 0;
+		for (int length=minLength; length<=maxLength; length++){
+			for (int i=0; i<alphaSize; i++){
+				if (lengths[i] == length)
+					perm[count++] = i;
+			}
+		}
+
+		int[] limit = limits[group];
+		int[] base = bases[group];
+		Arrays.fill(limit, 0);
+		Arrays.fill(base, 0);
+		for (int i=0; i<alphaSize; i++)
+			base[lengths[i] + 1]++;
+		for (int i=1; i<base.length; i++)
+			base[i] += base[i-1];
+
+		int code = 0;
+		for (int length=minLength; length<=maxLength; length++){
+			code += base[length + 1] - base[length];
+			limit[length] = code - 1;
+			code <<= 1;
+		}
+		for (int length=minLength + 1; length<=maxLength; length++)
+			base[length] = ((limit[length - 1] + 1) << 1) - base[length];
+
+		perms[group] = perm;
+		minLengths[group] = minLength;
+		maxLengths[group] = maxLength;
+	}
+
+	/**
+	 * reads a huffman coded symbol
+	 * @param group coding group
+	 * @return symbol
+	 * @throws IOException
+	 */
+	private int readSymbol(int group) throws IOException {
+		int[] limit = limits[group];
+		int length = minLengths[group];
+		int code = readBits(length);
+		while (code > limit[length]){
+			if (++length > maxLengths[group])
+				throw new IOException("Corrupt bzip2 block (huffman code)");
+			code = (code << 1) | readBits(1);
+		}
+		int index = code - bases[group][length];
+		if (index < 0 || index >= perms[group].length)
+			throw new IOException("Corrupt bzip2 block (huffman code)");
+		return perms[group][index];
+	}
+
+	/**
+	 * @param count number of bits (0..32)
+	 * @return next bits of the data, most significant bit first
+	 * @throws IOException at the end of the data
+	 */
+	private int readBits(int count) throws IOException {
+		while (bitCount < count){
+			if (bytePosition >= data.length)
+				throw new IOException("Truncated bzip2 block");
+			bitBuffer = (bitBuffer << 8) | (data[bytePosition++] & 0xFF);
+			bitCount += 8;
+		}
+		bitCount -= count;
+		return (int) ((bitBuffer >>> bitCount) & ((1L << count) - 1));
+	}
+
+	/**
+	 * @param data
+	 * @param length
+	 * @return bzip2 CRC of data[0 .. length-1]
+	 */
+	private static int crc(byte[] data, int length){
+		int crc = 0xFFFFFFFF;
+		for (int i=0; i<length; i++)
+			crc = (crc << 8) ^ CRC_TABLE[((crc >>> 24) ^ data[i]) & 0xFF];
+		return ~crc;
+	}
+}
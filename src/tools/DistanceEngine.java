@@ -0,0 +1,117 @@
+package tools;
+
+/**
+ * Calculates distances between nodes given in Longitude/Latitude.
+ * The cosine of the latitude is passed in, so it is calculated once per node and not
+ * once per distance. The exact mode is the haversine formula of Tools.distance() and gives
+ * the same results. The approximate mode uses the equirectangular projection for nodes less
+ * than APPROXIMATION_LIMIT degrees apart, its error there is below MAX_APPROXIMATION_ERROR,
+ * nodes further apart are calculated exactly.
+ * @author Norbert Goebel
+ *
+ */
+public class DistanceEngine {
+
+	//radius of the earth in m, as in Tools.distance()
+	private static final int EARTH_RADIUS = 6371000;
+
+	//maximal difference of latitude and longitude in degrees for the approximation
+	public static final double APPROXIMATION_LIMIT = 0.1;
+
+	//error of the approximation in meters below the limit and up to 80 degrees latitude, see benchmark.DistanceBenchmark
+	public static final double MAX_APPROXIMATION_ERROR = 0.01;
+
+	private boolean approximate;
+
+	/**
+	 * @param approximate use the equirectangular projection for short distances
+	 */
+	public DistanceEngine(boolean approximate){
+		this.approximate = approximate;
+	}
+
+	/**
+	 * @return true if short distances are approximated
+	 */
+	public boolean isApproximate(){
+		return approximate;
+	}
+
+	/**
+	 * @param latitude in degrees
+	 * @return the cosine of the latitude as the distances need it
+	 */
+	public static double cosLatitude(double latitude){
+		return Math.cos(latitude/180*Math.PI);
+	}
+
+	/**
+	 * @param lat1
+	 * @param lon1
+	 * @param cosLat1 cosLatitude(lat1)
+	 * @param lat2
+	 * @param lon2
+	 * @param cosLat2 cosLatitude(lat2)
+	 * @return distance in meters, cut to whole meters like Tools.distance()
+	 */
+	public int distance(double lat1, double lon1, double cosLat1, double lat2, double lon2, double cosLat2){
+		return (int) meters(lat1, lon1, cosLat1, lat2, lon2, cosLat2);
+	}
+
+	/**
+	 * @param lat1
+	 * @param lon1
+	 * @param cosLat1 cosLatitude(lat1)
+	 * @param lat2
+	 * @param lon2
+	 * @param cosLat2 cosLatitude(lat2)
+	 * @return distance in meters
+	 */
+	public double meters(double lat1, double lon1, double cosLat1, double lat2, double lon2, double cosLat2){
+		if (approximate && Math.abs(lat1-lat2) <= APPROXIMATION_LIMIT && Math.abs(lon1-lon2) <= APPROXIMATION_LIMIT){
+			//equirectangular projection at the mean cosine of both latitudes
+			double dLat = (lat1-lat2)/180*Math.PI;
+			double dLon = (lon1-lon2)/180*Math.PI * (cosLat1+cosLat2)/2;
+			return EARTH_RADIUS * Math.sqrt(dLat * dLat + dLon * dLon);
+		}
+		return haversine(lat1, lon1, cosLat1, lat2, lon2, cosLat2);
+	}
+
+	/**
+	 * The haversine formula as in Tools.distance(), with the cosines passed in
+	 * @param lat1
+	 * @param lon1
+	 * @param cosLat1
+	 * @param lat2
+	 * @param lon2
+	 * @param cosLat2
+	 * @return distance in meters
+	 */
+	public static double haversine(double lat1, double lon1, double cosLat1, double lat2, double lon2, double cosLat2){
+		double dLat2=(lat1-lat2)/360*Math.PI; //dlat/2
+		double dLon2=(lon1-lon2)/360*Math.PI; //dlon/2
+
+		double sindlat2 = Math.sin(dLat2);
+		double sindlon2 = Math.sin(dLon2);
+		double a = sindlat2 * sindlat2 + cosLat1 * cosLat2 * sindlon2 * sindlon2;
+		return EARTH_RADIUS * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1-a));
+	}
+
+	/**
+	 * Calculates the distances between consecutive nodes of a way in one call
+	 * @param lats latitudes of the nodes
+	 * @param lons longitudes of the nodes
+	 * @param cosLats cosLatitude() of the nodes
+	 * @param count number of nodes
+	 * @param distances gets the distance from node k to node k+1 at k, needs count-1 entries
+	 * @return the sum of the distances
+	 */
+	public int distances(double[] lats, double[] lons, double[] cosLats, int count, int[] distances){
+		int sum = 0;
+		for (int k=0; k<count-1; k++){
+			distances[k] = distance(lats[k], lons[k], cosLats[k], lats[k + 1], lons[k + 1], cosLats[k + 1]);
+			sum += distances[k];
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,127 @@
+package tools;
+
+import java.util.Arrays;
+
+/**
+ * Hash set for non negative primitive int values (e.g. dense node indices).
+ * Uses open addressing with linear probing like the LongSet.
+ * @author Norbert Goebel
+ *
+ */
+public class IntSet {
+
+	//marks a free slot in the value array
+	private static final int FREE = -1;
+
+	//table is resized if it is filled more than this
+	private static final float LOAD_FACTOR = 0.6f;
+
+	private int[] values;
+	private int size = 0;
+	private int mask;
+	private int resizeAt;
+
+	/**
+	 * creates an empty set
+	 */
+	public IntSet(){
+		this(16);
+	}
+
+	/**
+	 * creates an empty set for about expectedSize values
+	 * @param expectedSize
+	 */
+	public IntSet(int expectedSize){
+		allocate(LongSet.tableSize(expectedSize));
+	}
+
+	/**
+	 * adds a value to the set
+	 * @param value must not be negative
+	 * @return true if the value was not already in the set
+	 */
+	public boolean add(int value){
+		if (value < 0)
+			throw new IllegalArgumentException("Negative value "+value+" can't be stored");
+
+		int slot = LongSet.mix(value) & mask;
+		while (values[slot] != FREE){
+			if (values[slot] == value)
+				return false;
+			slot = (slot + 1) & mask;
+		}
+		values[slot] = value;
+
+		if (++size > resizeAt)
+			rehash(values.length << 1);
+		return true;
+	}
+
+	/**
+	 * checks if a value is stored in this set
+	 * @param value
+	 * @return boolean
+	 */
+	public boolean contains(int value){
+		if (value < 0)
+			return false;
+
+		int slot = LongSet.mix(value) & mask;
+		while (values[slot] != FREE){
+			if (values[slot] == value)
+				return true;
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * @return number of values in this set
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * @return all values of this set in no particular order
+	 */
+	public int[] toArray(){
+		int[] array = new int[size];
+		int count = 0;
+		for (int value : values){
+			if (value != FREE)
+				array[count++] = value;
+		}
+		return array;
+	}
+
+	/**
+	 * creates new empty table
+	 * @param tableSize must be a power of two
+	 */
+	private void allocate(int tableSize){
+		values = new int[tableSize];
+		Arrays.fill(values, FREE);
+		mask = tableSize - 1;
+		resizeAt = (int) (tableSize * LOAD_FACTOR);
+	}
+
+	/**
+	 * moves all values into a table of the new size
+	 * @param tableSize
+	 */
+	private void rehash(int tableSize){
+		int[] oldValues = values;
+		allocate(tableSize);
+
+		for (int value : oldValues){
+			if (value == FREE)
+				continue;
+			int slot = LongSet.mix(value) & mask;
+			while (values[slot] != FREE)
+				slot = (slot + 1) & mask;
+			values[slot] = value;
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package tools;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from primitive long keys (e.g. OSM node IDs) to int values.
+ * Uses open addressing with linear probing like the LongSet.
+ * @author Norbert Goebel
+ *
+ */
+public class LongIntMap {
+
+	//marks a free slot in the key array
+	private static final long FREE = Long.MIN_VALUE;
+
+	//table is resized if it is filled more than this
+	private static final float LOAD_FACTOR = 0.6f;
+
+	private long[] keys;
+	private int[] values;
+	private int size = 0;
+	private int mask;
+	private int resizeAt;
+
+	//FREE itself can't be stored in the table
+	private boolean containsFree = false;
+	private int freeValue = 0;
+
+	/**
+	 * creates an empty map
+	 */
+	public LongIntMap(){
+		this(1024);
+	}
+
+	/**
+	 * creates an empty map for about expectedSize keys
+	 * @param expectedSize
+	 */
+	public LongIntMap(int expectedSize){
+		allocate(LongSet.tableSize(expectedSize));
+	}
+
+	/**
+	 * stores a value, an old value of the key is replaced
+	 * @param key
+	 * @param value
+	 */
+	public void put(long key, int value){
+		if (key == FREE){
+			if (!containsFree)
+				size++;
+			containsFree = true;
+			freeValue = value;
+			return;
+		}
+
+		int slot = LongSet.mix(key) & mask;
+		while (keys[slot] != FREE){
+			if (keys[slot] == key){
+				values[slot] = value;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+
+		if (++size > resizeAt)
+			rehash(keys.length << 1);
+	}
+
+	/**
+	 * @param key
+	 * @param defaultValue
+	 * @return value of the key or defaultValue if the key is not stored
+	 */
+	public int get(long key, int defaultValue){
+		if (key == FREE)
+			return containsFree ? freeValue : defaultValue;
+
+		int slot = LongSet.mix(key) & mask;
+		while (keys[slot] != FREE){
+			if (keys[slot] == key)
+				return values[slot];
+			slot = (slot + 1) & mask;
+		}
+		return defaultValue;
+	}
+
+	/**
+	 * @return number of keys in this map
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * creates new empty table
+	 * @param tableSize must be a power of two
+	 */
+	private void allocate(int tableSize){
+		keys = new long[tableSize];
+		values = new int[tableSize];
+		Arrays.fill(keys, FREE);
+		mask = tableSize - 1;
+		resizeAt = (int) (tableSize * LOAD_FACTOR);
+	}
+
+	/**
+	 * moves all entries into a table of the new size
+	 * @param tableSize
+	 */
+	private void rehash(int tableSize){
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		allocate(tableSize);
+
+		for (int i=0; i<oldKeys.length; i++){
+			if (oldKeys[i] == FREE)
+				continue;
+			int slot = LongSet.mix(oldKeys[i]) & mask;
+			while (keys[slot] != FREE)
+				slot = (slot + 1) & mask;
+			keys[slot] = oldKeys[i];
+			values[slot] = oldValues[i];
+		}
+	}
+}
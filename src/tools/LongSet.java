@@ -0,0 +1,146 @@
+package tools;
+
+import java.util.Arrays;
+
+/**
+ * Hash set for primitive long values (e.g. OSM node IDs).
+ * Uses open addressing with linear probing, so no Long objects
+ * and no entry objects are created per element.
+ * @author Norbert Goebel
+ *
+ */
+public class LongSet {
+
+	//marks a free slot in the key array
+	private static final long FREE = Long.MIN_VALUE;
+
+	//table is resized if it is filled more than this
+	private static final float LOAD_FACTOR = 0.6f;
+
+	private long[] keys;
+	private int size = 0;
+	private int mask;
+	private int resizeAt;
+
+	//FREE itself can't be stored in the table
+	private boolean containsFree = false;
+
+	/**
+	 * creates an empty set
+	 */
+	public LongSet(){
+		this(1024);
+	}
+
+	/**
+	 * creates an empty set for about expectedSize values
+	 * @param expectedSize
+	 */
+	public LongSet(int expectedSize){
+		allocate(tableSize(expectedSize));
+	}
+
+	/**
+	 * adds a value to the set
+	 * @param value
+	 * @return true if the value was not already in the set
+	 */
+	public boolean add(long value){
+		if (value == FREE){
+			if (containsFree)
+				return false;
+			containsFree = true;
+			size++;
+			return true;
+		}
+
+		int slot = mix(value) & mask;
+		while (keys[slot] != FREE){
+			if (keys[slot] == value)
+				return false;
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = value;
+
+		if (++size > resizeAt)
+			rehash(keys.length << 1);
+		return true;
+	}
+
+	/**
+	 * checks if a value is stored in this set
+	 * @param value
+	 * @return boolean
+	 */
+	public boolean contains(long value){
+		if (value == FREE)
+			return containsFree;
+
+		int slot = mix(value) & mask;
+		while (keys[slot] != FREE){
+			if (keys[slot] == value)
+				return true;
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * @return number of values in this set
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * spreads the bits of a long value to get well distributed slots.
+	 * All bits are mixed, consecutive IDs and dense indices must not fill
+	 * runs of neighbouring slots, under linear probing such runs collide as a whole.
+	 * @param value
+	 * @return hash code
+	 */
+	public static int mix(long value){
+		long h = value * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * calculates a power of two table size to hold expectedSize values
+	 * @param expectedSize
+	 * @return table size
+	 */
+	public static int tableSize(int expectedSize){
+		long needed = (long) Math.ceil(Math.max(expectedSize, 4) / (double) LOAD_FACTOR);
+		int tableSize = Integer.highestOneBit((int) Math.min(needed, 1 << 30));
+		return (tableSize < needed) ? tableSize << 1 : tableSize;
+	}
+
+	/**
+	 * creates new empty table
+	 * @param tableSize must be a power of two
+	 */
+	private void allocate(int tableSize){
+		keys = new long[tableSize];
+		Arrays.fill(keys, FREE);
+		mask = tableSize - 1;
+		resizeAt = (int) (tableSize * LOAD_FACTOR);
+	}
+
+	/**
+	 * moves all values into a table of the new size
+	 * @param tableSize
+	 */
+	private void rehash(int tableSize){
+		long[] oldKeys = keys;
+		allocate(tableSize);
+
+		for (long key : oldKeys){
+			if (key == FREE)
+				continue;
+			int slot = mix(key) & mask;
+			while (keys[slot] != FREE)
+				slot = (slot + 1) & mask;
+			keys[slot] = key;
+		}
+	}
+}
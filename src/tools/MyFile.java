@@ -1,45 +1,71 @@
-package tools;
-
-import java.io.File;
-
-/**
- * Extended file class, able to give back just the file name without extension
- * @author Daniel Sathees Elmo
- *
- */
-
-public class MyFile extends File{
-
-	/**
-	 * serialversionUID
-	 */
-	private static final long serialVersionUID = 1L;
-
-	
-	/**
-	 * constructor needs path of file
-	 * @param pathname 
-	 */
-	public MyFile(String pathname) {
-		//call super constructor
-		super(pathname);
-	}
-	
-
-	/**
-	 * method to extract filename without its extension
-	 * @return filename as string without extension
-	 */
-	public String getNameWithoutExt(){
-		//extract file name
-		String fileName=super.getName();
-		//get position of last dot
-		int dotPos=fileName.lastIndexOf(".");
-		//if there is no dot, cut whole String
-		if (dotPos==-1)
-			dotPos=fileName.length();
-		//return without extension
-		return fileName.substring(0, dotPos);
-	}
-
-}
+package tools;
+
+import java.io.File;
+
+/**
+ * Extended file class, able to give back just the file name without extension
+ * @author Daniel Sathees Elmo
+ *
+ */
+
+public class MyFile extends File{
+
+	/**
+	 * serialversionUID
+	 */
+	private static final long serialVersionUID = 1L;
+
+	
+	/**
+	 * constructor needs path of file
+	 * @param pathname 
+	 */
+	public MyFile(String pathname) {
+		//call super constructor
+		super(pathname);
+	}
+	
+
+	/**
+	 * method to extract filename without its extension
+	 * @return filename as string without extension
+	 */
+	public String getNameWithoutExt(){
+		//extract file name
+		String fileName=super.getName();
+		//get position of last dot
+		int dotPos=fileName.lastIndexOf(".");
+		//if there is no dot, cut whole String
+		if (dotPos==-1)
+			dotPos=fileName.length();
+		//return without extension
+		return fileName.substring(0, dotPos);
+	}
+	
+	/**
+	 * method to extract filename without its known extensions (e.g. ".osm", ".pbf"),
+	 * if none of them matches, the last extension is removed
+	 * @param extensions known extensions including the dot
+	 * @return filename as string without extensions
+	 */
+	public String getNameWithoutExt(String... extensions){
+		String fileName=super.getName();
+		boolean found=true;
+		boolean removed=false;
+		
+		//remove known extensions as long as we find one
+		while (found){
+			found=false;
+			for (String extension : extensions){
+				if (fileName.length() > extension.length() && 
+					fileName.toLowerCase().endsWith(extension.toLowerCase())){
+					fileName=fileName.substring(0, fileName.length() - extension.length());
+					found=true;
+					removed=true;
+				}
+			}
+		}
+		return (removed) ? fileName : getNameWithoutExt();
+	}
+
+}
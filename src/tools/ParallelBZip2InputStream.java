@@ -0,0 +1,360 @@
+package tools;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Uncompresses a bzip2 file (also concatenated streams as written by pbzip2).
+ * The compressed data is split at the block magic numbers, the blocks are decoded
+ * by a thread pool and read back in their original order.
+ * A block magic number can appear by chance inside the compressed data and split a block,
+ * the first part then fails to decode and is decoded again together with the following part.
+ * An end of stream magic number is only taken if a stream header or the end of the input follows it.
+ * @author Norbert Goebel
+ *
+ */
+public class ParallelBZip2InputStream extends InputStream {
+
+	private static final long MAGIC_MASK = 0xFFFFFFFFFFFFL;
+	private static final int MAGIC_BITS = 48;
+	private static final int CRC_BITS = 32;
+
+	//a block of n bytes has at most n + 1 symbols of up to 20 bits, plus its tables
+	private static final int MAX_CODE_LENGTH = 20;
+	private static final int MAX_TABLE_BYTES = 1 << 16;
+
+	//decoded blocks waiting to be read per thread
+	private static final int BLOCKS_PER_THREAD = 2;
+
+	private InputStream input;
+	private boolean inputEnd = false;
+
+	//compressed data not yet handed to a decoder, positions are relative to buffer
+	private byte[] buffer = new byte[1 << 20];
+	private int bufferLength = 0;
+	private int streamStart = 0; //byte position of the next stream header if blockStart < 0
+	private long blockStart = -1; //bit position of the current block
+	private long scanPosition = 0; //next bit to look at for a magic number
+	private long window = 0; //last bits seen while scanning
+	private int windowBits = 0;
+	private int blockSize100k = 9;
+	private boolean splitDone = false;
+
+	//decoding
+	private ExecutorService decoders;
+	private int maxPending;
+	private ArrayDeque<Chunk> pending = new ArrayDeque<Chunk>();
+	private AtomicLong decodingTime = new AtomicLong();
+
+	//current uncompressed block
+	private byte[] block = new byte[0];
+	private int blockPosition = 0;
+
+	/**
+	 * @param input bzip2 compressed input
+	 * @param threads number of decoding threads
+	 */
+	public ParallelBZip2InputStream(InputStream input, int threads){
+		this.input = input;
+		threads = Math.max(1, threads);
+		this.decoders = Executors.newFixedThreadPool(threads);
+		this.maxPending = threads * BLOCKS_PER_THREAD;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (blockPosition == block.length && !nextBlock())
+			return -1;
+		return block[blockPosition++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0)
+			return 0;
+		if (blockPosition == block.length && !nextBlock())
+			return -1;
+		int count = Math.min(len, block.length - blockPosition);
+		System.arraycopy(block, blockPosition, b, off, count);
+		blockPosition += count;
+		return count;
+	}
+
+	@Override
+	public int available(){
+		return block.length - blockPosition;
+	}
+
+	@Override
+	public void close() throws IOException {
+		decoders.shutdownNow();
+		input.close();
+	}
+
+	/**
+	 * @return time the decoding threads spent on decoding blocks in milliseconds
+	 */
+	public long getDecodingTime(){
+		return decodingTime.get() / 1000000;
+	}
+
+	/**
+	 * fills the decoder queue and takes the next uncompressed block
+	 * @return false at the end of the data
+	 * @throws IOException
+	 */
+	private boolean nextBlock() throws IOException {
+		do {
+			while (!splitDone && pending.size() < maxPending)
+				splitBlock();
+			if (pending.isEmpty())
+				return false;
+
+			Chunk chunk = pending.poll();
+			try {
+				block = chunk.result.get();
+			} catch (ExecutionException e) {
+				//the chunk may end at a magic number inside the block, try again with the following chunk
+				Chunk merged = mergeWithNext(chunk);
+				if (merged != null){
+					pending.addFirst(merged);
+					block = new byte[0];
+					blockPosition = 0;
+					continue;
+				}
+				if (e.getCause() instanceof IOException)
+					throw (IOException) e.getCause();
+				throw new IOException("Error decoding bzip2 block", e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while decoding bzip2 blocks", e);
+			}
+			blockPosition = 0;
+		} while (block.length == 0);
+		return true;
+	}
+
+	/**
+	 * finds the next block in the compressed data and passes it to a decoder
+	 * @throws IOException
+	 */
+	private void splitBlock() throws IOException {
+		while (true){
+			if (blockStart < 0 && !readStreamHeader()){
+				splitDone = true;
+				return;
+			}
+
+			//look for the magic number of the next block or the end of the stream,
+			//right behind the stream header we find the magic number of the first block
+			long magic = scanMagic();
+			boolean streamEnd = (magic == BZip2Block.END_OF_STREAM_MAGIC) && isStreamEnd();
+			if (magic == BZip2Block.END_OF_STREAM_MAGIC && !streamEnd){
+				//inside a block, go on scanning behind it
+				window = magic;
+				windowBits = MAGIC_BITS;
+				continue;
+			}
+			long blockEnd = scanPosition - MAGIC_BITS;
+			boolean submitted = blockEnd > blockStart;
+			if (submitted)
+				pending.add(submit(blockStart, blockEnd, streamEnd));
+			blockStart = blockEnd;
+
+			if (streamEnd){
+				//the next stream starts at the byte boundary behind the stream crc
+				streamStart = (int) ((scanPosition + CRC_BITS + 7) >>> 3);
+				blockStart = -1;
+			}
+			if (submitted)
+				return;
+		}
+	}
+
+	/**
+	 * checks the data behind an end of stream magic number, scanPosition is behind it:
+	 * the stream crc, zero bits up to the next byte and another stream header or the end of the input
+	 * @return true if the magic number ends the stream
+	 * @throws IOException
+	 */
+	private boolean isStreamEnd() throws IOException {
+		while (bufferLength < ((scanPosition + CRC_BITS + 7) >>> 3) + 4 && readInput());
+		long crcEnd = scanPosition + CRC_BITS;
+		int next = (int) ((crcEnd + 7) >>> 3);
+		if (bufferLength < next)
+			return false;
+		for (long position=crcEnd; position<(long) next * 8; position++){
+			if (((buffer[(int) (position >>> 3)] >>> (7 - ((int) position & 7))) & 1) != 0)
+				return false;
+		}
+		if (bufferLength < next + 4)
+			return bufferLength == next && inputEnd;
+		return buffer[next] == 'B' && buffer[next + 1] == 'Z' && buffer[next + 2] == 'h'
+				&& buffer[next + 3] >= '1' && buffer[next + 3] <= '9';
+	}
+
+	/**
+	 * reads the header of the next stream ("BZh" and block size)
+	 * @return false at the end of the input
+	 * @throws IOException if there is no bzip2 stream
+	 */
+	private boolean readStreamHeader() throws IOException {
+		while (bufferLength - streamStart < 4 && readInput());
+		if (bufferLength == streamStart)
+			return false;
+		if (bufferLength - streamStart < 4 || buffer[streamStart] != 'B' || buffer[streamStart + 1] != 'Z'
+				|| buffer[streamStart + 2] != 'h' || buffer[streamStart + 3] < '1' || buffer[streamStart + 3] > '9')
+			throw new IOException("No bzip2 stream");
+		blockSize100k = buffer[streamStart + 3] - '0';
+		blockStart = (long) (streamStart + 4) * 8;
+		scanPosition = blockStart;
+		window = 0;
+		windowBits = 0;
+		return true;
+	}
+
+	/**
+	 * scans the compressed data bit by bit until a block or end of stream magic number is found
+	 * @return the magic number found, scanPosition is behind it
+	 * @throws IOException at the end of the input
+	 */
+	private long scanMagic() throws IOException {
+		long bits = window;
+		int count = windowBits;
+		long position = scanPosition;
+		while (true){
+			long end = (long) bufferLength * 8;
+			byte[] data = buffer;
+			while (position < end){
+				bits = (bits << 1) | ((data[(int) (position >>> 3)] >>> (7 - ((int) position & 7))) & 1);
+				position++;
+				if (++count >= MAGIC_BITS){
+					long magic = bits & MAGIC_MASK;
+					if (magic == BZip2Block.BLOCK_MAGIC || magic == BZip2Block.END_OF_STREAM_MAGIC){
+						scanPosition = position;
+						window = 0;
+						windowBits = 0;
+						return magic;
+					}
+				}
+			}
+			scanPosition = position;
+			window = bits;
+			windowBits = count;
+			if (!readInput())
+				throw new IOException("Truncated bzip2 stream");
+			position = scanPosition;
+		}
+	}
+
+	/**
+	 * copies a block out of the buffer and passes it to a decoder
+	 * @param start bit position of the block magic number
+	 * @param end bit position behind the block
+	 * @param streamEnd true if the end of stream magic number follows the block
+	 * @return the chunk being decoded
+	 */
+	private Chunk submit(long start, long end, boolean streamEnd){
+		byte[] data = Arrays.copyOfRange(buffer, (int) (start >>> 3), (int) ((end + 7) >>> 3));
+		int bitOffset = (int) (start & 7);
+		return submit(new Chunk(data, bitOffset, bitOffset + (end - start), streamEnd, blockSize100k));
+	}
+
+	/**
+	 * passes a chunk to a decoder
+	 * @param chunk
+	 * @return chunk
+	 */
+	private Chunk submit(final Chunk chunk){
+		chunk.result = decoders.submit(new Callable<byte[]>() {
+			public byte[] call() throws IOException {
+				long startTime = System.nanoTime();
+				byte[] block = BZip2Block.decode(chunk.data, chunk.bitOffset, chunk.blockSize100k);
+				decodingTime.addAndGet(System.nanoTime() - startTime);
+				return block;
+			}
+		});
+		return chunk;
+	}
+
+	/**
+	 * joins a chunk that failed to decode with the following chunk of its stream and decodes both as one block
+	 * @param chunk
+	 * @return the joined chunk being decoded, null if the chunk can't be part of a longer block
+	 * @throws IOException
+	 */
+	private Chunk mergeWithNext(Chunk chunk) throws IOException {
+		if (chunk.streamEnd || chunk.data.length > chunk.blockSize100k * 100000L * MAX_CODE_LENGTH / 8 + MAX_TABLE_BYTES)
+			return null;
+		while (!splitDone && pending.isEmpty())
+			splitBlock();
+		Chunk next = pending.poll();
+		if (next == null)
+			return null;
+		next.result.cancel(true);
+
+		//next starts in the byte where chunk ends
+		int length = (int) (chunk.end >>> 3);
+		byte[] data = Arrays.copyOf(chunk.data, length + next.data.length);
+		System.arraycopy(next.data, 0, data, length, next.data.length);
+		return submit(new Chunk(data, chunk.bitOffset, (long) length * 8 + next.end, next.streamEnd, chunk.blockSize100k));
+	}
+
+	/**
+	 * drops the data already handed to decoders and reads more compressed data
+	 * @return false at the end of the input
+	 * @throws IOException
+	 */
+	private boolean readInput() throws IOException {
+		if (inputEnd)
+			return false;
+
+		int keep = (blockStart >= 0) ? (int) (blockStart >>> 3) : Math.min(streamStart, bufferLength);
+		if (keep > 0){
+			System.arraycopy(buffer, keep, buffer, 0, bufferLength - keep);
+			bufferLength -= keep;
+			streamStart -= keep;
+			if (blockStart >= 0)
+				blockStart -= (long) keep * 8;
+			scanPosition -= (long) keep * 8;
+		}
+		if (bufferLength == buffer.length)
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+
+		int count = input.read(buffer, bufferLength, buffer.length - bufferLength);
+		if (count < 0){
+			inputEnd = true;
+			return false;
+		}
+		bufferLength += count;
+		return true;
+	}
+
+	/**
+	 * compressed data between two magic numbers and its decoding
+	 */
+	private static class Chunk {
+		byte[] data;
+		int bitOffset; //bit position of the block magic number in data
+		long end; //bit position behind the block in data
+		boolean streamEnd; //the end of stream magic number follows
+		int blockSize100k;
+		Future<byte[]> result;
+
+		Chunk(byte[] data, int bitOffset, long end, boolean streamEnd, int blockSize100k){
+			this.data = data;
+			this.bitOffset = bitOffset;
+			this.end = end;
+			this.streamEnd = streamEnd;
+			this.blockSize100k = blockSize100k;
+		}
+	}
+}
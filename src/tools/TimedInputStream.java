@@ -0,0 +1,61 @@
+package tools;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream measuring the time spent reading from the underlying stream,
+ * e.g. to separate decompression time from parsing time.
+ * @author Norbert Goebel
+ *
+ */
+public class TimedInputStream extends FilterInputStream {
+
+	private long time = 0;
+
+	/**
+	 * @param input
+	 */
+	public TimedInputStream(InputStream input){
+		super(input);
+	}
+
+	@Override
+	public int read() throws IOException {
+		long start = System.nanoTime();
+		int value = super.read();
+		time += System.nanoTime() - start;
+		return value;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		long start = System.nanoTime();
+		int count = super.read(b, off, len);
+		time += System.nanoTime() - start;
+		return count;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long start = System.nanoTime();
+		long count = super.skip(n);
+		time += System.nanoTime() - start;
+		return count;
+	}
+
+	/**
+	 * @return time spent in the underlying stream in milliseconds
+	 */
+	public long getTime(){
+		return time / 1000000;
+	}
+
+	/**
+	 * @return the underlying stream
+	 */
+	public InputStream getInput(){
+		return in;
+	}
+}